@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Base class for benchmark states which operate on a set of synthetic compilation units.
+ * The sources are generated and analyzed once per trial.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractCompiledState {
+
+	/**
+	 * The number of annotated classes.
+	 */
+	@Param({"100", "1000"})
+	public int classes;
+
+	/**
+	 * The number of marker annotations on each annotated element.
+	 */
+	@Param({"1", "4"})
+	public int annotationsPerElement;
+
+	/**
+	 * The depth of the class hierarchy above each annotated class.
+	 */
+	@Param({"2", "8"})
+	public int hierarchyDepth;
+
+	protected CompiledSources sources;
+
+	@Setup(Level.Trial)
+	public void compile() throws IOException {
+		sources = CompiledSources.analyze(SyntheticSources.generate(classes, annotationsPerElement, hierarchyDepth));
+		init();
+	}
+
+	/**
+	 * Hook for subclasses to perform additional initialization after the sources have been
+	 * analyzed.
+	 */
+	protected void init() {
+	}
+}
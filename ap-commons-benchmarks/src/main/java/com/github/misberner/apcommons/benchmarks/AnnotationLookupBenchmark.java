@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import com.github.misberner.apcommons.util.APUtils;
+import com.github.misberner.apcommons.util.annotations.AnnotationUtils;
+
+/**
+ * Benchmarks for annotation mirror and annotation value lookups. Each operation simulates one
+ * round of annotation processing, in which every marker annotation is looked up on every
+ * annotated element.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationLookupBenchmark {
+
+	public static class CompiledState extends AbstractCompiledState {
+		List<Element> elements;
+
+		@Override
+		protected void init() {
+			elements = new ArrayList<>();
+			for(TypeElement type : sources.getTypeElements()) {
+				elements.add(type);
+				elements.addAll(type.getEnclosedElements());
+			}
+		}
+	}
+
+	@Benchmark
+	public void findAnnotationMirrorBaseline(CompiledState state, Blackhole bh) {
+		for(Class<? extends java.lang.annotation.Annotation> annType : Markers.TYPES) {
+			for(Element elem : state.elements) {
+				bh.consume(AnnotationUtils.findAnnotationMirror(elem, annType));
+			}
+		}
+	}
+
+	@Benchmark
+	public void findAnnotationMirror(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		for(Class<? extends java.lang.annotation.Annotation> annType : Markers.TYPES) {
+			for(Element elem : state.elements) {
+				bh.consume(utils.findAnnotationMirror(elem, annType));
+			}
+		}
+	}
+
+	@Benchmark
+	public void annotationValuesBaseline(CompiledState state, Blackhole bh) {
+		for(Element elem : state.elements) {
+			for(AnnotationMirror am : elem.getAnnotationMirrors()) {
+				bh.consume(AnnotationUtils.getAnnotationValues(am).get("weight"));
+			}
+		}
+	}
+
+	@Benchmark
+	public void annotationValues(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		for(Element elem : state.elements) {
+			for(AnnotationMirror am : elem.getAnnotationMirrors()) {
+				bh.consume(utils.getAnnotationValues(am).getValue("weight"));
+			}
+		}
+	}
+
+	@Benchmark
+	public void annotationValuesWithDefaults(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		for(Element elem : state.elements) {
+			for(AnnotationMirror am : elem.getAnnotationMirrors()) {
+				bh.consume(utils.getAnnotationValues(am, true).getValue("weight"));
+			}
+		}
+	}
+}
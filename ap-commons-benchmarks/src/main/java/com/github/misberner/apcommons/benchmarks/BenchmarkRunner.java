@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running the benchmarks. Accepts the same command line arguments as the
+ * JMH runner, but writes results in JSON format (to <tt>jmh-result.json</tt> by default)
+ * unless a different result format is specified. Requests for listing benchmarks, profilers
+ * or result formats, as well as for help, are delegated to the JMH {@link Main} class.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args)
+			throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		if(cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+				|| cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(cmdOptions);
+		if(!cmdOptions.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		Options options = builder.build();
+		new Runner(options).run();
+	}
+}
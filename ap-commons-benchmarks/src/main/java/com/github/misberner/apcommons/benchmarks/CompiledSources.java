@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.ElementScanner7;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.sun.source.util.JavacTask;
+
+/**
+ * The result of analyzing a set of compilation units with the in-process Java compiler.
+ * <p>
+ * Provides access to the resulting type elements, as well as a {@link ProcessingEnvironment}
+ * and a {@link RoundEnvironment} which can be used to drive annotation processors outside
+ * of an actual compilation. The processing environment discards all messages, and its
+ * {@link Filer} does not support creating any files. As in javac, the round environment
+ * scans all root elements on every call to {@code getElementsAnnotatedWith}.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class CompiledSources {
+
+	private static final class DiscardingMessager implements Messager {
+		@Override
+		public void printMessage(Diagnostic.Kind kind, CharSequence msg) {
+		}
+		@Override
+		public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e) {
+		}
+		@Override
+		public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a) {
+		}
+		@Override
+		public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a,
+				AnnotationValue v) {
+		}
+	}
+
+	private static final class UnsupportedFiler implements Filer {
+		@Override
+		public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+			throw new IOException("Creating files is not supported in benchmarks");
+		}
+		@Override
+		public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+			throw new IOException("Creating files is not supported in benchmarks");
+		}
+		@Override
+		public FileObject createResource(Location location, CharSequence pkg, CharSequence relativeName,
+				Element... originatingElements) throws IOException {
+			throw new IOException("Creating files is not supported in benchmarks");
+		}
+		@Override
+		public FileObject getResource(Location location, CharSequence pkg, CharSequence relativeName)
+				throws IOException {
+			throw new IOException("Reading files is not supported in benchmarks");
+		}
+	}
+
+	private final class Environment implements ProcessingEnvironment {
+		private final Messager messager = new DiscardingMessager();
+		private final Filer filer = new UnsupportedFiler();
+
+		@Override
+		public Map<String,String> getOptions() {
+			return Collections.emptyMap();
+		}
+		@Override
+		public Messager getMessager() {
+			return messager;
+		}
+		@Override
+		public Filer getFiler() {
+			return filer;
+		}
+		@Override
+		public Elements getElementUtils() {
+			return elementUtils;
+		}
+		@Override
+		public Types getTypeUtils() {
+			return typeUtils;
+		}
+		@Override
+		public SourceVersion getSourceVersion() {
+			return SourceVersion.latest();
+		}
+		@Override
+		public Locale getLocale() {
+			return Locale.getDefault();
+		}
+	}
+
+	/**
+	 * Collects all elements annotated with a given annotation type, in the same way as javac's
+	 * implementation of {@link RoundEnvironment#getElementsAnnotatedWith(TypeElement)}: every
+	 * invocation scans all root elements, including type parameters and method parameters,
+	 * and considers inherited annotations.
+	 */
+	private final class AnnotatedElementScanner extends ElementScanner7<Void,Set<Element>> {
+		private final TypeElement annotationType;
+
+		public AnnotatedElementScanner(TypeElement annotationType) {
+			this.annotationType = annotationType;
+		}
+
+		@Override
+		public Void scan(Element e, Set<Element> result) {
+			for(AnnotationMirror am : elementUtils.getAllAnnotationMirrors(e)) {
+				if(am.getAnnotationType().asElement() == annotationType) {
+					result.add(e);
+					break;
+				}
+			}
+			return super.scan(e, result);
+		}
+
+		@Override
+		public Void visitType(TypeElement e, Set<Element> result) {
+			scan(e.getTypeParameters(), result);
+			return super.visitType(e, result);
+		}
+
+		@Override
+		public Void visitExecutable(ExecutableElement e, Set<Element> result) {
+			scan(e.getTypeParameters(), result);
+			return super.visitExecutable(e, result);
+		}
+	}
+
+	private final class Round implements RoundEnvironment {
+		@Override
+		public boolean processingOver() {
+			return false;
+		}
+		@Override
+		public boolean errorRaised() {
+			return false;
+		}
+		@Override
+		public Set<? extends Element> getRootElements() {
+			return rootElements;
+		}
+		@Override
+		public Set<? extends Element> getElementsAnnotatedWith(TypeElement a) {
+			Set<Element> result = new LinkedHashSet<>();
+			AnnotatedElementScanner scanner = new AnnotatedElementScanner(a);
+			for(Element root : rootElements) {
+				scanner.scan(root, result);
+			}
+			return Collections.unmodifiableSet(result);
+		}
+		@Override
+		public Set<? extends Element> getElementsAnnotatedWith(Class<? extends Annotation> a) {
+			TypeElement annotationType = elementUtils.getTypeElement(a.getCanonicalName());
+			if(annotationType == null) {
+				return Collections.emptySet();
+			}
+			return getElementsAnnotatedWith(annotationType);
+		}
+	}
+
+	/**
+	 * Analyzes the given compilation units. The class path of the current JVM is used as the
+	 * class path for the compilation.
+	 *
+	 * @param sources the compilation units
+	 * @return the analysis result
+	 * @throws IOException if analysis fails
+	 * @throws IllegalStateException if no system Java compiler is available, or if there were
+	 * compilation errors
+	 */
+	public static CompiledSources analyze(List<? extends JavaFileObject> sources) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if(compiler == null) {
+			throw new IllegalStateException("No system Java compiler available");
+		}
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+		List<String> options = Arrays.asList("-proc:none", "-classpath", System.getProperty("java.class.path"));
+		JavacTask task = (JavacTask)compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+
+		List<TypeElement> types = ElementFilter.typesIn(task.analyze());
+		for(Diagnostic<? extends JavaFileObject> diag : diagnostics.getDiagnostics()) {
+			if(diag.getKind() == Diagnostic.Kind.ERROR) {
+				throw new IllegalStateException("Compilation of synthetic sources failed: "
+						+ diag.getMessage(Locale.ROOT));
+			}
+		}
+
+		// The file manager is not closed, as it is needed for lazily completing library classes.
+		return new CompiledSources(task, types);
+	}
+
+	private final Elements elementUtils;
+	private final Types typeUtils;
+	private final List<TypeElement> typeElements;
+	private final Set<TypeElement> rootElements;
+	private final ProcessingEnvironment processingEnv = new Environment();
+	private final RoundEnvironment roundEnv = new Round();
+
+	private CompiledSources(JavacTask task, List<TypeElement> typeElements) {
+		this.elementUtils = task.getElements();
+		this.typeUtils = task.getTypes();
+		this.typeElements = Collections.unmodifiableList(new ArrayList<>(typeElements));
+		this.rootElements = Collections.unmodifiableSet(new LinkedHashSet<>(typeElements));
+	}
+
+	/**
+	 * Retrieves all analyzed top-level types.
+	 * @return an unmodifiable list of all analyzed top-level types
+	 */
+	public List<TypeElement> getTypeElements() {
+		return typeElements;
+	}
+
+	/**
+	 * Retrieves the type elements of the given annotation types.
+	 *
+	 * @param annotationTypes the annotation types
+	 * @return the set of the respective type elements
+	 */
+	public Set<TypeElement> getAnnotationTypeElements(Class<?>... annotationTypes) {
+		Set<TypeElement> result = new LinkedHashSet<>();
+		for(Class<?> annType : annotationTypes) {
+			result.add(elementUtils.getTypeElement(annType.getCanonicalName()));
+		}
+		return result;
+	}
+
+	/**
+	 * Retrieves a processing environment backed by the analyzed sources.
+	 * @return the processing environment
+	 */
+	public ProcessingEnvironment getProcessingEnvironment() {
+		return processingEnv;
+	}
+
+	/**
+	 * Retrieves a round environment containing all analyzed top-level types as root elements.
+	 * @return the round environment
+	 */
+	public RoundEnvironment getRoundEnvironment() {
+		return roundEnv;
+	}
+
+	/**
+	 * Creates a new round environment containing all analyzed top-level types as root elements.
+	 * In contrast to {@link #getRoundEnvironment()}, every invocation returns a distinct object,
+	 * such that round-aware utilities (e.g., a caching
+	 * {@link com.github.misberner.apcommons.util.APUtils APUtils}) treat it as a new round.
+	 * @return the new round environment
+	 */
+	public RoundEnvironment newRoundEnvironment() {
+		return new Round();
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import com.github.misberner.apcommons.processing.AbstractSingleAnnotationProcessor;
+import com.github.misberner.apcommons.processing.MultiModuleProcessor;
+import com.github.misberner.apcommons.util.APUtils;
+
+/**
+ * Benchmarks a full round of annotation processing with a {@link MultiModuleProcessor}
+ * dispatching to a configurable number of modules. Each module processes one of the
+ * {@link Markers marker annotations}, and looks up the annotation's values on each
+ * annotated element. The processor is created and initialized once per trial; each
+ * invocation processes a new round.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+	private static final class LookupModule<A extends Annotation> extends AbstractSingleAnnotationProcessor<A> {
+		private long weights;
+
+		public LookupModule(Class<A> annotationType) {
+			super(annotationType);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.processing.AbstractSingleAnnotationProcessor#process(javax.lang.model.element.Element, javax.lang.model.element.AnnotationMirror, java.lang.annotation.Annotation, com.github.misberner.apcommons.util.APUtils)
+		 */
+		@Override
+		public void process(Element elem, AnnotationMirror annotationMirror, A annotation, APUtils utils) {
+			weights += utils.getAnnotationValues(annotationMirror, true).getInt("weight");
+		}
+	}
+
+	public static class CompiledState extends AbstractCompiledState {
+		/**
+		 * The number of modules.
+		 */
+		@Param({"1", "4", "16"})
+		public int modules;
+
+		/**
+		 * Whether to use single-pass dispatch.
+		 */
+		@Param({"false", "true"})
+		public boolean singlePass;
+
+		Set<TypeElement> annotations;
+		LookupModule<?>[] lookupModules;
+		MultiModuleProcessor processor;
+
+		@Override
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		protected void init() {
+			annotations = sources.getAnnotationTypeElements(Markers.TYPES);
+			lookupModules = new LookupModule<?>[modules];
+			for(int i = 0; i < lookupModules.length; i++) {
+				lookupModules[i] = new LookupModule(Markers.TYPES[i % Markers.TYPES.length]);
+			}
+			processor = new MultiModuleProcessor(lookupModules);
+			processor.setSinglePassDispatch(singlePass);
+			processor.init(sources.getProcessingEnvironment());
+		}
+	}
+
+	@Benchmark
+	public boolean dispatchRound(CompiledState state, Blackhole bh) {
+		boolean result = state.processor.process(state.annotations, state.sources.newRoundEnvironment());
+		for(LookupModule<?> module : state.lookupModules) {
+			bh.consume(module.weights);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marker annotations used in the synthetic compilation units.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class Markers {
+
+	@Retention(RetentionPolicy.CLASS)
+	@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
+	public static @interface M1 {
+		String value() default "";
+		int weight() default 0;
+	}
+
+	@Retention(RetentionPolicy.CLASS)
+	@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
+	public static @interface M2 {
+		String value() default "";
+		int weight() default 0;
+	}
+
+	@Retention(RetentionPolicy.CLASS)
+	@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
+	public static @interface M3 {
+		String value() default "";
+		int weight() default 0;
+	}
+
+	@Retention(RetentionPolicy.CLASS)
+	@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
+	public static @interface M4 {
+		String value() default "";
+		int weight() default 0;
+	}
+
+	/**
+	 * The marker annotation types, in order.
+	 */
+	@SuppressWarnings("unchecked")
+	public static final Class<? extends Annotation>[] TYPES = (Class<? extends Annotation>[])new Class<?>[] {
+		M1.class, M2.class, M3.class, M4.class
+	};
+
+	private Markers() {
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+import com.github.misberner.apcommons.util.APUtils;
+
+/**
+ * Benchmarks for member lookups. Each operation simulates one round of annotation processing,
+ * in which {@value #PASSES} modules look up the members of every analyzed type.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberLookupBenchmark {
+
+	/**
+	 * The number of lookups per type and round.
+	 */
+	public static final int PASSES = 4;
+
+	public static class CompiledState extends AbstractCompiledState {
+	}
+
+	@Benchmark
+	public void allMethodsBaseline(CompiledState state, Blackhole bh) {
+		Elements elementUtils = state.sources.getProcessingEnvironment().getElementUtils();
+		List<TypeElement> types = state.sources.getTypeElements();
+		for(int i = 0; i < PASSES; i++) {
+			for(TypeElement type : types) {
+				bh.consume(ElementFilter.methodsIn(elementUtils.getAllMembers(type)));
+			}
+		}
+	}
+
+	@Benchmark
+	public void allMethods(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		List<TypeElement> types = state.sources.getTypeElements();
+		for(int i = 0; i < PASSES; i++) {
+			for(TypeElement type : types) {
+				bh.consume(utils.getAllMethods(type));
+			}
+		}
+	}
+
+	@Benchmark
+	public void methodsByName(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		List<TypeElement> types = state.sources.getTypeElements();
+		for(int i = 0; i < PASSES; i++) {
+			for(TypeElement type : types) {
+				bh.consume(utils.methodsByName(type).get("method0"));
+			}
+		}
+	}
+
+	@Benchmark
+	public void findMethodLinear(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		Elements elementUtils = utils.getElementUtils();
+		List<TypeElement> types = state.sources.getTypeElements();
+		for(int i = 0; i < PASSES; i++) {
+			for(TypeElement type : types) {
+				List<ExecutableElement> methods = ElementFilter.methodsIn(elementUtils.getAllMembers(type));
+				bh.consume(utils.findMethod(methods, "method0", int.class, String.class));
+			}
+		}
+	}
+
+	@Benchmark
+	public void findMethodIndexed(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		List<TypeElement> types = state.sources.getTypeElements();
+		for(int i = 0; i < PASSES; i++) {
+			for(TypeElement type : types) {
+				bh.consume(utils.findMethod(type, "method0", int.class, String.class));
+			}
+		}
+	}
+
+	@Benchmark
+	public void filterObjectMethods(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		List<TypeElement> types = state.sources.getTypeElements();
+		for(int i = 0; i < PASSES; i++) {
+			for(TypeElement type : types) {
+				bh.consume(utils.filterObjectMethods(utils.getAllMethods(type)));
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.misberner.apcommons.util.NameUtils;
+
+/**
+ * Benchmarks for the name utilities.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameUtilsBenchmark {
+
+	private final String[] fieldNames = {
+		"value", "name", "elementType", "x", "longerFieldNameWithSeveralComponents"
+	};
+	private final String[] identifiers = {
+		"value", "java.util.Map", "_private", "9invalid", "com.github.misberner.apcommons.util"
+	};
+
+	@Benchmark
+	public void accessorNames(Blackhole bh) {
+		for(String fieldName : fieldNames) {
+			bh.consume(NameUtils.getterName(fieldName));
+			bh.consume(NameUtils.setterName(fieldName));
+			bh.consume(NameUtils.capitalizeFirst(fieldName));
+		}
+	}
+
+	@Benchmark
+	public void camelCase(Blackhole bh) {
+		bh.consume(NameUtils.camelCase(fieldNames));
+	}
+
+	@Benchmark
+	public void identifierValidation(Blackhole bh) {
+		for(String id : identifiers) {
+			bh.consume(NameUtils.isJavaIdentifier(id));
+			bh.consume(NameUtils.isValidPackageName(id));
+		}
+	}
+
+	@Benchmark
+	public void resolvePackageName(Blackhole bh) {
+		bh.consume(NameUtils.resolvePackageName(".impl", "com.github.misberner.apcommons"));
+		bh.consume(NameUtils.resolvePackageName(".", "com.github.misberner.apcommons.processing"));
+		bh.consume(NameUtils.resolvePackageName("com.example", "com.github.misberner.apcommons"));
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+
+import com.github.misberner.apcommons.util.APUtils;
+import com.github.misberner.apcommons.util.methods.MethodUtils;
+import com.github.misberner.apcommons.util.methods.SignatureMatcher;
+import com.github.misberner.apcommons.util.types.TypeUtils;
+import com.github.misberner.apcommons.util.types.TypeUtils.TypeMatcher;
+
+/**
+ * Benchmarks for signature and type matching over all declared methods of the analyzed types.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureMatchingBenchmark {
+
+	public static class CompiledState extends AbstractCompiledState {
+		List<ExecutableElement> methods;
+
+		@Override
+		protected void init() {
+			methods = new ArrayList<>();
+			for(TypeElement type : sources.getTypeElements()) {
+				methods.addAll(ElementFilter.methodsIn(type.getEnclosedElements()));
+			}
+		}
+	}
+
+	@Benchmark
+	public void checkSignatureByClass(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		for(ExecutableElement method : state.methods) {
+			bh.consume(utils.checkMethodSignature(method, Map.Entry.class, int[].class));
+		}
+	}
+
+	@Benchmark
+	public void checkSignatureByName(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		for(ExecutableElement method : state.methods) {
+			bh.consume(utils.checkMethodSignature(method, "java.util.Map.Entry", "int[]"));
+		}
+	}
+
+	@Benchmark
+	public void signatureMatcher(CompiledState state, Blackhole bh) {
+		APUtils utils = new APUtils(state.sources.getProcessingEnvironment(), true);
+		SignatureMatcher matcher = utils.getSignatureMatcher(Map.Entry.class, int[].class);
+		for(ExecutableElement method : state.methods) {
+			bh.consume(matcher.matches(method));
+		}
+	}
+
+	@Benchmark
+	public void typeMatchers(CompiledState state, Blackhole bh) {
+		TypeMatcher returnTypeMatcher = TypeUtils.getSubtypeMatcher(CharSequence.class);
+		TypeMatcher paramMatcher = TypeUtils.parameterized(List.class,
+				TypeUtils.wildcardExtends(TypeUtils.getMatcher(CharSequence.class)));
+		for(ExecutableElement method : state.methods) {
+			bh.consume(MethodUtils.checkSignature(method, returnTypeMatcher, paramMatcher));
+		}
+	}
+
+	@Benchmark
+	public void isObjectMethod(CompiledState state, Blackhole bh) {
+		for(ExecutableElement method : state.methods) {
+			bh.consume(MethodUtils.isObjectMethod(method));
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * Generator for synthetic compilation units.
+ * <p>
+ * The generated sources consist of a class hierarchy of configurable depth (where each class
+ * also implements an interface), and a configurable number of classes at the bottom of this
+ * hierarchy. Each of these classes, as well as its fields and methods, is annotated with a
+ * configurable number of {@link Markers marker annotations}.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class SyntheticSources {
+
+	/**
+	 * The package of all generated classes.
+	 */
+	public static final String PACKAGE_NAME = "bench";
+
+	/**
+	 * The number of methods (excluding overrides of {@link Object} methods) in each generated
+	 * class.
+	 */
+	public static final int METHODS_PER_CLASS = 8;
+
+	/**
+	 * The number of fields in each generated class.
+	 */
+	public static final int FIELDS_PER_CLASS = 4;
+
+	private static final class StringSource extends SimpleJavaFileObject {
+		private final String code;
+
+		public StringSource(String className, String code) {
+			super(URI.create("string:///" + PACKAGE_NAME + "/" + className + Kind.SOURCE.extension), Kind.SOURCE);
+			this.code = code;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see javax.tools.SimpleJavaFileObject#getCharContent(boolean)
+		 */
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return code;
+		}
+	}
+
+	/**
+	 * Generates a set of compilation units.
+	 *
+	 * @param classes the number of annotated classes
+	 * @param annotationsPerElement the number of marker annotations on each annotated element
+	 * (at most {@link Markers#TYPES}<tt>.length</tt>)
+	 * @param hierarchyDepth the depth of the class hierarchy above each annotated class
+	 * @return the list of generated compilation units
+	 */
+	public static List<JavaFileObject> generate(int classes, int annotationsPerElement, int hierarchyDepth) {
+		if(annotationsPerElement > Markers.TYPES.length) {
+			throw new IllegalArgumentException("At most " + Markers.TYPES.length
+					+ " annotations per element are supported");
+		}
+		List<JavaFileObject> sources = new ArrayList<>(classes + 2 * hierarchyDepth);
+
+		for(int i = 0; i < hierarchyDepth; i++) {
+			sources.add(generateInterface(i));
+			sources.add(generateLevel(i));
+		}
+		String superclass = (hierarchyDepth > 0) ? levelName(hierarchyDepth - 1) : null;
+		for(int i = 0; i < classes; i++) {
+			sources.add(generateClass(i, superclass, annotationsPerElement));
+		}
+
+		return sources;
+	}
+
+	private static JavaFileObject generateInterface(int level) {
+		String name = "Iface" + level;
+		StringBuilder sb = header();
+		sb.append("public interface ").append(name);
+		if(level > 0) {
+			sb.append(" extends Iface").append(level - 1);
+		}
+		sb.append(" {\n");
+		sb.append("\tjava.util.List<String> iface").append(level).append("(int x, String[] y);\n");
+		sb.append("}\n");
+		return new StringSource(name, sb.toString());
+	}
+
+	private static JavaFileObject generateLevel(int level) {
+		String name = levelName(level);
+		StringBuilder sb = header();
+		sb.append("public abstract class ").append(name);
+		if(level > 0) {
+			sb.append(" extends ").append(levelName(level - 1));
+		}
+		sb.append(" implements Iface").append(level).append(", java.io.Serializable {\n");
+		sb.append("\tprotected int level").append(level).append(";\n");
+		sb.append("\tpublic java.util.List<String> iface").append(level)
+			.append("(int x, String[] y) { return null; }\n");
+		sb.append("\tpublic void inherited").append(level).append("(long a, Object b) {}\n");
+		sb.append("}\n");
+		return new StringSource(name, sb.toString());
+	}
+
+	private static JavaFileObject generateClass(int idx, String superclass, int annotationsPerElement) {
+		String name = "C" + idx;
+		StringBuilder sb = header();
+		appendAnnotations(sb, "", annotationsPerElement, idx);
+		sb.append("public class ").append(name);
+		if(superclass != null) {
+			sb.append(" extends ").append(superclass);
+		}
+		sb.append(" implements Comparable<").append(name).append("> {\n");
+
+		for(int i = 0; i < FIELDS_PER_CLASS; i++) {
+			appendAnnotations(sb, "\t", annotationsPerElement, i);
+			sb.append("\tprivate String field").append(i).append(";\n");
+		}
+
+		sb.append("\tpublic ").append(name).append("() {}\n");
+		sb.append("\tpublic ").append(name).append("(int x, String y) {}\n");
+
+		for(int i = 0; i < METHODS_PER_CLASS; i++) {
+			appendAnnotations(sb, "\t", annotationsPerElement, i);
+			switch(i % 4) {
+			case 0:
+				sb.append("\tpublic void method").append(i).append("(int a, String b) {}\n");
+				break;
+			case 1:
+				sb.append("\tpublic <T extends Number> T method").append(i)
+					.append("(java.util.Map.Entry<String,T> e, int[] x) { return null; }\n");
+				break;
+			case 2:
+				sb.append("\tpublic String method").append(i)
+					.append("(java.util.List<? extends CharSequence> l) { return null; }\n");
+				break;
+			default:
+				sb.append("\tstatic long method").append(i).append("() { return 0L; }\n");
+			}
+		}
+
+		sb.append("\t@Override public int compareTo(").append(name).append(" o) { return 0; }\n");
+		sb.append("\t@Override public boolean equals(Object o) { return false; }\n");
+		sb.append("\t@Override public int hashCode() { return 0; }\n");
+		sb.append("\t@Override public String toString() { return \"\"; }\n");
+		sb.append("}\n");
+		return new StringSource(name, sb.toString());
+	}
+
+	private static void appendAnnotations(StringBuilder sb, String indent, int count, int weight) {
+		for(int i = 0; i < count; i++) {
+			sb.append(indent).append('@').append(Markers.TYPES[i].getCanonicalName());
+			if(i % 2 == 0) {
+				sb.append("(value = \"v").append(i).append("\", weight = ").append(weight).append(')');
+			}
+			sb.append('\n');
+		}
+	}
+
+	private static String levelName(int level) {
+		return "Level" + level;
+	}
+
+	private static StringBuilder header() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("package ").append(PACKAGE_NAME).append(";\n\n");
+		return sb;
+	}
+
+	private SyntheticSources() {
+	}
+}
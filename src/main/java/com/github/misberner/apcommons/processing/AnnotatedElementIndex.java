@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2013-2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * An index mapping annotation types to the elements annotated with them, built
+ * in a single pass over the root elements of a round.
+ * <p>
+ * This is an alternative to calling {@link RoundEnvironment#getElementsAnnotatedWith(Class)}
+ * once per annotation type, which rescans all root elements each time. The index
+ * considers all elements (reflexive-transitively) enclosed by the root elements, including
+ * method parameters and type parameters. Enclosed elements of packages are not visited.
+ * <p>
+ * <i>Note:</i> only <i>directly present</i> annotations (as reported by
+ * {@link Element#getAnnotationMirrors()}) are indexed. Unlike
+ * {@link RoundEnvironment#getElementsAnnotatedWith(Class)}, subclasses of a class annotated
+ * with an {@link java.lang.annotation.Inherited @Inherited} annotation are not included.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class AnnotatedElementIndex {
+
+	/**
+	 * Builds an index for all elements enclosed by the given root elements.
+	 *
+	 * @param rootElements the root elements, usually obtained via
+	 * {@link RoundEnvironment#getRootElements()}
+	 * @return the annotated element index
+	 */
+	public static AnnotatedElementIndex build(Iterable<? extends Element> rootElements) {
+		AnnotatedElementIndex index = new AnnotatedElementIndex();
+		for(Element root : rootElements) {
+			index.scan(root);
+		}
+		return index;
+	}
+
+	private final Map<String,Set<Element>> elementsByAnnotation = new HashMap<>();
+
+	private AnnotatedElementIndex() {
+	}
+
+	/**
+	 * Retrieves all indexed elements annotated with the given annotation type.
+	 *
+	 * @param annotationType the annotation type
+	 * @return an unmodifiable set of all elements annotated with the given annotation type,
+	 * in the order in which they were encountered.
+	 */
+	public Set<? extends Element> getElementsAnnotatedWith(Class<? extends Annotation> annotationType) {
+		return getElementsAnnotatedWith(annotationType.getCanonicalName());
+	}
+
+	/**
+	 * Retrieves all indexed elements annotated with the annotation type of the given
+	 * qualified name.
+	 *
+	 * @param annotationName the fully qualified (canonical) name of the annotation type
+	 * @return an unmodifiable set of all elements annotated with the given annotation type,
+	 * in the order in which they were encountered.
+	 */
+	public Set<? extends Element> getElementsAnnotatedWith(String annotationName) {
+		Set<Element> elements = elementsByAnnotation.get(annotationName);
+		if(elements == null) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(elements);
+	}
+
+	/**
+	 * Retrieves the qualified names of all annotation types for which annotated elements
+	 * were found.
+	 *
+	 * @return an unmodifiable set of annotation type names
+	 */
+	public Set<String> getAnnotationNames() {
+		return Collections.unmodifiableSet(elementsByAnnotation.keySet());
+	}
+
+	private void scan(Element elem) {
+		index(elem);
+
+		ElementKind kind = elem.getKind();
+		if(kind == ElementKind.PACKAGE) {
+			return;
+		}
+
+		if(kind.isClass() || kind.isInterface()) {
+			scanAll(((TypeElement)elem).getTypeParameters());
+		}
+		else if(elem instanceof ExecutableElement) {
+			ExecutableElement ee = (ExecutableElement)elem;
+			scanAll(ee.getTypeParameters());
+			scanAll(ee.getParameters());
+		}
+
+		scanAll(elem.getEnclosedElements());
+	}
+
+	private void scanAll(Iterable<? extends Element> elements) {
+		for(Element elem : elements) {
+			scan(elem);
+		}
+	}
+
+	private void index(Element elem) {
+		for(AnnotationMirror am : elem.getAnnotationMirrors()) {
+			TypeElement annType = (TypeElement)am.getAnnotationType().asElement();
+			String annName = annType.getQualifiedName().toString();
+			Set<Element> elements = elementsByAnnotation.get(annName);
+			if(elements == null) {
+				elements = new LinkedHashSet<>();
+				elementsByAnnotation.put(annName, elements);
+			}
+			elements.add(elem);
+		}
+	}
+}
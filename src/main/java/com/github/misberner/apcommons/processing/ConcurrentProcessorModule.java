@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2013-2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+
+import javax.annotation.processing.Messager;
+
+import com.github.misberner.apcommons.processing.exceptions.ProcessingException;
+import com.github.misberner.apcommons.util.APUtils;
+
+/**
+ * A {@link SingleAnnotationProcessorModule} with a part of its work that does not access the
+ * language model, and which may thus be performed concurrently with other modules.
+ * <p>
+ * The compiler's implementations of the language model (elements, types, annotation mirrors,
+ * {@link javax.lang.model.util.Elements Elements} and {@link javax.lang.model.util.Types Types})
+ * as well as the {@link javax.annotation.processing.Filer Filer} and {@link Messager} are not
+ * thread-safe. Therefore, the {@link #pre(APUtils) pre}, {@link #process process},
+ * {@link #post(APUtils) post} and {@link #postFailure(APUtils) postFailure} methods of all
+ * modules are always called on the processing thread, one module at a time. Only
+ * {@link #processConcurrently(Messager)}, which is called after all elements have been processed
+ * successfully and before <tt>post</tt>, may run concurrently with other modules. Implementations of this method
+ * must not access the language model in any way (e.g., by querying elements or type mirrors
+ * obtained during processing), but work on data extracted from it beforehand, such as strings
+ * or source code models.
+ * <p>
+ * If parallel dispatch is enabled in a {@link MultiModuleProcessor}, the concurrent phase of a
+ * module implementing this interface may run concurrently with the concurrent phase of every other
+ * module implementing this interface, unless one (reflexive-transitively) depends on the other.
+ * Modules <i>not</i> implementing this interface act as barriers: they are dispatched only after
+ * all modules preceding them (in constructor order) are finished, and before any module
+ * succeeding them is started. In sequential mode, the concurrent phase is simply executed
+ * on the processing thread.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ *
+ * @param <A> annotation type
+ * @see MultiModuleProcessor#setParallelism(int)
+ */
+public interface ConcurrentProcessorModule<A extends Annotation> extends SingleAnnotationProcessorModule<A> {
+
+	/**
+	 * Retrieves the modules which need to be finished before this module may be dispatched.
+	 * All of these modules must be registered with the same {@link MultiModuleProcessor}.
+	 *
+	 * @return the modules this module depends on
+	 */
+	public Collection<? extends SingleAnnotationProcessorModule<?>> getDependencies();
+
+	/**
+	 * Performs the model-independent part of the work of this module in the current round.
+	 * This method is called after {@link #process process} has been called for all annotated
+	 * elements without errors, and before {@link #post(APUtils) post}. If processing any of the
+	 * elements failed, this method is not called, and {@link #postFailure(APUtils) postFailure} is
+	 * called instead of <tt>post</tt>. It must not access the language model, the
+	 * {@link javax.annotation.processing.Filer Filer}, or any {@link APUtils} object.
+	 * <p>
+	 * Diagnostics printed via the given messager are recorded, and forwarded to the actual
+	 * messager on the processing thread in the order of the modules. Elements, annotation mirrors
+	 * and values obtained during processing may be passed to it.
+	 *
+	 * @param messager the messager for reporting diagnostics
+	 * @throws Exception if an error occurs. In this case, {@link #postFailure(APUtils) postFailure}
+	 * will be called.
+	 * @throws ProcessingException if an error occurs. In this case, {@link #postFailure(APUtils) postFailure}
+	 * will be called.
+	 */
+	public void processConcurrently(Messager messager) throws Exception, ProcessingException;
+}
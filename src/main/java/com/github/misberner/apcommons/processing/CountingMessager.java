@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * A {@link Messager} that counts the printed messages by their {@link Kind}, and forwards
+ * them to another messager.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class CountingMessager implements Messager {
+
+	private final Messager delegate;
+	private final int[] counts = new int[Kind.values().length];
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the messager to forward all messages to
+	 */
+	public CountingMessager(Messager delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg) {
+		counts[kind.ordinal()]++;
+		delegate.printMessage(kind, msg);
+	}
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e) {
+		counts[kind.ordinal()]++;
+		delegate.printMessage(kind, msg, e);
+	}
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a) {
+		counts[kind.ordinal()]++;
+		delegate.printMessage(kind, msg, e, a);
+	}
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a, AnnotationValue v) {
+		counts[kind.ordinal()]++;
+		delegate.printMessage(kind, msg, e, a, v);
+	}
+
+	/**
+	 * Retrieves a snapshot of the message counts, indexed by the ordinal of the respective
+	 * {@link Kind}.
+	 *
+	 * @return a copy of the message counts
+	 */
+	public int[] getCounts() {
+		return counts.clone();
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2013-2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * A {@link Messager} that records all messages, such that they can later be replayed
+ * to the actual messager from a single thread.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class DeferredMessager implements Messager {
+
+	private static final class Message {
+		private final Kind kind;
+		private final String msg;
+		private final Element element;
+		private final AnnotationMirror annotation;
+		private final AnnotationValue value;
+
+		public Message(Kind kind, String msg, Element element,
+				AnnotationMirror annotation, AnnotationValue value) {
+			this.kind = kind;
+			this.msg = msg;
+			this.element = element;
+			this.annotation = annotation;
+			this.value = value;
+		}
+	}
+
+	private final List<Message> messages = new ArrayList<>();
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg) {
+		printMessage(kind, msg, null, null, null);
+	}
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e) {
+		printMessage(kind, msg, e, null, null);
+	}
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a) {
+		printMessage(kind, msg, e, a, null);
+	}
+
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a, AnnotationValue v) {
+		// msg might be a mutable CharSequence such as a StringBuilder
+		messages.add(new Message(kind, String.valueOf(msg), e, a, v));
+	}
+
+	/**
+	 * Prints all recorded messages to the given messager, in the order they
+	 * were recorded, and discards them.
+	 *
+	 * @param target the messager to print the messages to
+	 */
+	public void replay(Messager target) {
+		for(Message m : messages) {
+			target.printMessage(m.kind, m.msg, m.element, m.annotation, m.value);
+		}
+		messages.clear();
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A processor module that declares its {@link IncrementalCategory category} with respect to
+ * Gradle's incremental annotation processing. Modules not implementing this interface are
+ * considered {@link IncrementalCategory#NONE non-incremental}.
+ * <p>
+ * This is independent of skipping unchanged modules (see {@link IncrementalProcessorModule}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ *
+ * @param <A> the annotation type
+ */
+public interface GradleIncrementalModule<A extends Annotation> extends SingleAnnotationProcessorModule<A> {
+
+	/**
+	 * Retrieves the category of this module with respect to Gradle's incremental annotation
+	 * processing. For {@link IncrementalCategory#ISOLATING isolating} and
+	 * {@link IncrementalCategory#AGGREGATING aggregating} modules, the
+	 * {@link javax.annotation.processing.Filer Filer} of the utility object rejects files created
+	 * without (or, for isolating modules, with inconsistent) originating elements.
+	 * 
+	 * @return the incremental category of this module
+	 * @see MultiModuleProcessor#getIncrementalCategory()
+	 */
+	IncrementalCategory getIncrementalCategory();
+}
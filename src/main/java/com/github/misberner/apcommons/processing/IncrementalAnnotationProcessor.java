@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an annotation processor for Gradle's incremental annotation processing. When
+ * compiling with the {@link IncrementalMetadataProcessor}, an entry for each annotated processor
+ * is generated in the file {@value IncrementalCategory#METADATA_FILE}.
+ * <p>
+ * For subclasses of {@link MultiModuleProcessor}, the default category
+ * {@link IncrementalCategory#DYNAMIC} is advisable, as their actual category is derived from
+ * their modules at runtime.
+ * 
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface IncrementalAnnotationProcessor {
+	/**
+	 * The incremental category of the annotated processor.
+	 */
+	IncrementalCategory value() default IncrementalCategory.DYNAMIC;
+}
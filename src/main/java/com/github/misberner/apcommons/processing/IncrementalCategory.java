@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+/**
+ * The category of a processor module or processor with respect to Gradle's incremental
+ * annotation processing.
+ * <p>
+ * Gradle only processes (and recompiles) incrementally if all annotation processors declare
+ * themselves as {@link #ISOLATING} or {@link #AGGREGATING}, either statically in the file
+ * {@value #METADATA_FILE} or, for {@link #DYNAMIC} processors, via
+ * {@link javax.annotation.processing.Processor#getSupportedOptions() supported options}.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ *
+ * @see GradleIncrementalModule#getIncrementalCategory()
+ * @see IncrementalAnnotationProcessor
+ */
+public enum IncrementalCategory {
+	/**
+	 * Each generated file is derived from a single annotated element (and the types it references),
+	 * which has to be passed as the only originating element (or, alternatively, elements within the
+	 * same top-level type).
+	 */
+	ISOLATING("isolating"),
+	/**
+	 * Generated files are derived from several annotated elements, all of which should be passed as
+	 * originating elements.
+	 */
+	AGGREGATING("aggregating"),
+	/**
+	 * The category is determined at runtime. This is only meaningful for processors, not for
+	 * processor modules.
+	 */
+	DYNAMIC("dynamic"),
+	/**
+	 * Not incremental.
+	 */
+	NONE(null);
+	
+	/**
+	 * The path of the Gradle metadata file, relative to the class output location.
+	 */
+	public static final String METADATA_FILE = "META-INF/gradle/incremental.annotation.processors";
+	
+	/**
+	 * The prefix of the supported options with which dynamic processors declare their category.
+	 */
+	public static final String GRADLE_OPTION_PREFIX = "org.gradle.annotation.processing.";
+	
+	private final String gradleName;
+	
+	private IncrementalCategory(String gradleName) {
+		this.gradleName = gradleName;
+	}
+	
+	/**
+	 * Retrieves the name of this category as used by Gradle.
+	 * 
+	 * @return the Gradle name of this category, or {@code null} for {@link #NONE}
+	 */
+	public String getGradleName() {
+		return gradleName;
+	}
+	
+	/**
+	 * Checks whether files generated in this category need to declare originating elements.
+	 * 
+	 * @return {@code true} if this is {@link #ISOLATING} or {@link #AGGREGATING}, {@code false}
+	 * otherwise
+	 */
+	public boolean requiresOriginatingElements() {
+		return (this == ISOLATING || this == AGGREGATING);
+	}
+	
+	/**
+	 * Combines the categories of several modules of the same processor. The result is
+	 * {@link #ISOLATING} if both categories are isolating, {@link #NONE} if at least one is neither
+	 * isolating nor aggregating, and {@link #AGGREGATING} otherwise.
+	 * 
+	 * @param other the other category
+	 * @return the combined category
+	 */
+	public IncrementalCategory combine(IncrementalCategory other) {
+		if(!requiresOriginatingElements() || !other.requiresOriginatingElements()) {
+			return NONE;
+		}
+		if(this == ISOLATING && other == ISOLATING) {
+			return ISOLATING;
+		}
+		return AGGREGATING;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates the Gradle metadata file {@value IncrementalCategory#METADATA_FILE} for all
+ * processors annotated with {@link IncrementalAnnotationProcessor}.
+ * <p>
+ * This processor is not registered as a service, as it should only run when compiling
+ * annotation processors. It has to be specified explicitly, e.g., via the <tt>-processor</tt>
+ * option of <tt>javac</tt> or the <tt>annotationProcessors</tt> configuration of the
+ * <tt>maven-compiler-plugin</tt>.
+ * 
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public class IncrementalMetadataProcessor extends AbstractProcessor {
+	
+	private final Map<String,IncrementalCategory> categories = new TreeMap<>();
+	private final List<Element> originatingElements = new ArrayList<>();
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set, javax.annotation.processing.RoundEnvironment)
+	 */
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations,
+			RoundEnvironment roundEnv) {
+		Messager messager = processingEnv.getMessager();
+		TypeMirror processorType = processingEnv.getElementUtils()
+				.getTypeElement("javax.annotation.processing.Processor").asType();
+		
+		for(Element e : roundEnv.getElementsAnnotatedWith(IncrementalAnnotationProcessor.class)) {
+			IncrementalCategory category = e.getAnnotation(IncrementalAnnotationProcessor.class).value();
+			if(e.getKind() != ElementKind.CLASS || e.getModifiers().contains(Modifier.ABSTRACT)) {
+				messager.printMessage(Kind.ERROR, "Incremental annotation processor must be a concrete class", e);
+				continue;
+			}
+			if(!processingEnv.getTypeUtils().isAssignable(e.asType(), processorType)) {
+				messager.printMessage(Kind.ERROR, "Incremental annotation processor must implement "
+						+ processorType, e);
+				continue;
+			}
+			if(category == IncrementalCategory.NONE) {
+				messager.printMessage(Kind.ERROR, "Incremental annotation processor cannot have category "
+						+ category, e);
+				continue;
+			}
+			TypeElement type = (TypeElement)e;
+			categories.put(processingEnv.getElementUtils().getBinaryName(type).toString(), category);
+			originatingElements.add(type);
+		}
+		
+		if(roundEnv.processingOver() && !categories.isEmpty()) {
+			writeMetadata();
+		}
+		
+		return true;
+	}
+	
+	private void writeMetadata() {
+		Element[] origins = originatingElements.toArray(new Element[originatingElements.size()]);
+		try {
+			FileObject fo = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+					IncrementalCategory.METADATA_FILE, origins);
+			try(Writer w = fo.openWriter()) {
+				for(Map.Entry<String,IncrementalCategory> e : categories.entrySet()) {
+					w.write(e.getKey());
+					w.write(',');
+					w.write(e.getValue().getGradleName());
+					w.write('\n');
+				}
+			}
+		}
+		catch(IOException ex) {
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Could not write "
+					+ IncrementalCategory.METADATA_FILE + ": " + ex.getMessage());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedAnnotationTypes()
+	 */
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Collections.singleton(IncrementalAnnotationProcessor.class.getCanonicalName());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedOptions()
+	 */
+	@Override
+	public Set<String> getSupportedOptions() {
+		return Collections.singleton(IncrementalCategory.GRADLE_OPTION_PREFIX
+				+ IncrementalCategory.AGGREGATING.getGradleName());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A processor module that supports incremental processing (see
+ * {@link MultiModuleProcessor#setIncremental(boolean)}).
+ * <p>
+ * An incremental module is skipped if the elements annotated with its annotation type
+ * are unchanged since the previous compilation, and all files it generated from them still
+ * exist. This requires that the processing of the module depends on nothing but its annotated
+ * elements (including their annotations and member signatures, as well as the supertypes of
+ * annotated types along with their members), and that all
+ * generated files are created via the {@link javax.annotation.processing.Filer Filer} of the
+ * utility object, declaring the respective originating elements.
+ * <p>
+ * Gradle's incremental annotation processing is unrelated to this, and is supported by
+ * implementing {@link GradleIncrementalModule}.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ *
+ * @param <A> the annotation type
+ */
+public interface IncrementalProcessorModule<A extends Annotation> extends SingleAnnotationProcessorModule<A> {
+
+	/**
+	 * Retrieves the version of this module. Whenever the behavior of the module changes,
+	 * the version should change as well, in order to invalidate the state of previous compilations.
+	 *
+	 * @return the version of this module
+	 */
+	String getVersion();
+}
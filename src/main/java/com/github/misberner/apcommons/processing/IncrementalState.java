@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.StandardLocation;
+
+import com.github.misberner.apcommons.util.ElementUtils;
+
+/**
+ * The state of incremental processing, i.e., for each module and round, a fingerprint of
+ * the annotated elements that were dispatched to the module, and the files that were generated
+ * by the module (along with their originating elements).
+ * <p>
+ * The state is stored in a compact binary format in the {@link StandardLocation#CLASS_OUTPUT class
+ * output} location. This class is not thread-safe.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class IncrementalState {
+
+	/**
+	 * The name of the state file in the class output location.
+	 */
+	public static final String STATE_FILE_NAME = "apcommons-incremental.state";
+
+	private static final int MAGIC = 0x41504353; // "APCS"
+	private static final int FORMAT_VERSION = 1;
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * A file generated by a module.
+	 */
+	static final class Output {
+		private final String location;
+		private final String pkg;
+		private final String relativeName;
+		private final List<String> originatingElements;
+
+		public Output(String location, String pkg, String relativeName, List<String> originatingElements) {
+			this.location = location;
+			this.pkg = pkg;
+			this.relativeName = relativeName;
+			this.originatingElements = originatingElements;
+		}
+
+		public static Output forType(StandardLocation location, CharSequence name, String extension,
+				Element[] originatingElements) {
+			String nameStr = name.toString();
+			int lastDot = nameStr.lastIndexOf('.');
+			String pkg = (lastDot < 0) ? "" : nameStr.substring(0, lastDot);
+			return new Output(location.getName(), pkg, nameStr.substring(lastDot + 1) + extension,
+					elementKeys(originatingElements));
+		}
+
+		public static Output forResource(Location location, CharSequence pkg, CharSequence relativeName,
+				Element[] originatingElements) {
+			return new Output(location.getName(), pkg.toString(), relativeName.toString(),
+					elementKeys(originatingElements));
+		}
+
+		public List<String> getOriginatingElements() {
+			return originatingElements;
+		}
+
+		boolean exists(Filer filer) {
+			Location loc = StandardLocation.locationFor(location);
+			try {
+				FileObject fo = filer.getResource(loc, pkg, relativeName);
+				InputStream is = fo.openInputStream();
+				is.close();
+				return true;
+			}
+			catch(IOException | IllegalArgumentException ex) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * The recorded state of a single module in a single round.
+	 */
+	static final class ModuleState {
+		private final String version;
+		private final long fingerprint;
+		private final List<Output> outputs;
+
+		public ModuleState(String version, long fingerprint, List<Output> outputs) {
+			this.version = version;
+			this.fingerprint = fingerprint;
+			this.outputs = outputs;
+		}
+	}
+
+	private final Map<String,ModuleState> previous;
+	private final Map<String,ModuleState> current = new HashMap<>();
+	private final Map<TypeElement,Long> typeHashes = new IdentityHashMap<>();
+	private boolean invalid;
+
+	private IncrementalState(Map<String,ModuleState> previous) {
+		this.previous = previous;
+	}
+
+	/**
+	 * Loads the state of the previous compilation. If no previous state exists or it cannot be
+	 * read, an empty state is assumed.
+	 *
+	 * @param filer the filer for reading the state file
+	 * @return the incremental state
+	 */
+	public static IncrementalState load(Filer filer) {
+		Map<String,ModuleState> previous = Collections.emptyMap();
+		try {
+			FileObject fo = filer.getResource(StandardLocation.CLASS_OUTPUT, "", STATE_FILE_NAME);
+			try(InputStream is = fo.openInputStream()) {
+				previous = read(is);
+			}
+		}
+		catch(IOException | IllegalArgumentException ex) {
+			// no (valid) previous state
+		}
+		return new IncrementalState(previous);
+	}
+
+	/**
+	 * Checks whether the inputs of a module are unchanged since the previous compilation, and
+	 * all files generated from them still exist. If so, the previous state of the module is
+	 * carried over to the current state.
+	 *
+	 * @param key the key of the module and round
+	 * @param version the version of the module
+	 * @param fingerprint the fingerprint of the module's inputs
+	 * @param filer the filer for checking the existence of generated files
+	 * @return {@code true} if the module can be skipped, {@code false} otherwise
+	 */
+	public boolean checkUpToDate(String key, String version, long fingerprint, Filer filer) {
+		ModuleState prev = previous.get(key);
+		if(prev == null || prev.fingerprint != fingerprint || !prev.version.equals(version)) {
+			return false;
+		}
+		for(Output out : prev.outputs) {
+			if(!out.exists(filer)) {
+				return false;
+			}
+		}
+		current.put(key, prev);
+		return true;
+	}
+
+	/**
+	 * Starts recording the state of a module which is dispatched in the current compilation.
+	 *
+	 * @param key the key of the module and round
+	 * @param version the version of the module
+	 * @param fingerprint the fingerprint of the module's inputs
+	 * @return the (mutable) list to which generated files should be added
+	 */
+	public List<Output> record(String key, String version, long fingerprint) {
+		List<Output> outputs = new ArrayList<>();
+		current.put(key, new ModuleState(version, fingerprint, outputs));
+		return outputs;
+	}
+
+	/**
+	 * Invalidates the current state, e.g., due to errors. An invalidated state is saved as
+	 * an empty state, forcing all modules to be dispatched in the next compilation.
+	 */
+	public void invalidate() {
+		invalid = true;
+	}
+
+	/**
+	 * Saves the current state.
+	 *
+	 * @param filer the filer for writing the state file
+	 * @throws IOException if writing the state file fails
+	 */
+	public void save(Filer filer) throws IOException {
+		FileObject fo = filer.createResource(StandardLocation.CLASS_OUTPUT, "", STATE_FILE_NAME);
+		try(OutputStream os = fo.openOutputStream()) {
+			write(invalid ? Collections.<String,ModuleState>emptyMap() : current, os);
+		}
+	}
+
+	/**
+	 * Starts a new round. This discards the hashes of type elements cached during the
+	 * previous round, as element objects are not guaranteed to be stable across rounds.
+	 */
+	public void beginRound() {
+		typeHashes.clear();
+	}
+
+	/**
+	 * Computes the fingerprint of the inputs of a module, i.e., its annotated elements.
+	 * The fingerprint does not depend on the order of the elements.
+	 *
+	 * @param annotationName the name of the annotation type processed by the module
+	 * @param elements the annotated elements
+	 * @return the fingerprint
+	 */
+	public long fingerprint(String annotationName, Iterable<? extends Element> elements) {
+		List<Long> fingerprints = new ArrayList<>();
+		for(Element e : elements) {
+			fingerprints.add(fingerprint(e));
+		}
+		long[] sorted = new long[fingerprints.size()];
+		for(int i = 0; i < sorted.length; i++) {
+			sorted[i] = fingerprints.get(i);
+		}
+		Arrays.sort(sorted);
+		long h = hash(FNV_OFFSET, annotationName);
+		for(long fp : sorted) {
+			h = hash(h, fp);
+		}
+		return h;
+	}
+
+	/**
+	 * Computes the fingerprint of a single element, consisting of its qualified name, annotations
+	 * (including values), modifiers and type, as well as the signatures of its members and
+	 * (for types) of all types in its supertype closure, including their members. Hence, a module
+	 * which inspects inherited members is re-run if any of its supertypes changes.
+	 * <p>
+	 * The hashes of type elements are cached until the next {@link #beginRound() round}, such
+	 * that shared supertypes (e.g., {@link Object}) are only hashed once per round.
+	 *
+	 * @param elem the element
+	 * @return the fingerprint
+	 */
+	long fingerprint(Element elem) {
+		long h = hash(FNV_OFFSET, elementKey(elem));
+		if(elem instanceof TypeElement) {
+			return hash(h, typeHash((TypeElement)elem));
+		}
+		h = hashSignature(h, elem);
+		return hashMembers(h, elem);
+	}
+
+	private long typeHash(TypeElement type) {
+		Long cached = typeHashes.get(type);
+		if(cached != null) {
+			return cached.longValue();
+		}
+		// guards against cyclic inheritance in erroneous code
+		typeHashes.put(type, Long.valueOf(0L));
+		long h = hash(FNV_OFFSET, type.getQualifiedName());
+		h = hashSignature(h, type);
+		h = hashMembers(h, type);
+		h = hashSupertype(h, type.getSuperclass());
+		for(TypeMirror iface : type.getInterfaces()) {
+			h = hashSupertype(h, iface);
+		}
+		typeHashes.put(type, Long.valueOf(h));
+		return h;
+	}
+
+	private long hashSupertype(long h, TypeMirror supertype) {
+		if(supertype.getKind() == TypeKind.NONE) {
+			return h;
+		}
+		h = hash(h, supertype.toString());
+		if(supertype.getKind() != TypeKind.DECLARED) {
+			return h;
+		}
+		return hash(h, typeHash((TypeElement)((DeclaredType)supertype).asElement()));
+	}
+
+	private static long hashMembers(long h, Element elem) {
+		for(Element member : elem.getEnclosedElements()) {
+			h = hash(h, member.getSimpleName());
+			h = hashSignature(h, member);
+		}
+		return h;
+	}
+
+	private static long hashSignature(long h, Element elem) {
+		h = hash(h, elem.getKind().name());
+		h = hash(h, elem.getModifiers().toString());
+		h = hash(h, elem.asType().toString());
+		for(AnnotationMirror am : elem.getAnnotationMirrors()) {
+			h = hash(h, am.toString());
+		}
+		return h;
+	}
+
+	/**
+	 * Computes a key identifying an element across compilations.
+	 *
+	 * @param elem the element
+	 * @return the element key
+	 */
+	static String elementKey(Element elem) {
+		return ElementUtils.getQualifiedDesignation(elem);
+	}
+
+	private static List<String> elementKeys(Element[] elements) {
+		if(elements == null || elements.length == 0) {
+			return Collections.emptyList();
+		}
+		List<String> keys = new ArrayList<>(elements.length);
+		for(Element e : elements) {
+			keys.add(elementKey(e));
+		}
+		return keys;
+	}
+
+	private static long hash(long h, CharSequence cs) {
+		int len = cs.length();
+		for(int i = 0; i < len; i++) {
+			char c = cs.charAt(i);
+			h = (h ^ (c & 0xff)) * FNV_PRIME;
+			h = (h ^ (c >>> 8)) * FNV_PRIME;
+		}
+		return (h ^ 0xff) * FNV_PRIME; // separator
+	}
+
+	private static long hash(long h, long value) {
+		for(int i = 0; i < 8; i++) {
+			h = (h ^ (value & 0xff)) * FNV_PRIME;
+			value >>>= 8;
+		}
+		return h;
+	}
+
+	private static Map<String,ModuleState> read(InputStream is) throws IOException {
+		DataInputStream in = new DataInputStream(is);
+		if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+			throw new IOException("Unsupported incremental state format");
+		}
+		int numModules = in.readInt();
+		Map<String,ModuleState> states = new HashMap<>(numModules * 2);
+		for(int i = 0; i < numModules; i++) {
+			String key = in.readUTF();
+			String version = in.readUTF();
+			long fingerprint = in.readLong();
+			int numOutputs = in.readInt();
+			List<Output> outputs = new ArrayList<>(numOutputs);
+			for(int j = 0; j < numOutputs; j++) {
+				String location = in.readUTF();
+				String pkg = in.readUTF();
+				String relativeName = in.readUTF();
+				int numOrigins = in.readInt();
+				List<String> origins = new ArrayList<>(numOrigins);
+				for(int k = 0; k < numOrigins; k++) {
+					origins.add(in.readUTF());
+				}
+				outputs.add(new Output(location, pkg, relativeName, origins));
+			}
+			states.put(key, new ModuleState(version, fingerprint, outputs));
+		}
+		return states;
+	}
+
+	private static void write(Map<String,ModuleState> states, OutputStream os) throws IOException {
+		DataOutputStream out = new DataOutputStream(os);
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(states.size());
+		for(Map.Entry<String,ModuleState> e : states.entrySet()) {
+			ModuleState state = e.getValue();
+			out.writeUTF(e.getKey());
+			out.writeUTF(state.version);
+			out.writeLong(state.fingerprint);
+			out.writeInt(state.outputs.size());
+			for(Output output : state.outputs) {
+				out.writeUTF(output.location);
+				out.writeUTF(output.pkg);
+				out.writeUTF(output.relativeName);
+				out.writeInt(output.originatingElements.size());
+				for(String origin : output.originatingElements) {
+					out.writeUTF(origin);
+				}
+			}
+		}
+		out.flush();
+	}
+}
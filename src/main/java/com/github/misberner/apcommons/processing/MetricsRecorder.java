@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Records the {@link ModuleMetrics} of a single module dispatch. A recorder must only be used
+ * by the thread that dispatches the module.
+ * <p>
+ * Recording can be {@link #suspend() suspended} while other modules are dispatched in between,
+ * and later {@link #resume() resumed}. Work performed by other threads on behalf of the module
+ * can be accounted via {@link #addPhaseNanos(Phase, long)}; allocations of other threads are
+ * not recorded.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class MetricsRecorder {
+
+	/**
+	 * The phases of a module dispatch.
+	 */
+	public static enum Phase {
+		PRE,
+		PROCESS,
+		POST
+	}
+
+	private static final com.sun.management.ThreadMXBean ALLOCATION_MX_BEAN = getAllocationMXBean();
+
+	private static com.sun.management.ThreadMXBean getAllocationMXBean() {
+		try {
+			ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+			if(mxBean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean sunMxBean = (com.sun.management.ThreadMXBean)mxBean;
+				if(sunMxBean.isThreadAllocatedMemorySupported() && sunMxBean.isThreadAllocatedMemoryEnabled()) {
+					return sunMxBean;
+				}
+			}
+		}
+		catch(LinkageError | SecurityException ex) {
+			// not available, fall through
+		}
+		return null;
+	}
+
+	private static long getAllocatedBytes() {
+		if(ALLOCATION_MX_BEAN == null) {
+			return -1L;
+		}
+		return ALLOCATION_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private final SingleAnnotationProcessorModule<?> module;
+	private final int round;
+	private final CountingMessager messager;
+	private final int[] diagnosticCounts = new int[Kind.values().length];
+	private int[] segmentCounts;
+	private long allocatedBytes;
+	private long segmentAllocatedBytes;
+	private boolean suspended = true;
+
+	private final long[] phaseNanos = new long[Phase.values().length];
+	private Phase currentPhase;
+	private long phaseStart;
+	private int elementCount;
+
+	/**
+	 * Constructor. Starts recording.
+	 *
+	 * @param module the dispatched module
+	 * @param round the (1-based) number of the current round
+	 * @param messager the messager used by the module, or {@code null} if diagnostics should
+	 * not be counted
+	 */
+	public MetricsRecorder(SingleAnnotationProcessorModule<?> module, int round, CountingMessager messager) {
+		this.module = module;
+		this.round = round;
+		this.messager = messager;
+		this.allocatedBytes = (ALLOCATION_MX_BEAN != null) ? 0L : -1L;
+		resume();
+	}
+
+	/**
+	 * Sets the number of elements dispatched to the module.
+	 *
+	 * @param elementCount the number of dispatched elements
+	 */
+	public void setElementCount(int elementCount) {
+		this.elementCount = elementCount;
+	}
+
+	/**
+	 * Enters a phase of the module dispatch, ending the current phase (if any).
+	 *
+	 * @param phase the phase to enter
+	 */
+	public void enterPhase(Phase phase) {
+		long now = System.nanoTime();
+		if(currentPhase != null && !suspended) {
+			phaseNanos[currentPhase.ordinal()] += now - phaseStart;
+		}
+		currentPhase = phase;
+		phaseStart = now;
+	}
+
+	/**
+	 * Accounts time spent in a phase of the module dispatch by another thread.
+	 *
+	 * @param phase the phase
+	 * @param nanos the time spent, in nanoseconds
+	 */
+	public void addPhaseNanos(Phase phase, long nanos) {
+		phaseNanos[phase.ordinal()] += nanos;
+	}
+
+	/**
+	 * Suspends recording. Time, allocations and diagnostics are not recorded until
+	 * recording is {@link #resume() resumed}.
+	 */
+	public void suspend() {
+		if(suspended) {
+			return;
+		}
+		if(currentPhase != null) {
+			phaseNanos[currentPhase.ordinal()] += System.nanoTime() - phaseStart;
+		}
+		if(allocatedBytes >= 0L) {
+			allocatedBytes += getAllocatedBytes() - segmentAllocatedBytes;
+		}
+		if(messager != null) {
+			int[] counts = messager.getCounts();
+			for(int i = 0; i < counts.length; i++) {
+				diagnosticCounts[i] += counts[i] - segmentCounts[i];
+			}
+		}
+		suspended = true;
+	}
+
+	/**
+	 * Resumes recording after it was {@link #suspend() suspended}, continuing the current phase.
+	 */
+	public void resume() {
+		if(!suspended) {
+			return;
+		}
+		suspended = false;
+		if(messager != null) {
+			segmentCounts = messager.getCounts();
+		}
+		segmentAllocatedBytes = getAllocatedBytes();
+		phaseStart = System.nanoTime();
+	}
+
+	/**
+	 * Stops recording, and returns the recorded metrics.
+	 *
+	 * @return the recorded metrics
+	 */
+	public ModuleMetrics finish() {
+		suspend();
+		currentPhase = null;
+		return new ModuleMetrics(module.getClass().getName(), module.getAnnotationType().getCanonicalName(),
+				round, elementCount, phaseNanos[Phase.PRE.ordinal()], phaseNanos[Phase.PROCESS.ordinal()],
+				phaseNanos[Phase.POST.ordinal()], allocatedBytes, diagnosticCounts);
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.github.misberner.apcommons.util.JsonUtils;
+
+/**
+ * A {@link ProcessingMetricsListener} that collects the metrics of all modules and rounds, and
+ * writes them to a report file in JSON or CSV format after the last round.
+ * <p>
+ * The report is written either to a given file, or, via the {@link Filer}, as a resource
+ * in the {@link StandardLocation#SOURCE_OUTPUT source output} location.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public class MetricsReportWriter implements ProcessingMetricsListener {
+
+	/**
+	 * The format of a metrics report.
+	 */
+	public static enum Format {
+		JSON("json"),
+		CSV("csv");
+
+		private final String extension;
+
+		private Format(String extension) {
+			this.extension = extension;
+		}
+
+		/**
+		 * Retrieves the file extension for this format.
+		 * @return the file extension (without leading dot)
+		 */
+		public String getExtension() {
+			return extension;
+		}
+
+		/**
+		 * Retrieves the format for a given name or file extension (case-insensitive).
+		 *
+		 * @param name the format name or extension
+		 * @return the respective format, or {@code null} if there is no such format
+		 */
+		public static Format forName(String name) {
+			for(Format f : values()) {
+				if(f.extension.equalsIgnoreCase(name)) {
+					return f;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * The base name of report files written via the {@link Filer}.
+	 */
+	public static final String REPORT_BASE_NAME = "apcommons-metrics";
+
+	private static final Kind[] KINDS = Kind.values();
+
+	private final Format format;
+	private final File file;
+	private final Filer filer;
+	private final Messager messager;
+	private final List<ModuleMetrics> metrics = new ArrayList<>();
+
+	/**
+	 * Constructor for writing the report to a given file.
+	 *
+	 * @param file the report file
+	 * @param format the report format
+	 * @param messager the messager for reporting I/O errors
+	 */
+	public MetricsReportWriter(File file, Format format, Messager messager) {
+		this.format = format;
+		this.file = file;
+		this.filer = null;
+		this.messager = messager;
+	}
+
+	/**
+	 * Constructor for writing the report via the {@link Filer}. The report is written to
+	 * the resource <tt>apcommons-metrics.&lt;ext&gt;</tt> in the source output location.
+	 *
+	 * @param filer the filer
+	 * @param format the report format
+	 * @param messager the messager for reporting I/O errors
+	 */
+	public MetricsReportWriter(Filer filer, Format format, Messager messager) {
+		this.format = format;
+		this.file = null;
+		this.filer = filer;
+		this.messager = messager;
+	}
+
+	/**
+	 * Retrieves the metrics collected so far.
+	 * @return the list of collected metrics, in the order they were reported
+	 */
+	public List<ModuleMetrics> getMetrics() {
+		return metrics;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.processing.ProcessingMetricsListener#moduleDispatched(com.github.misberner.apcommons.processing.ModuleMetrics)
+	 */
+	@Override
+	public void moduleDispatched(ModuleMetrics metrics) {
+		this.metrics.add(metrics);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.processing.ProcessingMetricsListener#roundCompleted(int)
+	 */
+	@Override
+	public void roundCompleted(int round) {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.processing.ProcessingMetricsListener#processingOver()
+	 */
+	@Override
+	public void processingOver() {
+		try(Writer w = openWriter()) {
+			write(w);
+		}
+		catch(IOException ex) {
+			messager.printMessage(Kind.WARNING, "Could not write metrics report: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the report for the metrics collected so far.
+	 *
+	 * @param w the writer to write the report to
+	 * @throws IOException if writing the report fails
+	 */
+	public void write(Appendable w) throws IOException {
+		switch(format) {
+		case CSV:
+			writeCsv(w);
+			break;
+		default:
+			writeJson(w);
+		}
+	}
+
+	private Writer openWriter() throws IOException {
+		if(file != null) {
+			File parent = file.getAbsoluteFile().getParentFile();
+			if(parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create directory " + parent);
+			}
+			return new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+		}
+		FileObject fo = filer.createResource(StandardLocation.SOURCE_OUTPUT, "",
+				REPORT_BASE_NAME + "." + format.getExtension());
+		return fo.openWriter();
+	}
+
+	private void writeJson(Appendable w) throws IOException {
+		w.append("{\n  \"modules\": [");
+		boolean first = true;
+		for(ModuleMetrics m : metrics) {
+			w.append(first ? "\n" : ",\n");
+			first = false;
+			w.append("    {\"round\": ").append(Integer.toString(m.getRound()));
+			w.append(", \"module\": ");
+			JsonUtils.appendJsonString(w, m.getModuleName());
+			w.append(", \"annotation\": ");
+			JsonUtils.appendJsonString(w, m.getAnnotationName());
+			w.append(", \"elements\": ").append(Integer.toString(m.getElementCount()));
+			w.append(", \"preNanos\": ").append(Long.toString(m.getPreNanos()));
+			w.append(", \"processNanos\": ").append(Long.toString(m.getProcessNanos()));
+			w.append(", \"postNanos\": ").append(Long.toString(m.getPostNanos()));
+			w.append(", \"allocatedBytes\": ").append(Long.toString(m.getAllocatedBytes()));
+			w.append(", \"diagnostics\": {");
+			for(int i = 0; i < KINDS.length; i++) {
+				if(i > 0) {
+					w.append(", ");
+				}
+				w.append('"').append(KINDS[i].name()).append("\": ")
+					.append(Integer.toString(m.getDiagnosticCount(KINDS[i])));
+			}
+			w.append("}}");
+		}
+		w.append("\n  ]\n}\n");
+	}
+
+	private void writeCsv(Appendable w) throws IOException {
+		w.append("round,module,annotation,elements,preNanos,processNanos,postNanos,allocatedBytes");
+		for(Kind kind : KINDS) {
+			w.append(',').append(kind.name());
+		}
+		w.append('\n');
+		for(ModuleMetrics m : metrics) {
+			w.append(Integer.toString(m.getRound())).append(',');
+			w.append(m.getModuleName()).append(',');
+			w.append(m.getAnnotationName()).append(',');
+			w.append(Integer.toString(m.getElementCount())).append(',');
+			w.append(Long.toString(m.getPreNanos())).append(',');
+			w.append(Long.toString(m.getProcessNanos())).append(',');
+			w.append(Long.toString(m.getPostNanos())).append(',');
+			w.append(Long.toString(m.getAllocatedBytes()));
+			for(Kind kind : KINDS) {
+				w.append(',').append(Integer.toString(m.getDiagnosticCount(kind)));
+			}
+			w.append('\n');
+		}
+	}
+}
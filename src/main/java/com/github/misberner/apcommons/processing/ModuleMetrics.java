@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Metrics of a single module for a single round of annotation processing.
+ * <p>
+ * Times are wall-clock times in nanoseconds. The time spent in
+ * {@link SingleAnnotationProcessorModule#postFailure(com.github.misberner.apcommons.util.APUtils) postFailure}
+ * is accounted as post-processing time.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class ModuleMetrics {
+
+	private final String moduleName;
+	private final String annotationName;
+	private final int round;
+	private final int elementCount;
+	private final long preNanos;
+	private final long processNanos;
+	private final long postNanos;
+	private final long allocatedBytes;
+	private final int[] diagnosticCounts;
+
+	ModuleMetrics(String moduleName, String annotationName, int round, int elementCount,
+			long preNanos, long processNanos, long postNanos, long allocatedBytes,
+			int[] diagnosticCounts) {
+		this.moduleName = moduleName;
+		this.annotationName = annotationName;
+		this.round = round;
+		this.elementCount = elementCount;
+		this.preNanos = preNanos;
+		this.processNanos = processNanos;
+		this.postNanos = postNanos;
+		this.allocatedBytes = allocatedBytes;
+		this.diagnosticCounts = diagnosticCounts;
+	}
+
+	/**
+	 * Retrieves the name of the module, i.e., the fully qualified name of its class.
+	 * @return the module name
+	 */
+	public String getModuleName() {
+		return moduleName;
+	}
+
+	/**
+	 * Retrieves the fully qualified name of the annotation type processed by the module.
+	 * @return the annotation name
+	 */
+	public String getAnnotationName() {
+		return annotationName;
+	}
+
+	/**
+	 * Retrieves the (1-based) number of the round.
+	 * @return the round number
+	 */
+	public int getRound() {
+		return round;
+	}
+
+	/**
+	 * Retrieves the number of annotated elements dispatched to the module.
+	 * @return the number of dispatched elements
+	 */
+	public int getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * Retrieves the time spent in {@link SingleAnnotationProcessorModule#pre(com.github.misberner.apcommons.util.APUtils) pre}.
+	 * @return the pre-processing time, in nanoseconds
+	 */
+	public long getPreNanos() {
+		return preNanos;
+	}
+
+	/**
+	 * Retrieves the time spent in processing the annotated elements, including the lookup of
+	 * annotation mirrors.
+	 * @return the processing time, in nanoseconds
+	 */
+	public long getProcessNanos() {
+		return processNanos;
+	}
+
+	/**
+	 * Retrieves the time spent in {@link SingleAnnotationProcessorModule#post(com.github.misberner.apcommons.util.APUtils) post}
+	 * or {@link SingleAnnotationProcessorModule#postFailure(com.github.misberner.apcommons.util.APUtils) postFailure}.
+	 * @return the post-processing time, in nanoseconds
+	 */
+	public long getPostNanos() {
+		return postNanos;
+	}
+
+	/**
+	 * Retrieves the total time spent in the module.
+	 * @return the total time, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return preNanos + processNanos + postNanos;
+	}
+
+	/**
+	 * Retrieves the number of bytes allocated by the dispatching thread while the module
+	 * was dispatched.
+	 * @return the number of allocated bytes, or {@code -1} if the JVM does not support
+	 * measuring thread allocation
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Retrieves the number of diagnostics of the given kind printed while the module was
+	 * dispatched.
+	 *
+	 * @param kind the diagnostic kind
+	 * @return the number of diagnostics of the given kind
+	 */
+	public int getDiagnosticCount(Kind kind) {
+		return diagnosticCounts[kind.ordinal()];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "ModuleMetrics[round=" + round + ", module=" + moduleName + ", elements=" + elementCount
+				+ ", totalNanos=" + getTotalNanos() + ", allocatedBytes=" + allocatedBytes + "]";
+	}
+}
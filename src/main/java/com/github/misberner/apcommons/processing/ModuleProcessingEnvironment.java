@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2013-2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * A {@link ProcessingEnvironment} for collecting metrics, buffering diagnostics or tracking generated
+ * files. It forwards to the actual processing environment, except for the {@link Messager} and
+ * the {@link Filer}.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class ModuleProcessingEnvironment implements ProcessingEnvironment {
+
+	private final ProcessingEnvironment delegate;
+	private final Messager messager;
+	private final Filer filer;
+
+	/**
+	 * Constructor. The filer of the actual processing environment is used without
+	 * restrictions.
+	 *
+	 * @param delegate the actual processing environment
+	 * @param messager the messager to use
+	 */
+	public ModuleProcessingEnvironment(ProcessingEnvironment delegate, Messager messager) {
+		this(delegate, messager, delegate.getFiler());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the actual processing environment
+	 * @param messager the messager to use
+	 * @param filer the filer to use
+	 */
+	public ModuleProcessingEnvironment(ProcessingEnvironment delegate, Messager messager, Filer filer) {
+		this.delegate = delegate;
+		this.messager = messager;
+		this.filer = filer;
+	}
+
+	@Override
+	public Map<String, String> getOptions() {
+		return delegate.getOptions();
+	}
+
+	@Override
+	public Messager getMessager() {
+		return messager;
+	}
+
+	@Override
+	public Filer getFiler() {
+		return filer;
+	}
+
+	@Override
+	public Elements getElementUtils() {
+		return delegate.getElementUtils();
+	}
+
+	@Override
+	public Types getTypeUtils() {
+		return delegate.getTypeUtils();
+	}
+
+	@Override
+	public SourceVersion getSourceVersion() {
+		return delegate.getSourceVersion();
+	}
+
+	@Override
+	public Locale getLocale() {
+		return delegate.getLocale();
+	}
+
+}
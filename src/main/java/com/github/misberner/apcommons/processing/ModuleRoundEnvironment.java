@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * A {@link RoundEnvironment} for dispatching a single module, which answers queries for the
+ * module's annotation type with a precomputed set of annotated elements (e.g., obtained from an
+ * {@link AnnotatedElementIndex}). All other queries are delegated to the actual round environment.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class ModuleRoundEnvironment implements RoundEnvironment {
+
+	private final RoundEnvironment delegate;
+	private final Class<? extends Annotation> annotationType;
+	private final Set<? extends Element> annotatedElements;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the actual round environment
+	 * @param annotationType the annotation type of the module
+	 * @param annotatedElements the elements annotated with the module's annotation type
+	 */
+	public ModuleRoundEnvironment(RoundEnvironment delegate, Class<? extends Annotation> annotationType,
+			Set<? extends Element> annotatedElements) {
+		this.delegate = delegate;
+		this.annotationType = annotationType;
+		this.annotatedElements = annotatedElements;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.RoundEnvironment#processingOver()
+	 */
+	@Override
+	public boolean processingOver() {
+		return delegate.processingOver();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.RoundEnvironment#errorRaised()
+	 */
+	@Override
+	public boolean errorRaised() {
+		return delegate.errorRaised();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.RoundEnvironment#getRootElements()
+	 */
+	@Override
+	public Set<? extends Element> getRootElements() {
+		return delegate.getRootElements();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.RoundEnvironment#getElementsAnnotatedWith(javax.lang.model.element.TypeElement)
+	 */
+	@Override
+	public Set<? extends Element> getElementsAnnotatedWith(TypeElement a) {
+		if(a.getQualifiedName().contentEquals(annotationType.getCanonicalName())) {
+			return annotatedElements;
+		}
+		return delegate.getElementsAnnotatedWith(a);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.RoundEnvironment#getElementsAnnotatedWith(java.lang.Class)
+	 */
+	@Override
+	public Set<? extends Element> getElementsAnnotatedWith(Class<? extends Annotation> a) {
+		if(a == annotationType) {
+			return annotatedElements;
+		}
+		return delegate.getElementsAnnotatedWith(a);
+	}
+}
@@ -15,13 +15,29 @@
  */
 package com.github.misberner.apcommons.processing;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.AnnotationMirror;
@@ -31,20 +47,131 @@ import javax.tools.Diagnostic.Kind;
 
 import com.github.misberner.apcommons.processing.exceptions.FatalProcessingException;
 import com.github.misberner.apcommons.processing.exceptions.ProcessingException;
+import com.github.misberner.apcommons.reporting.BufferedMessager;
+import com.github.misberner.apcommons.reporting.DiagnosticExporter;
+import com.github.misberner.apcommons.reporting.RootReporter;
 import com.github.misberner.apcommons.util.APUtils;
-import com.github.misberner.apcommons.util.annotations.AnnotationUtils;
 
 /**
  * An annotation processor that sequentially dispatches multiple
  * {@link SingleAnnotationProcessorModule}s.
+ * <p>
+ * Optionally, modules can be dispatched in parallel (see {@link #setParallelism(int)}).
+ * <p>
+ * Per-module, per-round metrics can be collected by registering a {@link ProcessingMetricsListener}.
+ * Alternatively, a report can be requested via the processor options {@value #METRICS_OPTION}
+ * (<tt>json</tt> or <tt>csv</tt>, written via the {@link javax.annotation.processing.Filer Filer})
+ * and {@value #METRICS_FILE_OPTION} (the path of the report file).
+ * <p>
+ * Incremental processing, i.e., skipping {@link IncrementalProcessorModule}s whose inputs did
+ * not change since the previous compilation, can be enabled via {@link #setIncremental(boolean)}
+ * or the processor option {@value #INCREMENTAL_OPTION}.
+ * <p>
+ * For Gradle's incremental annotation processing, the processor reports the
+ * {@link #getIncrementalCategory() combined category} of its modules (see
+ * {@link GradleIncrementalModule}) via its supported options.
+ * It can thus be declared as {@link IncrementalCategory#DYNAMIC dynamic} (see
+ * {@link IncrementalAnnotationProcessor}).
+ * <p>
+ * Diagnostics can be buffered, deduplicated and limited (see {@link #setBufferedDiagnostics(boolean)}),
+ * and exported in a machine-readable format (see {@link #setDiagnosticsExportFile(File)}).
+ * <p>
+ * In order to fail fast, the number of errors per module and per round can be limited (see
+ * {@link #setErrorBudgets(int, int)}). Exceptions thrown by modules are reported as a single error, and
+ * their stack traces are only printed on request (see {@link #setPrintStackTraces(boolean)}).
  * 
  * @author Malte Isberner <malte.isberner@gmail.com>
  */
 public class MultiModuleProcessor extends AbstractProcessor {
-
+	
+	/**
+	 * Processor option for requesting a metrics report. Valid values are <tt>json</tt> and
+	 * <tt>csv</tt>.
+	 */
+	public static final String METRICS_OPTION = "apcommons.metrics";
+	
+	/**
+	 * Processor option for specifying the path of the metrics report file. If this option is
+	 * not given, the report is written via the {@link javax.annotation.processing.Filer Filer}.
+	 */
+	public static final String METRICS_FILE_OPTION = "apcommons.metrics.file";
+	
+	/**
+	 * Processor option for enabling incremental processing (see {@link #setIncremental(boolean)}).
+	 */
+	public static final String INCREMENTAL_OPTION = "apcommons.incremental";
+	
+	/**
+	 * Processor option for enabling buffered diagnostics (see {@link #setBufferedDiagnostics(boolean)}).
+	 */
+	public static final String BUFFER_DIAGNOSTICS_OPTION = "apcommons.diagnostics.buffer";
+	
+	/**
+	 * Processor option for limiting the number of diagnostics reported per element and round.
+	 * Implies {@value #BUFFER_DIAGNOSTICS_OPTION}.
+	 */
+	public static final String MAX_DIAGNOSTICS_PER_ELEMENT_OPTION = "apcommons.diagnostics.maxPerElement";
+	
+	/**
+	 * Processor option for limiting the number of diagnostics reported per module and round.
+	 * Implies {@value #BUFFER_DIAGNOSTICS_OPTION}.
+	 */
+	public static final String MAX_DIAGNOSTICS_PER_MODULE_OPTION = "apcommons.diagnostics.maxPerModule";
+	
+	/**
+	 * Processor option specifying the path of a file to export diagnostics to (see
+	 * {@link #setDiagnosticsExportFile(File)}).
+	 */
+	public static final String DIAGNOSTICS_EXPORT_OPTION = "apcommons.diagnostics.export";
+	
+	/**
+	 * Processor option specifying the maximum number of errors per module and round
+	 * (see {@link #setErrorBudgets(int, int)}).
+	 */
+	public static final String MAX_ERRORS_PER_MODULE_OPTION = "apcommons.errors.maxPerModule";
+	
+	/**
+	 * Processor option specifying the maximum number of errors per round
+	 * (see {@link #setErrorBudgets(int, int)}).
+	 */
+	public static final String MAX_ERRORS_PER_ROUND_OPTION = "apcommons.errors.maxPerRound";
+	
+	/**
+	 * Processor option for printing the stack traces of exceptions thrown by modules
+	 * (see {@link #setPrintStackTraces(boolean)}).
+	 */
+	public static final String STACK_TRACES_OPTION = "apcommons.errors.stackTraces";
 
 	protected APUtils utils;
 	private final SingleAnnotationProcessorModule<?>[] modules;
+	private boolean singlePassDispatch;
+	private int parallelism = 1;
+	
+	private int[] moduleLevels;
+	private ForkJoinPool pool;
+	
+	private final List<ProcessingMetricsListener> metricsListeners = new ArrayList<>();
+	private final ThreadLocal<MetricsRecorder> activeRecorder = new ThreadLocal<>();
+	private CountingMessager countingMessager;
+	private int round;
+	
+	private boolean incremental;
+	private IncrementalState incrementalState;
+	private TrackingFiler trackingFiler;
+	private OriginCheckingFiler originCheckingFiler;
+	private boolean errorsRaised;
+	
+	private boolean bufferedDiagnostics;
+	private int maxDiagnosticsPerElement;
+	private int maxDiagnosticsPerModule;
+	private BufferedMessager bufferedMessager;
+	private File diagnosticsExportFile;
+	private DiagnosticExporter diagnosticExporter;
+	
+	private int maxErrorsPerModule;
+	private int maxErrorsPerRound;
+	private final AtomicInteger roundErrors = new AtomicInteger();
+	private boolean printStackTraces;
 
 	/**
 	 * Constructor.
@@ -56,6 +183,256 @@ public class MultiModuleProcessor extends AbstractProcessor {
 		this.modules = modules.clone();
 	}
 
+	/**
+	 * Sets whether annotated elements should be determined in a single pass over the
+	 * root elements of each round (see {@link AnnotatedElementIndex}), instead of
+	 * querying the round environment once per module.
+	 * <p>
+	 * This is advisable if there is a large number of modules. Note that in this mode,
+	 * only directly present annotations are taken into account.
+	 * 
+	 * @param singlePassDispatch whether to use single-pass dispatch
+	 */
+	public void setSinglePassDispatch(boolean singlePassDispatch) {
+		this.singlePassDispatch = singlePassDispatch;
+	}
+	
+	/**
+	 * Retrieves whether annotated elements are determined in a single pass.
+	 * 
+	 * @return {@code true} if single-pass dispatch is enabled, {@code false} otherwise
+	 * @see #setSinglePassDispatch(boolean)
+	 */
+	public boolean isSinglePassDispatch() {
+		return singlePassDispatch;
+	}
+
+	/**
+	 * Sets the maximum number of modules that are dispatched in parallel. A value
+	 * of {@code 1} (the default) or less results in sequential dispatch.
+	 * <p>
+	 * Since the language model, the {@link javax.annotation.processing.Filer Filer} and the
+	 * {@link Messager} are not thread-safe, parallel dispatch is restricted to the model-independent
+	 * {@link ConcurrentProcessorModule#processConcurrently(Messager) concurrent phase} of
+	 * {@link ConcurrentProcessorModule}s. All other phases of all modules, as well as all
+	 * model accesses by this processor, take place on the processing thread.
+	 * <p>
+	 * Modules are dispatched in waves of mutually independent modules. For each wave, the
+	 * <tt>pre</tt> and <tt>process</tt> phases of the modules are executed sequentially, then
+	 * their concurrent phases are executed in parallel, and finally their <tt>post</tt> phases are
+	 * executed sequentially. Messages printed in the concurrent phase are forwarded to the actual
+	 * messager before the <tt>post</tt> phase of the respective module.
+	 * <p>
+	 * This method must be called before the first round of processing.
+	 * 
+	 * @param parallelism the maximum number of modules dispatched in parallel
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+	
+	/**
+	 * Retrieves the maximum number of modules dispatched in parallel.
+	 * 
+	 * @return the maximum number of modules dispatched in parallel
+	 * @see #setParallelism(int)
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets whether incremental processing is enabled.
+	 * <p>
+	 * In incremental mode, a fingerprint of the annotated elements of each module is computed
+	 * in each round, and all files generated by the module are recorded along with their
+	 * originating elements. This state is stored in the class output location
+	 * (as <tt>apcommons-incremental.state</tt>) once processing is over. In subsequent
+	 * compilations, an {@link IncrementalProcessorModule} is not dispatched if its version and the
+	 * fingerprint of its annotated elements in the respective round are unchanged, and all files
+	 * it generated previously still exist.
+	 * <p>
+	 * Note that this relies on the build tool retaining the previously generated files. If any
+	 * errors occur, the state is discarded, and all modules are dispatched in the next compilation.
+	 * <p>
+	 * This method must be called before {@link #init(ProcessingEnvironment)}.
+	 * 
+	 * @param incremental whether to enable incremental processing
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+	
+	/**
+	 * Retrieves whether incremental processing is enabled.
+	 * 
+	 * @return {@code true} if incremental processing is enabled, {@code false} otherwise
+	 * @see #setIncremental(boolean)
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Sets whether diagnostics should be buffered. If enabled, all diagnostics printed via the
+	 * {@link Messager} of the utility object (and thus via {@link com.github.misberner.apcommons.reporting.Reporter
+	 * Reporter}s) are collected, deduplicated, and printed in a single batch at the end of each round
+	 * (see {@link BufferedMessager}).
+	 * <p>
+	 * This method must be called before {@link #init(ProcessingEnvironment)}.
+	 * 
+	 * @param bufferedDiagnostics whether to buffer diagnostics
+	 * @see #setDiagnosticLimits(int, int)
+	 */
+	public void setBufferedDiagnostics(boolean bufferedDiagnostics) {
+		this.bufferedDiagnostics = bufferedDiagnostics;
+	}
+	
+	/**
+	 * Retrieves whether diagnostics are buffered.
+	 * 
+	 * @return {@code true} if diagnostics are buffered, {@code false} otherwise
+	 * @see #setBufferedDiagnostics(boolean)
+	 */
+	public boolean isBufferedDiagnostics() {
+		return bufferedDiagnostics;
+	}
+	
+	/**
+	 * Sets the maximum number of diagnostics reported per element and per module in each round.
+	 * Values of {@code 0} or less mean no limit. This only has an effect if diagnostics are
+	 * buffered.
+	 * <p>
+	 * This method must be called before {@link #init(ProcessingEnvironment)}.
+	 * 
+	 * @param maxPerElement the maximum number of diagnostics per element
+	 * @param maxPerModule the maximum number of diagnostics per module
+	 * @see #setBufferedDiagnostics(boolean)
+	 */
+	public void setDiagnosticLimits(int maxPerElement, int maxPerModule) {
+		this.maxDiagnosticsPerElement = maxPerElement;
+		this.maxDiagnosticsPerModule = maxPerModule;
+	}
+	
+	/**
+	 * Sets the file to export diagnostics to. All diagnostics printed via the {@link Messager} of
+	 * the utility object are written to this file as soon as they are reported (see
+	 * {@link DiagnosticExporter}). Files with extension <tt>.sarif</tt> are written in SARIF
+	 * format, all others in JSON lines format.
+	 * <p>
+	 * This method must be called before {@link #init(ProcessingEnvironment)}.
+	 * 
+	 * @param file the file to export diagnostics to, or {@code null} if diagnostics should not
+	 * be exported
+	 */
+	public void setDiagnosticsExportFile(File file) {
+		this.diagnosticsExportFile = file;
+	}
+	
+	/**
+	 * Retrieves the file diagnostics are exported to.
+	 * 
+	 * @return the file diagnostics are exported to, or {@code null} if diagnostics are not exported
+	 * @see #setDiagnosticsExportFile(File)
+	 */
+	public File getDiagnosticsExportFile() {
+		return diagnosticsExportFile;
+	}
+	
+	/**
+	 * Sets the error budgets, i.e., the maximum number of errors per module and per round.
+	 * Values of {@code 0} or less mean no limit.
+	 * <p>
+	 * Errors are exceptions thrown while processing a module. Once the budget of a module is
+	 * exhausted, its remaining elements are not processed, and its
+	 * {@link SingleAnnotationProcessorModule#postFailure(APUtils) postFailure} method is called.
+	 * Once the budget of a round is exhausted, the remaining modules are not dispatched in this
+	 * round.
+	 * 
+	 * @param maxPerModule the maximum number of errors per module (in each round)
+	 * @param maxPerRound the maximum number of errors per round
+	 */
+	public void setErrorBudgets(int maxPerModule, int maxPerRound) {
+		this.maxErrorsPerModule = maxPerModule;
+		this.maxErrorsPerRound = maxPerRound;
+	}
+	
+	/**
+	 * Sets whether the stack traces of exceptions thrown by modules should be printed. An
+	 * exception is always reported as a single error; if this option is enabled, its stack
+	 * trace is additionally printed as a note.
+	 * <p>
+	 * This method must be called before {@link #init(ProcessingEnvironment)}.
+	 * 
+	 * @param printStackTraces whether to print stack traces
+	 */
+	public void setPrintStackTraces(boolean printStackTraces) {
+		this.printStackTraces = printStackTraces;
+	}
+	
+	/**
+	 * Retrieves the messager buffering diagnostics, e.g., for querying the diagnostic counts.
+	 * 
+	 * @return the buffered messager, or {@code null} if diagnostics are not buffered or
+	 * {@link #init(ProcessingEnvironment)} was not called yet
+	 */
+	public BufferedMessager getBufferedMessager() {
+		return bufferedMessager;
+	}
+
+	/**
+	 * Retrieves the category of this processor with respect to Gradle's incremental annotation
+	 * processing. This is the {@link IncrementalCategory#combine(IncrementalCategory) combination}
+	 * of the categories of all modules, where modules not implementing
+	 * {@link GradleIncrementalModule} are considered {@link IncrementalCategory#NONE}.
+	 * 
+	 * @return the incremental category of this processor
+	 */
+	public IncrementalCategory getIncrementalCategory() {
+		IncrementalCategory result = IncrementalCategory.ISOLATING;
+		for(SingleAnnotationProcessorModule<?> module : modules) {
+			result = result.combine(getIncrementalCategory(module));
+		}
+		return result;
+	}
+	
+	static IncrementalCategory getIncrementalCategory(SingleAnnotationProcessorModule<?> module) {
+		if(module instanceof GradleIncrementalModule) {
+			IncrementalCategory category = ((GradleIncrementalModule<?>)module).getIncrementalCategory();
+			if(category != null) {
+				return category;
+			}
+		}
+		return IncrementalCategory.NONE;
+	}
+	
+	private static boolean requiresOriginatingElements(SingleAnnotationProcessorModule<?> module) {
+		return getIncrementalCategory(module).requiresOriginatingElements();
+	}
+
+	/**
+	 * Registers a listener for per-module, per-round metrics. Metrics are only collected
+	 * if at least one listener is registered.
+	 * <p>
+	 * Diagnostics are only counted for listeners registered before {@link #init(ProcessingEnvironment)}
+	 * is called.
+	 * 
+	 * @param listener the listener to register
+	 */
+	public void addMetricsListener(ProcessingMetricsListener listener) {
+		metricsListeners.add(listener);
+	}
+	
+	/**
+	 * Unregisters a metrics listener.
+	 * 
+	 * @param listener the listener to unregister
+	 * @see #addMetricsListener(ProcessingMetricsListener)
+	 */
+	public void removeMetricsListener(ProcessingMetricsListener listener) {
+		metricsListeners.remove(listener);
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see javax.annotation.processing.AbstractProcessor#init(javax.annotation.processing.ProcessingEnvironment)
@@ -63,7 +440,138 @@ public class MultiModuleProcessor extends AbstractProcessor {
 	@Override
 	public synchronized void init(ProcessingEnvironment processingEnv) {
 		super.init(processingEnv);
-		this.utils = new APUtils(processingEnv);
+		
+		MetricsReportWriter reportWriter = createMetricsReportWriter(processingEnv);
+		if(reportWriter != null) {
+			addMetricsListener(reportWriter);
+		}
+		
+		Map<String,String> options = processingEnv.getOptions();
+		if(Boolean.parseBoolean(options.get(INCREMENTAL_OPTION))) {
+			incremental = true;
+		}
+		if(Boolean.parseBoolean(options.get(BUFFER_DIAGNOSTICS_OPTION))) {
+			bufferedDiagnostics = true;
+		}
+		if(options.containsKey(MAX_DIAGNOSTICS_PER_ELEMENT_OPTION)) {
+			maxDiagnosticsPerElement = getIntOption(processingEnv, MAX_DIAGNOSTICS_PER_ELEMENT_OPTION);
+			bufferedDiagnostics = true;
+		}
+		if(options.containsKey(MAX_DIAGNOSTICS_PER_MODULE_OPTION)) {
+			maxDiagnosticsPerModule = getIntOption(processingEnv, MAX_DIAGNOSTICS_PER_MODULE_OPTION);
+			bufferedDiagnostics = true;
+		}
+		
+		if(options.containsKey(MAX_ERRORS_PER_MODULE_OPTION)) {
+			maxErrorsPerModule = getIntOption(processingEnv, MAX_ERRORS_PER_MODULE_OPTION);
+		}
+		if(options.containsKey(MAX_ERRORS_PER_ROUND_OPTION)) {
+			maxErrorsPerRound = getIntOption(processingEnv, MAX_ERRORS_PER_ROUND_OPTION);
+		}
+		if(Boolean.parseBoolean(options.get(STACK_TRACES_OPTION))) {
+			printStackTraces = true;
+		}
+		
+		String exportFileName = options.get(DIAGNOSTICS_EXPORT_OPTION);
+		if(exportFileName != null) {
+			diagnosticsExportFile = new File(exportFileName);
+		}
+		
+		ProcessingEnvironment utilsEnv = processingEnv;
+		Messager messager = processingEnv.getMessager();
+		Filer filer = processingEnv.getFiler();
+		if(diagnosticsExportFile != null) {
+			diagnosticExporter = createDiagnosticExporter(processingEnv, diagnosticsExportFile);
+			if(diagnosticExporter != null) {
+				messager = diagnosticExporter;
+			}
+		}
+		if(bufferedDiagnostics) {
+			bufferedMessager = new BufferedMessager(messager, maxDiagnosticsPerElement, maxDiagnosticsPerModule);
+			messager = bufferedMessager;
+		}
+		if(!metricsListeners.isEmpty()) {
+			countingMessager = new CountingMessager(messager);
+			messager = countingMessager;
+		}
+		if(incremental) {
+			incrementalState = IncrementalState.load(filer);
+			trackingFiler = new TrackingFiler(filer);
+			filer = trackingFiler;
+		}
+		for(SingleAnnotationProcessorModule<?> module : modules) {
+			if(requiresOriginatingElements(module)) {
+				originCheckingFiler = new OriginCheckingFiler(filer);
+				filer = originCheckingFiler;
+				break;
+			}
+		}
+		if(filer != processingEnv.getFiler() || messager != processingEnv.getMessager()) {
+			utilsEnv = new ModuleProcessingEnvironment(processingEnv, messager, filer);
+		}
+		this.utils = new APUtils(utilsEnv, true);
+	}
+	
+	private DiagnosticExporter createDiagnosticExporter(ProcessingEnvironment processingEnv, File file) {
+		try {
+			File parent = file.getAbsoluteFile().getParentFile();
+			if(parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create directory " + parent);
+			}
+			BufferedWriter out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+					StandardCharsets.UTF_8));
+			return new DiagnosticExporter(processingEnv.getMessager(), out,
+					DiagnosticExporter.Format.forFileName(file.getName()), processingEnv, getClass().getName());
+		}
+		catch(IOException ex) {
+			processingEnv.getMessager().printMessage(Kind.WARNING, "Could not export diagnostics to "
+					+ file + ": " + ex.getMessage());
+			return null;
+		}
+	}
+	
+	private static int getIntOption(ProcessingEnvironment processingEnv, String name) {
+		String value = processingEnv.getOptions().get(name);
+		try {
+			return Integer.parseInt(value);
+		}
+		catch(NumberFormatException ex) {
+			processingEnv.getMessager().printMessage(Kind.WARNING, "Invalid value '" + value
+					+ "' for option " + name + ", ignoring");
+			return 0;
+		}
+	}
+	
+	private static MetricsReportWriter createMetricsReportWriter(ProcessingEnvironment processingEnv) {
+		Map<String,String> options = processingEnv.getOptions();
+		String formatName = options.get(METRICS_OPTION);
+		String fileName = options.get(METRICS_FILE_OPTION);
+		if(formatName == null && fileName == null) {
+			return null;
+		}
+		
+		MetricsReportWriter.Format format = null;
+		if(formatName != null) {
+			format = MetricsReportWriter.Format.forName(formatName);
+			if(format == null) {
+				processingEnv.getMessager().printMessage(Kind.WARNING, "Unknown metrics report format '"
+						+ formatName + "', using JSON");
+			}
+		}
+		else {
+			int dotIdx = fileName.lastIndexOf('.');
+			if(dotIdx >= 0) {
+				format = MetricsReportWriter.Format.forName(fileName.substring(dotIdx + 1));
+			}
+		}
+		if(format == null) {
+			format = MetricsReportWriter.Format.JSON;
+		}
+		
+		if(fileName != null) {
+			return new MetricsReportWriter(new File(fileName), format, processingEnv.getMessager());
+		}
+		return new MetricsReportWriter(processingEnv.getFiler(), format, processingEnv.getMessager());
 	}
 
 	/*
@@ -77,98 +585,748 @@ public class MultiModuleProcessor extends AbstractProcessor {
 			throw new IllegalStateException("Asked to process before init() was called!");
 		}
 		
-		boolean noErrors = true;
-		
-		for(SingleAnnotationProcessorModule<?> module : modules) {
-			noErrors = noErrors & dispatchModule(module, roundEnv);
+		utils.beginRound(roundEnv);
+		if(incrementalState != null) {
+			incrementalState.beginRound();
 		}
+		round++;
+		roundErrors.set(0);
 		
-		if(!noErrors) {
-			utils.getMessager().printMessage(Kind.ERROR, "Errors during annotation processing");
+		boolean completed = false;
+		try {
+			boolean noErrors = true;
+			
+			if(parallelism > 1) {
+				noErrors = processParallel(roundEnv);
+			}
+			else {
+				AnnotatedElementIndex index = null;
+				if(singlePassDispatch) {
+					index = AnnotatedElementIndex.build(roundEnv.getRootElements());
+				}
+				for(int i = 0; i < modules.length; i++) {
+					if(isRoundErrorBudgetExhausted()) {
+						reportSkippedModules(modules.length - i);
+						break;
+					}
+					SingleAnnotationProcessorModule<?> module = modules[i];
+					Set<? extends Element> annotatedElements = getAnnotatedElements(module, roundEnv, index);
+					if(skipOrTrack(i, module, annotatedElements, trackingFiler)) {
+						continue;
+					}
+					if(originCheckingFiler != null) {
+						originCheckingFiler.setModule(module);
+					}
+					if(bufferedMessager != null) {
+						bufferedMessager.startModule();
+					}
+					MetricsRecorder recorder = startRecording(module, countingMessager);
+					try {
+						noErrors = noErrors & dispatchModule(module,
+								new ModuleRoundEnvironment(roundEnv, module.getAnnotationType(), annotatedElements));
+					}
+					finally {
+						fireModuleDispatched(stopRecording(recorder));
+						if(trackingFiler != null) {
+							trackingFiler.setTarget(null);
+						}
+						if(originCheckingFiler != null) {
+							originCheckingFiler.setModule(null);
+						}
+					}
+				}
+			}
+			
+			if(!noErrors) {
+				utils.getMessager().printMessage(Kind.ERROR, "Errors during annotation processing");
+				errorsRaised = true;
+			}
+			completed = true;
+		}
+		finally {
+			finishRound(roundEnv, completed);
 		}
 		
 		return true;
 	}
 	
+	/**
+	 * Completes a round by flushing buffered and exported diagnostics and notifying the metrics
+	 * listeners. This method is invoked even if dispatching the modules failed with an exception,
+	 * so that no diagnostics are lost.
+	 * 
+	 * @param roundEnv the round environment
+	 * @param completed whether all modules were dispatched without throwing an exception
+	 */
+	private void finishRound(RoundEnvironment roundEnv, boolean completed) {
+		if(!completed) {
+			errorsRaised = true;
+		}
+		if(bufferedMessager != null) {
+			bufferedMessager.flush();
+		}
+		if(diagnosticExporter != null) {
+			finishDiagnosticExport(roundEnv.processingOver());
+		}
+		
+		for(ProcessingMetricsListener listener : metricsListeners) {
+			listener.roundCompleted(round);
+		}
+		
+		if(roundEnv.processingOver()) {
+			for(ProcessingMetricsListener listener : metricsListeners) {
+				listener.processingOver();
+			}
+			if(incrementalState != null) {
+				saveIncrementalState(errorsRaised || roundEnv.errorRaised());
+			}
+			if(pool != null) {
+				pool.shutdown();
+				pool = null;
+			}
+		}
+	}
 	
 	/**
-	 * Dispatch the processing of a {@link SingleAnnotationProcessorModule} during a round of
-	 * annotation processing.
+	 * Dispatches all modules in waves, running the concurrent phases of the modules of each
+	 * wave in parallel.
 	 * 
-	 * @param module the module to dispatch
 	 * @param roundEnv the environment for the respective round of annotation processing
 	 * @return <tt>true</tt> if all annotations were processed without error, <tt>false</tt>
 	 * otherwise.
 	 */
-	protected <A extends Annotation> boolean dispatchModule(SingleAnnotationProcessorModule<A> module,
-			RoundEnvironment roundEnv) {
-		assert utils != null;
+	private boolean processParallel(RoundEnvironment roundEnv) {
+		if(moduleLevels == null) {
+			moduleLevels = computeModuleLevels();
+		}
 		
-		Class<A> annotationType = module.getAnnotationType();
-		Set<? extends Element> annotatedElements = roundEnv.getElementsAnnotatedWith(annotationType);
+		AnnotatedElementIndex index = null;
+		if(singlePassDispatch) {
+			index = AnnotatedElementIndex.build(roundEnv.getRootElements());
+		}
 		
-		if(annotatedElements.isEmpty()) {
-			return true;
+		List<List<Integer>> waves = new ArrayList<>();
+		for(int i = 0; i < modules.length; i++) {
+			int level = moduleLevels[i];
+			while(waves.size() <= level) {
+				waves.add(new ArrayList<Integer>());
+			}
+			waves.get(level).add(i);
 		}
 		
-		boolean noError = true;
+		if(pool == null) {
+			pool = new ForkJoinPool(parallelism);
+		}
+		
+		boolean noErrors = true;
+		int numDispatched = 0;
+		boolean budgetExhausted = false;
+		for(List<Integer> wave : waves) {
+			List<ModuleDispatch<?>> dispatches = new ArrayList<>(wave.size());
+			for(int i : wave) {
+				if(isRoundErrorBudgetExhausted()) {
+					reportSkippedModules(modules.length - numDispatched);
+					budgetExhausted = true;
+					break;
+				}
+				numDispatched++;
+				SingleAnnotationProcessorModule<?> module = modules[i];
+				Set<? extends Element> annotatedElements = getAnnotatedElements(module, roundEnv, index);
+				if(skipOrTrack(i, module, annotatedElements, trackingFiler)) {
+					continue;
+				}
+				ModuleDispatch<?> dispatch = createDispatch(module, annotatedElements);
+				if(trackingFiler != null) {
+					dispatch.outputs = trackingFiler.getTarget();
+				}
+				if(bufferedMessager != null) {
+					bufferedMessager.startModule();
+				}
+				dispatch.enter();
+				try {
+					dispatch.begin();
+				}
+				finally {
+					dispatch.leave();
+				}
+				dispatches.add(dispatch);
+			}
+			
+			List<Callable<Void>> tasks = new ArrayList<>(dispatches.size());
+			for(ModuleDispatch<?> dispatch : dispatches) {
+				if(dispatch.hasConcurrentPhase()) {
+					tasks.add(dispatch.new ConcurrentPhaseTask());
+				}
+			}
+			try {
+				for(Future<Void> result : pool.invokeAll(tasks)) {
+					getResult(result);
+				}
+			}
+			catch(InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted during parallel module dispatch", ex);
+			}
+			
+			for(ModuleDispatch<?> dispatch : dispatches) {
+				dispatch.enter();
+				try {
+					dispatch.deferredMessager.replay(utils.getMessager());
+					noErrors = noErrors & dispatch.finish();
+				}
+				finally {
+					dispatch.leave();
+					if(dispatch.recorder != null) {
+						fireModuleDispatched(dispatch.recorder.finish());
+					}
+				}
+			}
+			
+			if(budgetExhausted) {
+				break;
+			}
+		}
 		
+		return noErrors;
+	}
+	
+	private <A extends Annotation> ModuleDispatch<A> createDispatch(SingleAnnotationProcessorModule<A> module,
+			Set<? extends Element> annotatedElements) {
+		MetricsRecorder recorder = null;
+		if(!metricsListeners.isEmpty()) {
+			recorder = new MetricsRecorder(module, round, countingMessager);
+			recorder.suspend();
+		}
+		return new ModuleDispatch<>(module, annotatedElements, utils, recorder);
+	}
+	
+	private boolean isRoundErrorBudgetExhausted() {
+		return (maxErrorsPerRound > 0 && roundErrors.get() >= maxErrorsPerRound);
+	}
+	
+	private boolean isErrorBudgetExhausted(int moduleErrors) {
+		return (maxErrorsPerModule > 0 && moduleErrors >= maxErrorsPerModule)
+				|| isRoundErrorBudgetExhausted();
+	}
+	
+	private void reportSkippedModules(int numSkipped) {
+		utils.getMessager().printMessage(Kind.NOTE, "Error budget of " + maxErrorsPerRound
+				+ " errors per round exhausted, not dispatching " + numSkipped + " remaining module(s)");
+	}
+	
+	private static Set<? extends Element> getAnnotatedElements(SingleAnnotationProcessorModule<?> module,
+			RoundEnvironment roundEnv, AnnotatedElementIndex index) {
+		if(index != null) {
+			return index.getElementsAnnotatedWith(module.getAnnotationType());
+		}
+		return roundEnv.getElementsAnnotatedWith(module.getAnnotationType());
+	}
+	
+	/**
+	 * In incremental mode, checks whether a module can be skipped because its inputs are unchanged.
+	 * If not, the files generated by the module are tracked via the given filer.
+	 * 
+	 * @param moduleIdx the index of the module
+	 * @param module the module
+	 * @param annotatedElements the elements annotated with the module's annotation type
+	 * @param filer the filer for tracking generated files, may be {@code null}
+	 * @return {@code true} if the module can be skipped, {@code false} otherwise
+	 */
+	private boolean skipOrTrack(int moduleIdx, SingleAnnotationProcessorModule<?> module,
+			Set<? extends Element> annotatedElements, TrackingFiler filer) {
+		if(incrementalState == null || !(module instanceof IncrementalProcessorModule)) {
+			return false;
+		}
+		String key = moduleIdx + ":" + module.getClass().getName() + "@" + round;
+		String version = String.valueOf(((IncrementalProcessorModule<?>)module).getVersion());
+		long fingerprint = incrementalState.fingerprint(module.getAnnotationType().getName(), annotatedElements);
+		if(incrementalState.checkUpToDate(key, version, fingerprint, processingEnv.getFiler())) {
+			return true;
+		}
+		List<IncrementalState.Output> outputs = incrementalState.record(key, version, fingerprint);
+		if(filer != null) {
+			filer.setTarget(outputs);
+		}
+		return false;
+	}
+	
+	private void finishDiagnosticExport(boolean processingOver) {
+		try {
+			if(processingOver) {
+				diagnosticExporter.close();
+				diagnosticExporter = null;
+			}
+			else {
+				diagnosticExporter.flush();
+			}
+		}
+		catch(IOException ex) {
+			processingEnv.getMessager().printMessage(Kind.WARNING, "Could not export diagnostics: "
+					+ ex.getMessage());
+		}
+	}
+	
+	private void saveIncrementalState(boolean errors) {
+		if(errors) {
+			incrementalState.invalidate();
+		}
 		try {
-			module.pre(utils);
+			incrementalState.save(processingEnv.getFiler());
+		}
+		catch(IOException ex) {
+			processingEnv.getMessager().printMessage(Kind.WARNING, "Could not save incremental processing state: "
+					+ ex.getMessage());
+		}
+	}
+	
+	private static void getResult(Future<?> result) throws InterruptedException {
+		try {
+			result.get();
+		}
+		catch(ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	/**
+	 * Computes the level of each module in the dependency graph, i.e., the length of the
+	 * longest dependency chain ending in this module. Modules of the same level can be dispatched
+	 * in parallel.
+	 * 
+	 * @return an array containing the level of each module
+	 */
+	private int[] computeModuleLevels() {
+		int numModules = modules.length;
+		List<List<Integer>> dependencies = new ArrayList<>(numModules);
+		
+		int lastBarrier = -1;
+		for(int i = 0; i < numModules; i++) {
+			SingleAnnotationProcessorModule<?> module = modules[i];
+			List<Integer> deps = new ArrayList<>();
+			if(module instanceof ConcurrentProcessorModule) {
+				ConcurrentProcessorModule<?> cm = (ConcurrentProcessorModule<?>)module;
+				for(SingleAnnotationProcessorModule<?> dep : cm.getDependencies()) {
+					int depIdx = indexOf(dep);
+					if(depIdx < 0) {
+						throw new IllegalStateException("Module " + module.getClass().getName()
+								+ " depends on unregistered module " + dep.getClass().getName());
+					}
+					deps.add(depIdx);
+				}
+				if(lastBarrier >= 0) {
+					deps.add(lastBarrier);
+				}
+			}
+			else {
+				for(int j = 0; j < i; j++) {
+					deps.add(j);
+				}
+				lastBarrier = i;
+			}
+			dependencies.add(deps);
+		}
+		
+		int[] levels = new int[numModules];
+		byte[] state = new byte[numModules];
+		for(int i = 0; i < numModules; i++) {
+			computeModuleLevel(i, dependencies, levels, state);
+		}
+		return levels;
+	}
+	
+	private void computeModuleLevel(int idx, List<List<Integer>> dependencies, int[] levels, byte[] state) {
+		if(state[idx] == 2) {
+			return;
+		}
+		if(state[idx] == 1) {
+			throw new IllegalStateException("Cyclic dependency involving module "
+					+ modules[idx].getClass().getName());
+		}
+		state[idx] = 1;
+		int level = 0;
+		for(int dep : dependencies.get(idx)) {
+			computeModuleLevel(dep, dependencies, levels, state);
+			level = Math.max(level, levels[dep] + 1);
+		}
+		levels[idx] = level;
+		state[idx] = 2;
+	}
+	
+	private int indexOf(SingleAnnotationProcessorModule<?> module) {
+		for(int i = 0; i < modules.length; i++) {
+			if(modules[i] == module) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private MetricsRecorder startRecording(SingleAnnotationProcessorModule<?> module, CountingMessager messager) {
+		if(metricsListeners.isEmpty()) {
+			return null;
+		}
+		MetricsRecorder recorder = new MetricsRecorder(module, round, messager);
+		activeRecorder.set(recorder);
+		return recorder;
+	}
+	
+	private ModuleMetrics stopRecording(MetricsRecorder recorder) {
+		if(recorder == null) {
+			return null;
+		}
+		activeRecorder.remove();
+		return recorder.finish();
+	}
+	
+	private void fireModuleDispatched(ModuleMetrics metrics) {
+		if(metrics == null) {
+			return;
+		}
+		for(ProcessingMetricsListener listener : metricsListeners) {
+			listener.moduleDispatched(metrics);
+		}
+	}
+	
+	/**
+	 * The dispatch of a single module in a round. In order to allow for running the concurrent phase of
+	 * {@link ConcurrentProcessorModule}s in parallel, dispatching is split into the phases before
+	 * ({@link #begin()}) and after ({@link #finish()}) the concurrent phase. Except for the concurrent
+	 * phase, all methods must be called on the processing thread.
+	 */
+	private final class ModuleDispatch<A extends Annotation> {
+		private final SingleAnnotationProcessorModule<A> module;
+		private final Set<? extends Element> annotatedElements;
+		private final APUtils utils;
+		private final MetricsRecorder recorder;
+		private final DeferredMessager deferredMessager = new DeferredMessager();
+		private List<IncrementalState.Output> outputs;
+		
+		private boolean noError = true;
+		private boolean inProcessPhase;
+		private boolean aborted;
+		private int moduleErrors;
+		private Exception concurrentFailure;
+		
+		public ModuleDispatch(SingleAnnotationProcessorModule<A> module, Set<? extends Element> annotatedElements,
+				APUtils utils, MetricsRecorder recorder) {
+			this.module = module;
+			this.annotatedElements = annotatedElements;
+			this.utils = utils;
+			this.recorder = recorder;
+		}
+		
+		/**
+		 * Prepares the shared filers and the metrics recorder for the (partial) dispatch of this module.
+		 */
+		public void enter() {
+			if(trackingFiler != null) {
+				trackingFiler.setTarget(outputs);
+			}
+			if(originCheckingFiler != null) {
+				originCheckingFiler.setModule(module);
+			}
+			if(recorder != null) {
+				recorder.resume();
+			}
+		}
+		
+		/**
+		 * Resets the shared filers and suspends the metrics recorder after the (partial) dispatch of this module.
+		 */
+		public void leave() {
+			if(trackingFiler != null) {
+				trackingFiler.setTarget(null);
+			}
+			if(originCheckingFiler != null) {
+				originCheckingFiler.setModule(null);
+			}
+			if(recorder != null) {
+				recorder.suspend();
+			}
+		}
+		
+		/**
+		 * Calls the <tt>pre</tt> method of the module, and its <tt>process</tt> method for each
+		 * annotated element.
+		 */
+		public void begin() {
+			if(annotatedElements.isEmpty()) {
+				aborted = true;
+				return;
+			}
+			
+			Class<A> annotationType = module.getAnnotationType();
 			
-			for(Element e : annotatedElements) {
-				AnnotationMirror annotationMirror
-					= AnnotationUtils.findAnnotationMirror(e, annotationType);
+			if(recorder != null) {
+				recorder.setElementCount(annotatedElements.size());
+				recorder.enterPhase(MetricsRecorder.Phase.PRE);
+			}
+			
+			try {
+				module.pre(utils);
+				inProcessPhase = true;
 				
-				if(annotationMirror == null) {
-					// Something is REALLY wrong 
-					throw new FatalProcessingException("Could not find annotation mirror of type " + annotationType.getCanonicalName(), e);
+				if(recorder != null) {
+					recorder.enterPhase(MetricsRecorder.Phase.PROCESS);
 				}
 				
-				A annotationObject = e.getAnnotation(annotationType);
-				if(annotationObject == null) {
-					throw new FatalProcessingException("Found annotation mirror, but could not get annotation object", e, annotationMirror);
+				int numProcessed = 0;
+				for(Element e : annotatedElements) {
+					AnnotationMirror annotationMirror
+						= utils.findAnnotationMirror(e, annotationType);
+					
+					if(annotationMirror == null) {
+						// Something is REALLY wrong 
+						throw new FatalProcessingException("Could not find annotation mirror of type " + annotationType.getCanonicalName(), e);
+					}
+					
+					A annotationObject = e.getAnnotation(annotationType);
+					if(annotationObject == null) {
+						throw new FatalProcessingException("Found annotation mirror, but could not get annotation object", e, annotationMirror);
+					}
+					
+					numProcessed++;
+					try {
+						module.process(e, annotationMirror, annotationObject, utils);
+					}
+					catch(FatalProcessingException ex) {
+						throw ex; // rethrow
+					}
+					catch(ProcessingException ex) {
+						ex.print(utils.getMessager());
+						noError = false;
+						moduleErrors++;
+						roundErrors.incrementAndGet();
+					}
+					catch(Exception ex) {
+						utils.getMessager().printMessage(Kind.ERROR, "Exception during annotation processing: "
+								+ ex.getMessage(), e, annotationMirror);
+						noError = false;
+						moduleErrors++;
+						roundErrors.incrementAndGet();
+					}
+					
+					if(!noError && isErrorBudgetExhausted(moduleErrors)) {
+						int numSkipped = annotatedElements.size() - numProcessed;
+						if(numSkipped > 0) {
+							utils.getMessager().printMessage(Kind.NOTE, "Error budget exhausted after " + moduleErrors
+									+ " error(s), skipping " + numSkipped + " remaining element(s) annotated with @"
+									+ annotationType.getSimpleName());
+						}
+						break;
+					}
+				}
+			}
+			catch(Exception ex) {
+				abort(ex);
+			}
+		}
+		
+		/**
+		 * Checks whether the module has a concurrent phase to be executed in this round. This is
+		 * the case only if all annotated elements were processed without errors, as otherwise
+		 * <tt>postFailure</tt> is called instead of <tt>post</tt>.
+		 * @return {@code true} if the concurrent phase needs to be executed, {@code false} otherwise
+		 */
+		public boolean hasConcurrentPhase() {
+			return !aborted && noError && (module instanceof ConcurrentProcessorModule);
+		}
+		
+		/**
+		 * Executes the concurrent phase of the module (if any). This is the only method that may be
+		 * called from a thread other than the processing thread.
+		 * 
+		 * @param messager the messager to pass to the module
+		 */
+		public void runConcurrentPhase(Messager messager) {
+			if(!hasConcurrentPhase()) {
+				return;
+			}
+			try {
+				((ConcurrentProcessorModule<A>)module).processConcurrently(messager);
+			}
+			catch(Exception ex) {
+				concurrentFailure = ex;
+			}
+		}
+		
+		/**
+		 * Calls the <tt>post</tt> or <tt>postFailure</tt> method of the module, unless the dispatch
+		 * was aborted before.
+		 * 
+		 * @return <tt>true</tt> if all annotations were processed without error, <tt>false</tt>
+		 * otherwise.
+		 */
+		public boolean finish() {
+			if(annotatedElements.isEmpty()) {
+				return true;
+			}
+			if(concurrentFailure != null) {
+				printException(concurrentFailure);
+				noError = false;
+				roundErrors.incrementAndGet();
+			}
+			if(!aborted) {
+				if(recorder != null) {
+					recorder.enterPhase(MetricsRecorder.Phase.POST);
 				}
 				
+				inProcessPhase = false; // do not call postFailure if post fails
 				try {
-					module.process(e, annotationMirror, annotationObject, utils);
+					if(noError) {
+						module.post(utils);
+					}
+					else {
+						module.postFailure(utils);
+					}
 				}
-				catch(FatalProcessingException ex) {
-					throw ex; // rethrow
+				catch(Exception ex) {
+					abort(ex);
 				}
-				catch(ProcessingException ex) {
-					ex.print(utils.getMessager());
-					noError = false;
+			}
+			
+			if(inProcessPhase) {
+				// processing was aborted, e.g. due to a FatalProcessingException
+				inProcessPhase = false;
+				try {
+					module.postFailure(utils);
 				}
 				catch(Exception ex) {
-					utils.getMessager().printMessage(Kind.ERROR, "Exception during annotation processing: "
-							+ ex.getMessage(), e, annotationMirror);
-					noError = false;
+					printException(ex);
 				}
 			}
 			
-			if(noError) {
-				module.post(utils);
+			return noError;
+		}
+		
+		private void abort(Exception ex) {
+			printException(ex);
+			noError = false;
+			aborted = true;
+			roundErrors.incrementAndGet();
+		}
+		
+		private void printException(Exception ex) {
+			if(ex instanceof ProcessingException) {
+				((ProcessingException)ex).print(utils.getMessager());
 			}
 			else {
-				module.postFailure(utils); // TODO: Currently not called after a FatalProcessingException
+				MultiModuleProcessor.this.printException(ex, utils);
 			}
 		}
-		catch(ProcessingException ex) {
-			ex.print(utils.getMessager());
-			noError = false;
+		
+		/**
+		 * Task for executing the concurrent phase in parallel mode.
+		 */
+		private final class ConcurrentPhaseTask implements Callable<Void> {
+			@Override
+			public Void call() {
+				long start = System.nanoTime();
+				runConcurrentPhase(deferredMessager);
+				if(recorder != null) {
+					recorder.addPhaseNanos(MetricsRecorder.Phase.PROCESS, System.nanoTime() - start);
+				}
+				return null;
+			}
 		}
-		catch(Exception ex) {
-			utils.getMessager().printMessage(Kind.ERROR, "Exception during annotation processing: "
-					+ ex.getMessage());
+	}
+	
+	
+	/**
+	 * Dispatch the processing of a {@link SingleAnnotationProcessorModule} during a round of
+	 * annotation processing.
+	 * <p>
+	 * During sequential dispatch, this method is invoked once per module and round. The round
+	 * environment passed to it answers queries for the module's annotation type with the
+	 * elements that were already determined (e.g., via {@link #setSinglePassDispatch(boolean)
+	 * single-pass dispatch}), such that these are not rescanned. During
+	 * {@link #setParallelism(int) parallel dispatch}, modules are dispatched in several phases, and
+	 * neither this method nor the other {@code dispatchModule} methods are invoked.
+	 * 
+	 * @param module the module to dispatch
+	 * @param roundEnv the environment for the respective round of annotation processing
+	 * @return <tt>true</tt> if all annotations were processed without error, <tt>false</tt>
+	 * otherwise.
+	 */
+	protected <A extends Annotation> boolean dispatchModule(SingleAnnotationProcessorModule<A> module,
+			RoundEnvironment roundEnv) {
+		Set<? extends Element> annotatedElements = roundEnv.getElementsAnnotatedWith(module.getAnnotationType());
+		return dispatchModule(module, annotatedElements);
+	}
+	
+	/**
+	 * Dispatch the processing of a {@link SingleAnnotationProcessorModule} for a given
+	 * set of annotated elements.
+	 * 
+	 * @param module the module to dispatch
+	 * @param annotatedElements the elements annotated with the module's annotation type
+	 * @return <tt>true</tt> if all annotations were processed without error, <tt>false</tt>
+	 * otherwise.
+	 */
+	protected <A extends Annotation> boolean dispatchModule(SingleAnnotationProcessorModule<A> module,
+			Set<? extends Element> annotatedElements) {
+		assert utils != null;
+		
+		return dispatchModule(module, annotatedElements, utils);
+	}
+	
+	/**
+	 * Dispatch the processing of a {@link SingleAnnotationProcessorModule} for a given
+	 * set of annotated elements, using the specified utility object.
+	 * 
+	 * @param module the module to dispatch
+	 * @param annotatedElements the elements annotated with the module's annotation type
+	 * @param utils the utility object to pass to the module
+	 * @return <tt>true</tt> if all annotations were processed without error, <tt>false</tt>
+	 * otherwise.
+	 */
+	protected <A extends Annotation> boolean dispatchModule(SingleAnnotationProcessorModule<A> module,
+			Set<? extends Element> annotatedElements, APUtils utils) {
+		ModuleDispatch<A> dispatch = new ModuleDispatch<>(module, annotatedElements, utils, activeRecorder.get());
+		dispatch.begin();
+		dispatch.runConcurrentPhase(utils.getMessager());
+		return dispatch.finish();
+	}
+
+	private void printException(Exception ex, APUtils utils) {
+		utils.getMessager().printMessage(Kind.ERROR, "Exception during annotation processing: " + ex);
+		if(printStackTraces) {
 			StringWriter sw = new StringWriter();
 			ex.printStackTrace(new PrintWriter(sw));
-			utils.getMessager().printMessage(Kind.ERROR, "Stack trace:");
-			utils.getMessager().printMessage(Kind.ERROR, sw.toString());
-			noError = false;
+			utils.getMessager().printMessage(Kind.NOTE, "Stack trace: " + sw);
 		}
-		
-		return noError;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedOptions()
+	 */
+	@Override
+	public Set<String> getSupportedOptions() {
+		Set<String> result = new HashSet<>(super.getSupportedOptions());
+		result.add(METRICS_OPTION);
+		result.add(METRICS_FILE_OPTION);
+		result.add(INCREMENTAL_OPTION);
+		result.add(BUFFER_DIAGNOSTICS_OPTION);
+		result.add(MAX_DIAGNOSTICS_PER_ELEMENT_OPTION);
+		result.add(MAX_DIAGNOSTICS_PER_MODULE_OPTION);
+		result.add(RootReporter.MIN_KIND_OPTION);
+		result.add(DIAGNOSTICS_EXPORT_OPTION);
+		result.add(MAX_ERRORS_PER_MODULE_OPTION);
+		result.add(MAX_ERRORS_PER_ROUND_OPTION);
+		result.add(STACK_TRACES_OPTION);
+		IncrementalCategory category = getIncrementalCategory();
+		if(category.requiresOriginatingElements()) {
+			result.add(IncrementalCategory.GRADLE_OPTION_PREFIX + category.getGradleName());
+		}
+		return result;
 	}
 
 	/*
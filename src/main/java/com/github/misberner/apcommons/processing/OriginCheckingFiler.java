@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.io.IOException;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+
+/**
+ * A {@link Filer} that enforces the rules of Gradle's incremental annotation processing
+ * regarding originating elements, for the module currently being dispatched.
+ * <p>
+ * For {@link IncrementalCategory#AGGREGATING aggregating} modules, every created file must declare
+ * at least one originating element. For {@link IncrementalCategory#ISOLATING isolating} modules,
+ * all originating elements must furthermore belong to the same top-level type (or package).
+ * Violations result in an {@link IllegalStateException}.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class OriginCheckingFiler implements Filer {
+
+	private final Filer delegate;
+	private IncrementalCategory category = IncrementalCategory.NONE;
+	private String moduleName;
+
+	/**
+	 * Constructor. No checks are performed until a module is set (see
+	 * {@link #setModule(SingleAnnotationProcessorModule)}).
+	 *
+	 * @param delegate the actual filer
+	 */
+	public OriginCheckingFiler(Filer delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the actual filer
+	 * @param module the module whose category determines the checks
+	 */
+	public OriginCheckingFiler(Filer delegate, SingleAnnotationProcessorModule<?> module) {
+		this.delegate = delegate;
+		setModule(module);
+	}
+
+	/**
+	 * Sets the module whose category determines the checks.
+	 *
+	 * @param module the module, or {@code null} if no checks should be performed
+	 */
+	public void setModule(SingleAnnotationProcessorModule<?> module) {
+		if(module == null) {
+			this.category = IncrementalCategory.NONE;
+			this.moduleName = null;
+		}
+		else {
+			this.category = MultiModuleProcessor.getIncrementalCategory(module);
+			this.moduleName = module.getClass().getName();
+		}
+	}
+
+	private void check(CharSequence fileName, Element[] originatingElements) {
+		if(!category.requiresOriginatingElements()) {
+			return;
+		}
+		if(originatingElements == null || originatingElements.length == 0) {
+			throw new IllegalStateException("Module " + moduleName + " (" + category.getGradleName()
+					+ ") attempted to create file " + fileName + " without originating elements");
+		}
+		if(category != IncrementalCategory.ISOLATING) {
+			return;
+		}
+		Element root = getRootElement(originatingElements[0]);
+		for(int i = 1; i < originatingElements.length; i++) {
+			if(getRootElement(originatingElements[i]) != root) {
+				throw new IllegalStateException("Module " + moduleName + " (" + category.getGradleName()
+						+ ") attempted to create file " + fileName + " with originating elements from"
+						+ " several top-level types: " + root + ", " + getRootElement(originatingElements[i]));
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the top-level type enclosing an element, or the element itself if it is a
+	 * package.
+	 */
+	private static Element getRootElement(Element elem) {
+		Element curr = elem;
+		while(!(curr instanceof PackageElement)) {
+			Element enclosing = curr.getEnclosingElement();
+			if(enclosing == null || enclosing instanceof PackageElement) {
+				break;
+			}
+			curr = enclosing;
+		}
+		return curr;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#createSourceFile(java.lang.CharSequence, javax.lang.model.element.Element[])
+	 */
+	@Override
+	public JavaFileObject createSourceFile(CharSequence name,
+			Element... originatingElements) throws IOException {
+		check(name, originatingElements);
+		return delegate.createSourceFile(name, originatingElements);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#createClassFile(java.lang.CharSequence, javax.lang.model.element.Element[])
+	 */
+	@Override
+	public JavaFileObject createClassFile(CharSequence name,
+			Element... originatingElements) throws IOException {
+		check(name, originatingElements);
+		return delegate.createClassFile(name, originatingElements);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#createResource(javax.tools.JavaFileManager.Location, java.lang.CharSequence, java.lang.CharSequence, javax.lang.model.element.Element[])
+	 */
+	@Override
+	public FileObject createResource(Location location, CharSequence pkg,
+			CharSequence relativeName, Element... originatingElements)
+			throws IOException {
+		check(relativeName, originatingElements);
+		return delegate.createResource(location, pkg, relativeName, originatingElements);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#getResource(javax.tools.JavaFileManager.Location, java.lang.CharSequence, java.lang.CharSequence)
+	 */
+	@Override
+	public FileObject getResource(Location location, CharSequence pkg,
+			CharSequence relativeName) throws IOException {
+		return delegate.getResource(location, pkg, relativeName);
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+/**
+ * Listener for metrics collected by a {@link MultiModuleProcessor}.
+ * <p>
+ * All methods are invoked from the thread that runs the annotation processor, even if modules
+ * are dispatched in parallel.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ * @see MultiModuleProcessor#addMetricsListener(ProcessingMetricsListener)
+ */
+public interface ProcessingMetricsListener {
+
+	/**
+	 * Called after a module has been dispatched.
+	 *
+	 * @param metrics the metrics of the module for the current round
+	 */
+	public void moduleDispatched(ModuleMetrics metrics);
+
+	/**
+	 * Called after all modules have been dispatched in a round.
+	 *
+	 * @param round the (1-based) number of the round
+	 */
+	public void roundCompleted(int round);
+
+	/**
+	 * Called after the last round of annotation processing.
+	 */
+	public void processingOver();
+}
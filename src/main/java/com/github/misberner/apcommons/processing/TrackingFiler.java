@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.processing;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * A {@link Filer} that records all created files, along with their originating elements,
+ * for incremental processing.
+ * <p>
+ * Files are recorded into the current target list (see {@link #setTarget(List)}), which usually
+ * belongs to the module currently being dispatched. If there is no target, files are not recorded.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class TrackingFiler implements Filer {
+
+	private final Filer delegate;
+	private List<IncrementalState.Output> target;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the actual filer
+	 */
+	public TrackingFiler(Filer delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the actual filer
+	 * @param target the list to record created files into
+	 */
+	public TrackingFiler(Filer delegate, List<IncrementalState.Output> target) {
+		this.delegate = delegate;
+		this.target = target;
+	}
+
+	/**
+	 * Sets the list to record created files into.
+	 *
+	 * @param target the list to record created files into, or {@code null} if created files
+	 * should not be recorded
+	 */
+	public void setTarget(List<IncrementalState.Output> target) {
+		this.target = target;
+	}
+
+	/**
+	 * Retrieves the list created files are currently recorded into.
+	 *
+	 * @return the current target list, or {@code null} if created files are not recorded
+	 */
+	public List<IncrementalState.Output> getTarget() {
+		return target;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#createSourceFile(java.lang.CharSequence, javax.lang.model.element.Element[])
+	 */
+	@Override
+	public JavaFileObject createSourceFile(CharSequence name,
+			Element... originatingElements) throws IOException {
+		JavaFileObject result = delegate.createSourceFile(name, originatingElements);
+		if(target != null) {
+			target.add(IncrementalState.Output.forType(StandardLocation.SOURCE_OUTPUT, name, ".java",
+					originatingElements));
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#createClassFile(java.lang.CharSequence, javax.lang.model.element.Element[])
+	 */
+	@Override
+	public JavaFileObject createClassFile(CharSequence name,
+			Element... originatingElements) throws IOException {
+		JavaFileObject result = delegate.createClassFile(name, originatingElements);
+		if(target != null) {
+			target.add(IncrementalState.Output.forType(StandardLocation.CLASS_OUTPUT, name, ".class",
+					originatingElements));
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#createResource(javax.tools.JavaFileManager.Location, java.lang.CharSequence, java.lang.CharSequence, javax.lang.model.element.Element[])
+	 */
+	@Override
+	public FileObject createResource(Location location, CharSequence pkg,
+			CharSequence relativeName, Element... originatingElements)
+			throws IOException {
+		FileObject result = delegate.createResource(location, pkg, relativeName, originatingElements);
+		if(target != null) {
+			target.add(IncrementalState.Output.forResource(location, pkg, relativeName, originatingElements));
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Filer#getResource(javax.tools.JavaFileManager.Location, java.lang.CharSequence, java.lang.CharSequence)
+	 */
+	@Override
+	public FileObject getResource(Location location, CharSequence pkg,
+			CharSequence relativeName) throws IOException {
+		return delegate.getResource(location, pkg, relativeName);
+	}
+}
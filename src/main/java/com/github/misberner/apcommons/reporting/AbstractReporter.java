@@ -17,7 +17,72 @@ package com.github.misberner.apcommons.reporting;
 
 import javax.tools.Diagnostic.Kind;
 
-public abstract class AbstractReporter implements Reporter {
+/**
+ * Abstract base class for {@link TemplateReporter} implementations. Subclasses only need to implement
+ * {@link #printMessage(Kind, CharSequence)}.
+ * <p>
+ * Messages of a diagnostic kind less severe than the minimum kind specified upon construction
+ * are discarded, at the cost of a single comparison.
+ * 
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public abstract class AbstractReporter implements TemplateReporter {
+	
+	private final int minSeverity;
+	
+	/**
+	 * Constructor. Messages of all kinds are reported.
+	 */
+	public AbstractReporter() {
+		this(Kind.OTHER);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param minKind the least severe diagnostic kind to report. Severity decreases from
+	 * {@link Kind#ERROR} over {@link Kind#WARNING} and {@link Kind#MANDATORY_WARNING}
+	 * (which are of equal severity) and {@link Kind#NOTE} to {@link Kind#OTHER}.
+	 */
+	public AbstractReporter(Kind minKind) {
+		this.minSeverity = severity(minKind);
+	}
+	
+	/**
+	 * Constructor for derived reporters, which report the same diagnostic kinds as
+	 * their parent.
+	 * 
+	 * @param parent the parent reporter
+	 */
+	protected AbstractReporter(AbstractReporter parent) {
+		this.minSeverity = parent.minSeverity;
+	}
+	
+	/**
+	 * Retrieves the severity of a diagnostic kind.
+	 */
+	private static int severity(Kind kind) {
+		switch(kind) {
+		case ERROR:
+			return 3;
+		case WARNING:
+		case MANDATORY_WARNING:
+			return 2;
+		case NOTE:
+			return 1;
+		default:
+			return 0;
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.TemplateReporter#isEnabled(javax.tools.Diagnostic.Kind)
+	 */
+	@Override
+	public boolean isEnabled(Kind diagnosticKind) {
+		return severity(diagnosticKind) >= minSeverity;
+	}
 
 	/*
 	 * (non-Javadoc)
@@ -64,12 +129,76 @@ public abstract class AbstractReporter implements Reporter {
 		message(Kind.OTHER, msgObjects);
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.Reporter#message(javax.tools.Diagnostic.Kind, java.lang.Object[])
+	 */
 	@Override
 	public void message(Kind diagnosticKind, Object... msgObjects) {
+		if(!isEnabled(diagnosticKind)) {
+			return;
+		}
 		CharSequence msg = assembleMessage(msgObjects);
 		printMessage(diagnosticKind, msg);
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.TemplateReporter#errorf(java.lang.String, java.lang.Object[])
+	 */
+	@Override
+	public void errorf(String template, Object... args) {
+		messagef(Kind.ERROR, template, args);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.TemplateReporter#warningf(java.lang.String, java.lang.Object[])
+	 */
+	@Override
+	public void warningf(String template, Object... args) {
+		messagef(Kind.WARNING, template, args);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.TemplateReporter#mandatoryWarningf(java.lang.String, java.lang.Object[])
+	 */
+	@Override
+	public void mandatoryWarningf(String template, Object... args) {
+		messagef(Kind.MANDATORY_WARNING, template, args);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.TemplateReporter#notef(java.lang.String, java.lang.Object[])
+	 */
+	@Override
+	public void notef(String template, Object... args) {
+		messagef(Kind.NOTE, template, args);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.TemplateReporter#otherf(java.lang.String, java.lang.Object[])
+	 */
+	@Override
+	public void otherf(String template, Object... args) {
+		messagef(Kind.OTHER, template, args);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.github.misberner.apcommons.reporting.TemplateReporter#messagef(javax.tools.Diagnostic.Kind, java.lang.String, java.lang.Object[])
+	 */
+	@Override
+	public void messagef(Kind diagnosticKind, String template, Object... args) {
+		if(!isEnabled(diagnosticKind)) {
+			return;
+		}
+		printMessage(diagnosticKind, new LazyMessage(template, args));
+	}
+	
 	/**
 	 * Concatenates the string representations of the given objects.
 	 * 
@@ -23,11 +23,15 @@ import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.tools.Diagnostic.Kind;
 
-import com.github.misberner.apcommons.util.annotations.AnnotationUtils;
+import com.github.misberner.apcommons.util.annotations.AnnotationMirrorCache;
 
 /**
  * Reporter that by default prints messages associated with a certain annotation
  * of a certain element.
+ * <p>
+ * If the annotation is specified by its name or class, the respective annotation mirror is only
+ * looked up when a message is printed (or when it is explicitly requested via {@link #getAnnotation()}).
+ * Subclasses must therefore always access the annotation via {@link #getAnnotation()}.
  * 
  * @author Malte Isberner <malte.isberner@gmail.com>
  *
@@ -35,7 +39,8 @@ import com.github.misberner.apcommons.util.annotations.AnnotationUtils;
 public class AnnotationReporter extends ElementReporter {
 	
 
-	protected AnnotationMirror annotation;
+	private AnnotationMirror annotation;
+	private CharSequence annotationName;
 	
 	/**
 	 * Constructor.
@@ -45,20 +50,77 @@ public class AnnotationReporter extends ElementReporter {
 	 */
 	public AnnotationReporter(ProcessingEnvironment processingEnv,
 			Element element, AnnotationMirror annotation) {
-		super(processingEnv, element);
+		this(processingEnv, null, element, annotation);
+	}
+	
+	/**
+	 * Constructor.
+	 * @param processingEnv the processing environment
+	 * @param mirrorCache the cache to use for looking up annotation mirrors by name,
+	 * or {@code null}
+	 * @param element the element to which messages refer
+	 * @param annotation the annotation to which messages refer
+	 */
+	public AnnotationReporter(ProcessingEnvironment processingEnv, AnnotationMirrorCache mirrorCache,
+			Element element, AnnotationMirror annotation) {
+		super(processingEnv, mirrorCache, element);
 		this.annotation = annotation;
 	}
 	
 	public AnnotationReporter(ProcessingEnvironment processingEnv,
 			Element element, CharSequence annotationName) {
 		super(processingEnv, element);
-		this.annotation = AnnotationUtils.findAnnotationMirror(element, annotationName);
+		this.annotationName = annotationName;
 	}
 	
 	public AnnotationReporter(ProcessingEnvironment processingEnv,
 			Element element, Class<? extends Annotation> annotationClazz) {
-		super(processingEnv, element);
-		this.annotation = AnnotationUtils.findAnnotationMirror(element, annotationClazz);
+		this(processingEnv, element, annotationClazz.getCanonicalName());
+	}
+	
+	/**
+	 * Constructor for reporters derived from an element reporter.
+	 * @param parent the parent reporter
+	 * @param annotation the annotation to which messages refer
+	 */
+	protected AnnotationReporter(ElementReporter parent, AnnotationMirror annotation) {
+		super(parent, parent.element);
+		this.annotation = annotation;
+	}
+	
+	/**
+	 * Constructor for reporters derived from an element reporter.
+	 * @param parent the parent reporter
+	 * @param annotationName the fully qualified class name of the annotation to which
+	 * messages refer
+	 */
+	protected AnnotationReporter(ElementReporter parent, CharSequence annotationName) {
+		super(parent, parent.element);
+		this.annotationName = annotationName;
+	}
+	
+	/**
+	 * Constructor for reporters derived from an annotation reporter, referring to the same
+	 * annotation.
+	 * @param parent the parent reporter
+	 */
+	protected AnnotationReporter(AnnotationReporter parent) {
+		super(parent, parent.element);
+		this.annotation = parent.annotation;
+		this.annotationName = parent.annotationName;
+	}
+	
+	/**
+	 * Retrieves the annotation to which messages refer, looking it up if necessary.
+	 * @return the annotation mirror, or {@code null} if the element is not annotated
+	 * with the respective annotation
+	 */
+	public AnnotationMirror getAnnotation() {
+		if(annotationName != null) {
+			annotation = findAnnotationMirror(element, annotationName);
+			annotationName = null;
+		}
+		return annotation;
 	}
 	
 	
@@ -68,18 +130,18 @@ public class AnnotationReporter extends ElementReporter {
 	 */
 	@Override
 	protected void printMessage(Kind kind, CharSequence message) {
-		processingEnv.getMessager().printMessage(kind, message, element, annotation);
+		processingEnv.getMessager().printMessage(kind, message, element, getAnnotation());
 	}
 	
 	/**
 	 * Retrieves a reporter which prints messages corresponding to a certain value
-	 * of the annotation.
+	 * of the annotation. The annotation value is only looked up once a message is printed.
 	 * 
 	 * @param valueName the name of the annotation value
 	 * @return the corresponding reporter
 	 */
 	public ValueReporter forValue(CharSequence valueName) {
-		return new ValueReporter(processingEnv, element, annotation, valueName);
+		return new ValueReporter(this, valueName);
 	}
 	
 	/**
@@ -90,7 +152,7 @@ public class AnnotationReporter extends ElementReporter {
 	 * @return the corresponding reporter
 	 */
 	public ValueReporter forValue(AnnotationValue value) {
-		return new ValueReporter(processingEnv, element, annotation, value);
+		return new ValueReporter(this, value);
 	}
 	
 }
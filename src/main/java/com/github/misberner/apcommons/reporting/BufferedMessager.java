@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.reporting;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * A {@link Messager} that buffers diagnostics, and forwards them to another messager in a single
+ * batch upon {@link #flush()} (usually at the end of a round of annotation processing).
+ * <p>
+ * Identical diagnostics, i.e., diagnostics with the same kind, message and position (element,
+ * annotation and annotation value), are reported only once. Messages built from a template
+ * (see {@link TemplateReporter}) are compared by their template and arguments, such that they
+ * are not formatted before being flushed. Furthermore, the number of diagnostics
+ * reported per element and per module (see {@link #startModule()}) can be limited. Diagnostics
+ * exceeding these limits are counted, but not reported; however, the first error of each round is
+ * always reported, such that suppressing diagnostics never hides a failure. If any diagnostics were suppressed, a
+ * summary note is printed upon flushing.
+ * <p>
+ * As all {@link Reporter}s print via the {@link Messager} of their processing environment, they
+ * are buffered by using a processing environment with a buffered messager, such as the one
+ * passed to modules by a {@link com.github.misberner.apcommons.processing.MultiModuleProcessor
+ * MultiModuleProcessor} with buffered diagnostics enabled.
+ * <p>
+ * No objects are allocated until the first diagnostic is printed. This class is not thread-safe.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class BufferedMessager implements Messager {
+
+	private static final class Diagnostic {
+		private final Kind kind;
+		private final CharSequence msg;
+		private final Element element;
+		private final AnnotationMirror annotation;
+		private final AnnotationValue value;
+		private final int hash;
+
+		public Diagnostic(Kind kind, CharSequence msg, Element element,
+				AnnotationMirror annotation, AnnotationValue value) {
+			this.kind = kind;
+			this.msg = msg;
+			this.element = element;
+			this.annotation = annotation;
+			this.value = value;
+			int h = kind.hashCode();
+			h = 31 * h + msg.hashCode();
+			h = 31 * h + System.identityHashCode(element);
+			h = 31 * h + System.identityHashCode(annotation);
+			h = 31 * h + System.identityHashCode(value);
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(obj == this) {
+				return true;
+			}
+			if(!(obj instanceof Diagnostic)) {
+				return false;
+			}
+			Diagnostic other = (Diagnostic)obj;
+			return hash == other.hash
+					&& kind == other.kind
+					&& element == other.element
+					&& annotation == other.annotation
+					&& value == other.value
+					&& msg.equals(other.msg);
+		}
+	}
+
+	private final Messager delegate;
+	private final int maxPerElement;
+	private final int maxPerModule;
+
+	private final int[] counts = new int[Kind.values().length];
+	private int duplicateCount;
+	private int suppressedCount;
+
+	// lazily allocated per-round state
+	private Set<Diagnostic> buffer;
+	private Map<Element,int[]> elementCounts;
+	private int moduleCount;
+	private boolean errorBuffered;
+
+	/**
+	 * Constructor. No limits are imposed on the number of diagnostics per element or module.
+	 *
+	 * @param delegate the messager to forward diagnostics to
+	 */
+	public BufferedMessager(Messager delegate) {
+		this(delegate, 0, 0);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the messager to forward diagnostics to
+	 * @param maxPerElement the maximum number of diagnostics reported per element in each round,
+	 * or a value of {@code 0} or less for no limit
+	 * @param maxPerModule the maximum number of diagnostics reported per module in each round,
+	 * or a value of {@code 0} or less for no limit
+	 */
+	public BufferedMessager(Messager delegate, int maxPerElement, int maxPerModule) {
+		this.delegate = delegate;
+		this.maxPerElement = maxPerElement;
+		this.maxPerModule = maxPerModule;
+	}
+
+	/**
+	 * Signals that subsequent diagnostics belong to a new module, resetting the per-module
+	 * count.
+	 */
+	public void startModule() {
+		moduleCount = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg) {
+		printMessage(kind, msg, null, null, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence, javax.lang.model.element.Element)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e) {
+		printMessage(kind, msg, e, null, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence, javax.lang.model.element.Element, javax.lang.model.element.AnnotationMirror)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a) {
+		printMessage(kind, msg, e, a, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence, javax.lang.model.element.Element, javax.lang.model.element.AnnotationMirror, javax.lang.model.element.AnnotationValue)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a, AnnotationValue v) {
+		counts[kind.ordinal()]++;
+		
+		if(buffer == null) {
+			buffer = new LinkedHashSet<>();
+		}
+		// msg might be a mutable CharSequence such as a StringBuilder. Lazy messages are
+		// immutable and compared by template and arguments, hence need not be formatted.
+		CharSequence key = (msg instanceof LazyMessage) ? msg : String.valueOf(msg);
+		Diagnostic diag = new Diagnostic(kind, key, e, a, v);
+		if(buffer.contains(diag)) {
+			duplicateCount++;
+			return;
+		}
+		
+		boolean exempt = (kind == Kind.ERROR && !errorBuffered);
+		if(maxPerModule > 0 && moduleCount >= maxPerModule && !exempt) {
+			suppressedCount++;
+			return;
+		}
+		if(maxPerElement > 0 && e != null) {
+			if(elementCounts == null) {
+				elementCounts = new IdentityHashMap<>();
+			}
+			int[] elemCount = elementCounts.get(e);
+			if(elemCount == null) {
+				elemCount = new int[1];
+				elementCounts.put(e, elemCount);
+			}
+			if(elemCount[0] >= maxPerElement && !exempt) {
+				suppressedCount++;
+				return;
+			}
+			elemCount[0]++;
+		}
+		moduleCount++;
+		if(kind == Kind.ERROR) {
+			errorBuffered = true;
+		}
+		buffer.add(diag);
+	}
+
+	/**
+	 * Forwards all buffered diagnostics to the underlying messager, in the order they were
+	 * printed, and resets the per-round state. If diagnostics were suppressed since the
+	 * last flush, a summary note is printed as well.
+	 */
+	public void flush() {
+		if(buffer == null) {
+			return;
+		}
+		int duplicates = duplicateCount;
+		int suppressed = suppressedCount;
+		for(Diagnostic d : buffer) {
+			delegate.printMessage(d.kind, d.msg, d.element, d.annotation, d.value);
+		}
+		buffer = null;
+		elementCounts = null;
+		moduleCount = 0;
+		errorBuffered = false;
+		if(duplicates > 0 || suppressed > 0) {
+			delegate.printMessage(Kind.NOTE, "Omitted " + (duplicates + suppressed) + " diagnostic(s) ("
+					+ duplicates + " duplicate(s), " + suppressed + " exceeding limits)");
+		}
+		duplicateCount = 0;
+		suppressedCount = 0;
+	}
+
+	/**
+	 * Retrieves the number of diagnostics of the given kind that were printed via this messager,
+	 * including duplicate and suppressed ones.
+	 *
+	 * @param kind the diagnostic kind
+	 * @return the number of diagnostics of the given kind
+	 */
+	public int getCount(Kind kind) {
+		return counts[kind.ordinal()];
+	}
+
+	/**
+	 * Retrieves the total number of diagnostics that were printed via this messager,
+	 * including duplicate and suppressed ones.
+	 *
+	 * @return the total number of diagnostics
+	 */
+	public int getTotalCount() {
+		int total = 0;
+		for(int c : counts) {
+			total += c;
+		}
+		return total;
+	}
+
+	/**
+	 * Retrieves the number of duplicate diagnostics omitted since the last flush.
+	 *
+	 * @return the number of omitted duplicate diagnostics
+	 */
+	public int getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	/**
+	 * Retrieves the number of diagnostics suppressed due to per-element or per-module limits
+	 * since the last flush.
+	 *
+	 * @return the number of suppressed diagnostics
+	 */
+	public int getSuppressedCount() {
+		return suppressedCount;
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.reporting;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic.Kind;
+
+import com.github.misberner.apcommons.util.ElementUtils;
+import com.github.misberner.apcommons.util.JsonUtils;
+
+/**
+ * A {@link Messager} that forwards all diagnostics to another messager, and additionally writes
+ * them in a machine-readable format (see {@link Format}) to a {@link Writer}.
+ * <p>
+ * Each diagnostic is written as soon as it is printed, along with its kind, the qualified
+ * designation of the element (see {@link ElementUtils#getQualifiedDesignation(Element)}), the
+ * annotation type and annotation value it refers to, and (if the compiler tree API is available)
+ * its source position. Diagnostics are not retained in memory.
+ * <p>
+ * The export is only complete after {@link #close()} has been called. This class is not
+ * thread-safe.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class DiagnosticExporter implements Messager, Closeable {
+
+	/**
+	 * The format of exported diagnostics.
+	 */
+	public static enum Format {
+		/**
+		 * One JSON object per line.
+		 */
+		JSON_LINES,
+		/**
+		 * A SARIF 2.1.0 log with a single run.
+		 */
+		SARIF;
+
+		/**
+		 * Determines the format for a file name, based on its extension. Files ending in
+		 * <tt>.sarif</tt> or <tt>.sarif.json</tt> are exported as {@link #SARIF}, all
+		 * others as {@link #JSON_LINES}.
+		 *
+		 * @param fileName the file name
+		 * @return the respective format
+		 */
+		public static Format forFileName(String fileName) {
+			String lower = fileName.toLowerCase(Locale.ROOT);
+			if(lower.endsWith(".sarif") || lower.endsWith(".sarif.json")) {
+				return SARIF;
+			}
+			return JSON_LINES;
+		}
+	}
+
+	private final Messager delegate;
+	private final Writer out;
+	private final Format format;
+	private final SourcePositionLocator locator;
+	private boolean first = true;
+	private IOException error;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate the messager to forward all diagnostics to
+	 * @param out the writer to export diagnostics to. Writing is not buffered, hence a buffered
+	 * writer should be used.
+	 * @param format the export format
+	 * @param processingEnv the (original) processing environment provided by the compiler, used for
+	 * determining source positions. May be {@code null}, in which case source positions are not exported.
+	 * @param toolName the tool name to export (for {@link Format#SARIF})
+	 * @throws IOException if writing the header fails
+	 */
+	public DiagnosticExporter(Messager delegate, Writer out, Format format,
+			ProcessingEnvironment processingEnv, String toolName) throws IOException {
+		this.delegate = delegate;
+		this.out = out;
+		this.format = format;
+		this.locator = (processingEnv != null) ? createLocator(processingEnv) : null;
+		if(format == Format.SARIF) {
+			out.write("{\"version\": \"2.1.0\", \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n");
+			out.write(" \"runs\": [{\"tool\": {\"driver\": {\"name\": ");
+			JsonUtils.appendJsonString(out, toolName);
+			out.write("}},\n  \"results\": [");
+		}
+	}
+
+	private static SourcePositionLocator createLocator(ProcessingEnvironment processingEnv) {
+		try {
+			return SourcePositionLocator.create(processingEnv);
+		}
+		catch(LinkageError err) {
+			return null; // compiler tree API not available
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg) {
+		printMessage(kind, msg, null, null, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence, javax.lang.model.element.Element)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e) {
+		printMessage(kind, msg, e, null, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence, javax.lang.model.element.Element, javax.lang.model.element.AnnotationMirror)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a) {
+		printMessage(kind, msg, e, a, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.Messager#printMessage(javax.tools.Diagnostic.Kind, java.lang.CharSequence, javax.lang.model.element.Element, javax.lang.model.element.AnnotationMirror, javax.lang.model.element.AnnotationValue)
+	 */
+	@Override
+	public void printMessage(Kind kind, CharSequence msg, Element e,
+			AnnotationMirror a, AnnotationValue v) {
+		// msg might be a mutable CharSequence such as a StringBuilder
+		String msgStr = String.valueOf(msg);
+		delegate.printMessage(kind, msgStr, e, a, v);
+		if(error != null) {
+			return;
+		}
+		try {
+			SourcePositionLocator.SourcePosition pos = null;
+			if(e != null && locator != null) {
+				pos = locator.locate(e, a, v);
+			}
+			if(format == Format.SARIF) {
+				writeSarif(kind, msgStr, e, a, v, pos);
+			}
+			else {
+				writeJsonLine(kind, msgStr, e, a, v, pos);
+			}
+			first = false;
+		}
+		catch(IOException ex) {
+			error = ex;
+			delegate.printMessage(Kind.WARNING, "Could not export diagnostics: " + ex.getMessage());
+		}
+	}
+
+	private void writeJsonLine(Kind kind, String msg, Element e, AnnotationMirror a,
+			AnnotationValue v, SourcePositionLocator.SourcePosition pos) throws IOException {
+		out.write("{\"kind\": \"");
+		out.write(kind.name());
+		out.write("\", \"message\": ");
+		JsonUtils.appendJsonString(out, msg);
+		writeContext(e, a, v);
+		if(pos != null) {
+			out.write(", \"file\": ");
+			JsonUtils.appendJsonString(out, pos.uri);
+			out.write(", \"line\": ");
+			out.write(Long.toString(pos.line));
+			out.write(", \"column\": ");
+			out.write(Long.toString(pos.column));
+		}
+		out.write("}\n");
+	}
+
+	private void writeSarif(Kind kind, String msg, Element e, AnnotationMirror a,
+			AnnotationValue v, SourcePositionLocator.SourcePosition pos) throws IOException {
+		out.write(first ? "\n   " : ",\n   ");
+		out.write("{\"level\": \"");
+		out.write(sarifLevel(kind));
+		out.write("\", \"message\": {\"text\": ");
+		JsonUtils.appendJsonString(out, msg);
+		out.write("}");
+		if(e != null) {
+			out.write(", \"locations\": [{");
+			if(pos != null) {
+				out.write("\"physicalLocation\": {\"artifactLocation\": {\"uri\": ");
+				JsonUtils.appendJsonString(out, pos.uri);
+				out.write("}");
+				if(pos.line > 0) {
+					out.write(", \"region\": {\"startLine\": ");
+					out.write(Long.toString(pos.line));
+					out.write(", \"startColumn\": ");
+					out.write(Long.toString(pos.column));
+					out.write("}");
+				}
+				out.write("}, ");
+			}
+			out.write("\"logicalLocations\": [{\"fullyQualifiedName\": ");
+			JsonUtils.appendJsonString(out, ElementUtils.getQualifiedDesignation(e));
+			out.write("}]}]");
+		}
+		out.write(", \"properties\": {\"kind\": \"");
+		out.write(kind.name());
+		out.write("\"");
+		writeContext(null, a, v);
+		out.write("}}");
+	}
+
+	private void writeContext(Element e, AnnotationMirror a, AnnotationValue v) throws IOException {
+		if(e != null) {
+			out.write(", \"element\": ");
+			JsonUtils.appendJsonString(out, ElementUtils.getQualifiedDesignation(e));
+			out.write(", \"elementKind\": \"");
+			out.write(e.getKind().name());
+			out.write("\"");
+		}
+		if(a != null) {
+			out.write(", \"annotation\": ");
+			JsonUtils.appendJsonString(out, a.getAnnotationType().toString());
+		}
+		if(v != null) {
+			out.write(", \"value\": ");
+			JsonUtils.appendJsonString(out, v.toString());
+		}
+	}
+
+	private static String sarifLevel(Kind kind) {
+		switch(kind) {
+		case ERROR:
+			return "error";
+		case WARNING:
+		case MANDATORY_WARNING:
+			return "warning";
+		case NOTE:
+			return "note";
+		default:
+			return "none";
+		}
+	}
+
+	/**
+	 * Flushes all diagnostics exported so far to the underlying writer.
+	 *
+	 * @throws IOException if flushing fails
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if(format == Format.SARIF && error == null) {
+				out.write("\n  ]\n }]\n}\n");
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+}
@@ -23,6 +23,8 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.tools.Diagnostic.Kind;
 
+import com.github.misberner.apcommons.util.annotations.AnnotationMirrorCache;
+
 /**
  * A {@link Reporter} that prints messages associated with a specific {@link Element}.
  * 
@@ -34,7 +36,22 @@ public class ElementReporter extends RootReporter {
 	protected final Element element;
 	
 	public ElementReporter(ProcessingEnvironment processingEnv, Element element) {
-		super(processingEnv);
+		this(processingEnv, null, element);
+	}
+	
+	public ElementReporter(ProcessingEnvironment processingEnv, AnnotationMirrorCache mirrorCache,
+			Element element) {
+		super(processingEnv, mirrorCache);
+		this.element = element;
+	}
+	
+	/**
+	 * Constructor for reporters derived from another reporter.
+	 * @param parent the parent reporter
+	 * @param element the element to which messages refer
+	 */
+	protected ElementReporter(RootReporter parent, Element element) {
+		super(parent);
 		this.element = element;
 	}
 
@@ -43,16 +60,31 @@ public class ElementReporter extends RootReporter {
 		processingEnv.getMessager().printMessage(kind, message, element);
 	}
 	
+	/**
+	 * Retrieves the element to which messages refer.
+	 * @return the element
+	 */
+	public Element getElement() {
+		return element;
+	}
+	
 	public AnnotationReporter forAnnotation(AnnotationMirror annotation) {
-		return new AnnotationReporter(processingEnv, element, annotation);
+		return new AnnotationReporter(this, annotation);
 	}
 	
+	/**
+	 * Retrieves a reporter which prints messages corresponding to the annotation with the given
+	 * name. The annotation mirror is only looked up once a message is printed.
+	 * 
+	 * @param annotationName the fully qualified class name of the annotation
+	 * @return the corresponding reporter
+	 */
 	public AnnotationReporter forAnnotation(CharSequence annotationName) {
-		return new AnnotationReporter(processingEnv, element, annotationName);
+		return new AnnotationReporter(this, annotationName);
 	}
 	
 	public AnnotationReporter forAnnotation(Class<? extends Annotation> annotationClazz) {
-		return new AnnotationReporter(processingEnv, element, annotationClazz);
+		return forAnnotation(annotationClazz.getCanonicalName());
 	}
 
 	
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.reporting;
+
+import java.util.Arrays;
+
+/**
+ * A message built from a template with <tt>{}</tt> placeholders, which is only formatted
+ * when its contents are first accessed.
+ * <p>
+ * Each occurrence of <tt>{}</tt> in the template is replaced by the string representation
+ * (see {@link String#valueOf(Object)}) of the next argument. Placeholders without a
+ * corresponding argument are retained, surplus arguments are ignored.
+ * <p>
+ * Two lazy messages are {@link #equals(Object) equal} if they have equal templates and
+ * arguments. This allows comparing messages without formatting them.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class LazyMessage implements CharSequence {
+
+	private final String template;
+	private final Object[] args;
+	private String formatted;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param template the message template
+	 * @param args the arguments to substitute for the placeholders
+	 */
+	public LazyMessage(String template, Object[] args) {
+		this.template = template;
+		this.args = args;
+	}
+
+	/**
+	 * Formats a message template.
+	 *
+	 * @param sb the string builder to append the formatted message to
+	 * @param template the message template
+	 * @param args the arguments to substitute for the placeholders
+	 * @return the string builder
+	 */
+	public static StringBuilder format(StringBuilder sb, String template, Object[] args) {
+		int start = 0;
+		int argIdx = 0;
+		int numArgs = (args == null) ? 0 : args.length;
+		while(argIdx < numArgs) {
+			int idx = template.indexOf("{}", start);
+			if(idx < 0) {
+				break;
+			}
+			sb.append(template, start, idx).append(args[argIdx++]);
+			start = idx + 2;
+		}
+		return sb.append(template, start, template.length());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		if(formatted == null) {
+			formatted = format(new StringBuilder(template.length() + 16 * args.length),
+					template, args).toString();
+		}
+		return formatted;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * template.hashCode() + Arrays.hashCode(args);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if(obj == this) {
+			return true;
+		}
+		if(!(obj instanceof LazyMessage)) {
+			return false;
+		}
+		LazyMessage other = (LazyMessage)obj;
+		return template.equals(other.template) && Arrays.equals(args, other.args);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.CharSequence#length()
+	 */
+	@Override
+	public int length() {
+		return toString().length();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.CharSequence#charAt(int)
+	 */
+	@Override
+	public char charAt(int index) {
+		return toString().charAt(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.CharSequence#subSequence(int, int)
+	 */
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().subSequence(start, end);
+	}
+}
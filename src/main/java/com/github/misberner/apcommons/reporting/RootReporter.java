@@ -15,14 +15,23 @@
  */
 package com.github.misberner.apcommons.reporting;
 
+import java.util.Locale;
+
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.tools.Diagnostic.Kind;
 
+import com.github.misberner.apcommons.util.annotations.AnnotationMirrorCache;
+import com.github.misberner.apcommons.util.annotations.AnnotationUtils;
+
 /**
  * A {@link Reporter} that prints messages using the {@link Messager}
  * of a given {@link ProcessingEnvironment}.
+ * <p>
+ * The least severe diagnostic kind to report can be configured via the processor option
+ * {@value #MIN_KIND_OPTION} (e.g., <tt>-Aapcommons.diagnostics.minKind=WARNING</tt>).
  * 
  * @author Malte Isberner <malte.isberner@gmail.com>
  *
@@ -31,7 +40,13 @@ import javax.tools.Diagnostic.Kind;
  */
 public class RootReporter extends AbstractReporter {
 	
+	/**
+	 * Processor option specifying the least severe {@link Kind diagnostic kind} to report.
+	 */
+	public static final String MIN_KIND_OPTION = "apcommons.diagnostics.minKind";
+	
 	protected final ProcessingEnvironment processingEnv;
+	protected final AnnotationMirrorCache mirrorCache;
 
 	/**
 	 * Constructor.
@@ -39,7 +54,20 @@ public class RootReporter extends AbstractReporter {
 	 * to use
 	 */
 	public RootReporter(ProcessingEnvironment processingEnv) {
+		this(processingEnv, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * @param processingEnv the processing environment whose {@link Messager}
+	 * to use
+	 * @param mirrorCache the cache to use for looking up annotation mirrors by name,
+	 * or {@code null}
+	 */
+	public RootReporter(ProcessingEnvironment processingEnv, AnnotationMirrorCache mirrorCache) {
+		super(getMinKind(processingEnv));
 		this.processingEnv = processingEnv;
+		this.mirrorCache = mirrorCache;
 	}
 
 	/*
@@ -51,12 +79,62 @@ public class RootReporter extends AbstractReporter {
 		processingEnv.getMessager().printMessage(kind, message);
 	}
 	
+	/**
+	 * Constructor for derived reporters, which share the processing environment, annotation mirror
+	 * cache and minimum diagnostic kind of their parent.
+	 * @param parent the parent reporter
+	 */
+	protected RootReporter(RootReporter parent) {
+		super(parent);
+		this.processingEnv = parent.processingEnv;
+		this.mirrorCache = parent.mirrorCache;
+	}
+	
+	/**
+	 * Determines the least severe diagnostic kind to report, as specified by the
+	 * {@value #MIN_KIND_OPTION} processor option.
+	 * 
+	 * @param processingEnv the processing environment
+	 * @return the least severe diagnostic kind to report. If the option is not specified or invalid,
+	 * this is {@link Kind#OTHER}. In the latter case, a warning is printed.
+	 */
+	public static Kind getMinKind(ProcessingEnvironment processingEnv) {
+		String kindName = processingEnv.getOptions().get(MIN_KIND_OPTION);
+		if(kindName == null) {
+			return Kind.OTHER;
+		}
+		try {
+			return Kind.valueOf(kindName.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+		}
+		catch(IllegalArgumentException ex) {
+			processingEnv.getMessager().printMessage(Kind.WARNING, "Invalid value '" + kindName
+					+ "' for option " + MIN_KIND_OPTION + ", ignoring");
+			return Kind.OTHER;
+		}
+	}
+	
 	/**
 	 * Retrieves an {@link ElementReporter} for the given element.
 	 * @param element the element for which to retrieve a reporter
 	 */
 	public ElementReporter forElement(Element element) {
-		return new ElementReporter(processingEnv, element);
+		return new ElementReporter(this, element);
+	}
+	
+	/**
+	 * Finds an annotation mirror of an element, using the annotation mirror cache
+	 * if one was specified.
+	 * 
+	 * @param element the element
+	 * @param annotationName the fully qualified class name of the annotation
+	 * @return the respective annotation mirror, or <tt>null</tt> if the element is not annotated
+	 * with the given annotation.
+	 */
+	protected AnnotationMirror findAnnotationMirror(Element element, CharSequence annotationName) {
+		if(mirrorCache != null) {
+			return mirrorCache.findAnnotationMirror(element, annotationName);
+		}
+		return AnnotationUtils.findAnnotationMirror(element, annotationName);
 	}
 
 	
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.reporting;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+
+/**
+ * Determines source positions of elements via the compiler tree API. This class is only loaded
+ * if the tree API is available; see {@link #create(ProcessingEnvironment)}.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+final class SourcePositionLocator {
+
+	/**
+	 * A position in a source file.
+	 */
+	static final class SourcePosition {
+		final String uri;
+		final long line;
+		final long column;
+
+		SourcePosition(String uri, long line, long column) {
+			this.uri = uri;
+			this.line = line;
+			this.column = column;
+		}
+	}
+
+	/**
+	 * Creates a source position locator, if possible.
+	 *
+	 * @param processingEnv the (original) processing environment provided by the compiler
+	 * @return a source position locator, or {@code null} if the compiler tree API is not
+	 * available for the given processing environment
+	 */
+	public static SourcePositionLocator create(ProcessingEnvironment processingEnv) {
+		try {
+			return new SourcePositionLocator(Trees.instance(processingEnv));
+		}
+		catch(LinkageError | IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	private final Trees trees;
+	private final SourcePositions sourcePositions;
+
+	private SourcePositionLocator(Trees trees) {
+		this.trees = trees;
+		this.sourcePositions = trees.getSourcePositions();
+	}
+
+	/**
+	 * Determines the source position of an element, or of an annotation or annotation value
+	 * of the element.
+	 *
+	 * @param e the element
+	 * @param a the annotation, may be {@code null}
+	 * @param v the annotation value, may be {@code null}
+	 * @return the source position, or {@code null} if it cannot be determined
+	 */
+	public SourcePosition locate(Element e, AnnotationMirror a, AnnotationValue v) {
+		TreePath path;
+		try {
+			path = trees.getPath(e, a, v);
+		}
+		catch(RuntimeException ex) {
+			return null;
+		}
+		if(path == null) {
+			return null;
+		}
+		CompilationUnitTree cu = path.getCompilationUnit();
+		long pos = sourcePositions.getStartPosition(cu, path.getLeaf());
+		String uri = cu.getSourceFile().toUri().toString();
+		LineMap lineMap = cu.getLineMap();
+		if(pos < 0 || lineMap == null) {
+			return new SourcePosition(uri, -1L, -1L);
+		}
+		return new SourcePosition(uri, lineMap.getLineNumber(pos), lineMap.getColumnNumber(pos));
+	}
+}
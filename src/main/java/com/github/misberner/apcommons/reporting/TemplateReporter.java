@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2013 by Malte Isberner (https://github.com/misberner).
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.reporting;
+
+import javax.tools.Diagnostic;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * A {@link Reporter} which additionally supports template-based reporting methods and allows
+ * to check whether messages of a certain diagnostic kind are reported at all.
+ * <p>
+ * <a name="message-templates">The template-based reporting methods (e.g., {@link #notef(String, Object...)}) replace each
+ * occurrence of <tt>{}</tt> in the template by the string representation of the next argument. The message is only
+ * built if it is actually printed, and not at all if the respective diagnostic kind is not {@link #isEnabled(Kind) enabled}.</a>
+ * 
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public interface TemplateReporter extends Reporter {
+	
+	/**
+	 * Prints an error message built from a template.
+	 * @param template the message template, <a href="#message-templates">see above</a>
+	 * @param args the template arguments
+	 * @see Diagnostic.Kind#ERROR
+	 */
+	public void errorf(String template, Object ...args);
+	
+	/**
+	 * Prints a warning message built from a template.
+	 * @param template the message template, <a href="#message-templates">see above</a>
+	 * @param args the template arguments
+	 * @see Diagnostic.Kind#WARNING
+	 */
+	public void warningf(String template, Object ...args);
+	
+	/**
+	 * Prints a warning message that is mandated by a specification, built from a template.
+	 * @param template the message template, <a href="#message-templates">see above</a>
+	 * @param args the template arguments
+	 * @see Diagnostic.Kind#MANDATORY_WARNING
+	 */
+	public void mandatoryWarningf(String template, Object ...args);
+	
+	/**
+	 * Prints an informational message built from a template.
+	 * @param template the message template, <a href="#message-templates">see above</a>
+	 * @param args the template arguments
+	 * @see Diagnostic.Kind#NOTE
+	 */
+	public void notef(String template, Object ...args);
+	
+	/**
+	 * Prints some other type of message, built from a template.
+	 * @param template the message template, <a href="#message-templates">see above</a>
+	 * @param args the template arguments
+	 * @see Diagnostic.Kind#OTHER
+	 */
+	public void otherf(String template, Object ...args);
+	
+	/**
+	 * Prints a message of the specified diagnostic kind, built from a template.
+	 * @param diagnosticKind the diagnostic kind of the message
+	 * @param template the message template, <a href="#message-templates">see above</a>
+	 * @param args the template arguments
+	 */
+	public void messagef(Kind diagnosticKind, String template, Object ...args);
+	
+	/**
+	 * Checks whether messages of the given diagnostic kind are reported at all. Messages of
+	 * disabled kinds are discarded without building them.
+	 * @param diagnosticKind the diagnostic kind
+	 * @return {@code true} if messages of the given kind are reported, {@code false} otherwise
+	 */
+	public boolean isEnabled(Kind diagnosticKind);
+
+}
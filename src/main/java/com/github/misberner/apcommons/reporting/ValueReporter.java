@@ -23,35 +23,87 @@ import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.tools.Diagnostic.Kind;
 
+import com.github.misberner.apcommons.util.annotations.AnnotationMirrorCache;
 import com.github.misberner.apcommons.util.annotations.AnnotationUtils;
 
+/**
+ * Reporter that by default prints messages associated with a certain value of an annotation
+ * of a certain element.
+ * <p>
+ * If the value is specified by its name, it is only looked up when a message is printed (or when
+ * it is explicitly requested via {@link #getValue()}). Subclasses must therefore always access
+ * the value via {@link #getValue()}.
+ * 
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ *
+ */
 public class ValueReporter extends AnnotationReporter {
 	
 	
-	protected AnnotationValue value;
+	private AnnotationValue value;
+	private CharSequence valueName;
 
 	public ValueReporter(ProcessingEnvironment processingEnv, Element element,
 			AnnotationMirror annotation, AnnotationValue value) {
-		super(processingEnv, element, annotation);
+		this(processingEnv, null, element, annotation, value);
+	}
+	
+	public ValueReporter(ProcessingEnvironment processingEnv, AnnotationMirrorCache mirrorCache,
+			Element element, AnnotationMirror annotation, AnnotationValue value) {
+		super(processingEnv, mirrorCache, element, annotation);
 		this.value = value;
 	}
 	
 	public ValueReporter(ProcessingEnvironment processingEnv, Element element,
 			AnnotationMirror annotation, CharSequence valueName) {
 		super(processingEnv, element, annotation);
-		this.value = AnnotationUtils.findAnnotationValue(super.annotation, valueName);
+		this.valueName = valueName;
 	}
 	
 	public ValueReporter(ProcessingEnvironment processingEnv, Element element,
 			CharSequence annotationName, CharSequence valueName) {
 		super(processingEnv, element, annotationName);
-		this.value = AnnotationUtils.findAnnotationValue(super.annotation, valueName);
+		this.valueName = valueName;
 	}
 	
 	public ValueReporter(ProcessingEnvironment processingEnv, Element element,
 			Class<? extends Annotation> annotationClazz, CharSequence valueName) {
 		super(processingEnv, element, annotationClazz);
-		this.value = AnnotationUtils.findAnnotationValue(super.annotation, valueName);
+		this.valueName = valueName;
+	}
+	
+	/**
+	 * Constructor for reporters derived from an annotation reporter.
+	 * @param parent the parent reporter
+	 * @param value the annotation value to which messages refer
+	 */
+	protected ValueReporter(AnnotationReporter parent, AnnotationValue value) {
+		super(parent);
+		this.value = value;
+	}
+	
+	/**
+	 * Constructor for reporters derived from an annotation reporter.
+	 * @param parent the parent reporter
+	 * @param valueName the name of the annotation value to which messages refer
+	 */
+	protected ValueReporter(AnnotationReporter parent, CharSequence valueName) {
+		super(parent);
+		this.valueName = valueName;
+	}
+	
+	/**
+	 * Retrieves the annotation value to which messages refer, looking it up if necessary.
+	 * @return the annotation value, or {@code null} if the annotation or the value
+	 * (explicitly set) does not exist
+	 */
+	public AnnotationValue getValue() {
+		if(valueName != null) {
+			AnnotationMirror am = getAnnotation();
+			value = (am != null) ? AnnotationUtils.findAnnotationValue(am, valueName) : null;
+			valueName = null;
+		}
+		return value;
 	}
 
 	/*
@@ -60,7 +112,7 @@ public class ValueReporter extends AnnotationReporter {
 	 */
 	@Override
 	protected void printMessage(Kind kind, CharSequence message) {
-		processingEnv.getMessager().printMessage(kind, message, element, annotation, value);
+		processingEnv.getMessager().printMessage(kind, message, element, getAnnotation(), getValue());
 	}
 
 	
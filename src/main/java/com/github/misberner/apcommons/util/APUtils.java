@@ -16,20 +16,25 @@
 package com.github.misberner.apcommons.util;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
-import javax.lang.model.type.TypeMirror;
-import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
@@ -37,15 +42,134 @@ import com.github.misberner.apcommons.reporting.AnnotationReporter;
 import com.github.misberner.apcommons.reporting.ElementReporter;
 import com.github.misberner.apcommons.reporting.RootReporter;
 import com.github.misberner.apcommons.reporting.ValueReporter;
+import com.github.misberner.apcommons.util.annotations.AnnotationMirrorCache;
+import com.github.misberner.apcommons.util.annotations.AnnotationUtils;
+import com.github.misberner.apcommons.util.annotations.AnnotationValues;
+import com.github.misberner.apcommons.util.methods.ObjectMethod;
+import com.github.misberner.apcommons.util.methods.SignatureMatcher;
+import com.github.misberner.apcommons.util.methods.SignatureMatcher.ParameterType;
+import com.github.misberner.apcommons.util.types.SupertypeClosureCache;
+import com.github.misberner.apcommons.util.types.TypeUtils;
+import com.github.misberner.apcommons.util.types.TypeUtils.TypeMatcher;
 
+/**
+ * Utility object for annotation processors, bundling the processing environment with
+ * frequently needed element, type and reporting functionality.
+ * <p>
+ * Many of the queries can be cached for the current round, but caching has to be enabled
+ * explicitly (see {@link #APUtils(ProcessingEnvironment, boolean)}). A caching object must be
+ * informed about each new round via {@link #beginRound(RoundEnvironment)}. Objects created via
+ * {@link #APUtils(ProcessingEnvironment)} do not retain any information between invocations.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
 public class APUtils {
 
 	private final ProcessingEnvironment processingEnv;
+	private final boolean caching;
+	private RoundEnvironment currentRound;
+	private final AnnotationMirrorCache annotationMirrorCache = new AnnotationMirrorCache();
+	private final Map<AnnotationMirror,AnnotationValues> annotationValuesCache = new IdentityHashMap<>();
+	private final Map<AnnotationMirror,AnnotationValues> annotationValuesWithDefaultsCache = new IdentityHashMap<>();
+	private final Map<TypeElement,MemberTable> memberTables = new IdentityHashMap<>();
+	private final Map<Class<?>,ParameterType> parameterTypesByClass = new HashMap<>();
+	private final Map<String,ParameterType> parameterTypesByName = new HashMap<>();
+	private final Map<Class<?>,TypeMatcher> typeMatchers = new HashMap<>();
+	private final Map<Class<?>,TypeMatcher> subtypeMatchers = new HashMap<>();
+	private final SupertypeClosureCache supertypeClosureCache = new SupertypeClosureCache();
+	private final VisibilityCache visibilityCache = new VisibilityCache();
+	private final AccessibilityOracle accessibilityOracle;
+	private final DerivedNameCache derivedNameCache = new DerivedNameCache();
+	private final PackageNameResolver packageNameResolver;
+	private final Map<ExecutableElement,ObjectMethod> objectMethods = new IdentityHashMap<>();
+	private Map<ObjectMethod,ExecutableElement> objectMethodElements;
 	private final RootReporter rootReporter;
+	private final Map<Element,ElementReporter> elementReporters = new IdentityHashMap<>();
 	
+	/**
+	 * Constructor. The resulting object does not cache any information, i.e., every query is
+	 * answered from scratch.
+	 * 
+	 * @param processingEnv the processing environment
+	 * @see #APUtils(ProcessingEnvironment, boolean)
+	 */
 	public APUtils(ProcessingEnvironment processingEnv) {
+		this(processingEnv, false);
+	}
+	
+	/**
+	 * Constructor. If caching is enabled, information such as annotation mirrors, member tables
+	 * or supertype closures is cached for the current round. The caller is then responsible
+	 * for announcing each round via {@link #beginRound(RoundEnvironment)} (or
+	 * {@link #invalidateCaches()}).
+	 * 
+	 * @param processingEnv the processing environment
+	 * @param caching whether or not to cache information for the current round
+	 */
+	public APUtils(ProcessingEnvironment processingEnv, boolean caching) {
 		this.processingEnv = processingEnv;
-		this.rootReporter = new RootReporter(processingEnv);
+		this.caching = caching;
+		this.rootReporter = new RootReporter(processingEnv, caching ? annotationMirrorCache : null);
+		this.accessibilityOracle = new AccessibilityOracle(processingEnv.getElementUtils(),
+				supertypeClosureCache, visibilityCache);
+		this.packageNameResolver = new PackageNameResolver(processingEnv.getElementUtils());
+	}
+	
+	/**
+	 * Checks whether this object caches information for the current round.
+	 * 
+	 * @return {@code true} if caching is enabled, {@code false} otherwise
+	 */
+	public boolean isCaching() {
+		return caching;
+	}
+	
+	/**
+	 * Announces the round of annotation processing which is about to be processed. If the given
+	 * round environment differs from the one of the previous invocation, all cached information
+	 * is {@link #invalidateCaches() invalidated}. It is therefore safe to call this method
+	 * several times per round, e.g., once per processor sharing this object.
+	 * 
+	 * @param roundEnv the environment of the current round
+	 */
+	public void beginRound(RoundEnvironment roundEnv) {
+		if(roundEnv != currentRound) {
+			invalidateCaches();
+			currentRound = roundEnv;
+		}
+	}
+	
+	/**
+	 * Invalidates all cached information maintained by this object. This method needs to be
+	 * called at the beginning of each round, unless the round is announced via
+	 * {@link #beginRound(RoundEnvironment)}.
+	 * <p>
+	 * Element objects are not guaranteed to be stable across rounds of annotation processing:
+	 * in a subsequent round, the same declaration may be represented by a different object, and
+	 * lookups may yield different results (e.g., for types or packages generated in the previous
+	 * round). Therefore, all caches of this library which compare elements by identity or
+	 * remember lookup results (such as {@link AnnotationMirrorCache}, {@link SupertypeClosureCache},
+	 * {@link VisibilityCache}, {@link AccessibilityOracle} or {@link PackageNameResolver}), as well
+	 * as matchers holding resolved elements (such as {@link SignatureMatcher} or the
+	 * element-based {@link TypeMatcher}s), are only valid within a single round. Neither these
+	 * classes nor this one are thread-safe.
+	 */
+	public void invalidateCaches() {
+		annotationMirrorCache.clear();
+		annotationValuesCache.clear();
+		annotationValuesWithDefaultsCache.clear();
+		memberTables.clear();
+		parameterTypesByClass.clear();
+		parameterTypesByName.clear();
+		typeMatchers.clear();
+		subtypeMatchers.clear();
+		supertypeClosureCache.clear();
+		visibilityCache.clear();
+		accessibilityOracle.clear();
+		packageNameResolver.clear();
+		objectMethods.clear();
+		objectMethodElements = null;
+		elementReporters.clear();
 	}
 	
 	/**
@@ -88,144 +212,441 @@ public class APUtils {
 		return processingEnv.getMessager();
 	}
 	
+	/**
+	 * Retrieves the annotation mirror cache for the current round. If this object does not
+	 * {@link #isCaching() cache}, a new, empty cache is returned on every invocation.
+	 * @return the annotation mirror cache
+	 */
+	public AnnotationMirrorCache getAnnotationMirrorCache() {
+		return caching ? annotationMirrorCache : new AnnotationMirrorCache();
+	}
+	
+	/**
+	 * Find an annotation mirror of an element, given the annotation's fully qualified class name.
+	 * Unlike {@link com.github.misberner.apcommons.util.annotations.AnnotationUtils#findAnnotationMirror(Element, CharSequence)},
+	 * this method uses the {@link #getAnnotationMirrorCache() annotation mirror cache}.
+	 * 
+	 * @param elem the element
+	 * @param annClassName the fully qualified class name of the annotation
+	 * @return the respective annotation mirror, or <tt>null</tt> if the element is not annotated
+	 * with the given annotation.
+	 */
+	public AnnotationMirror findAnnotationMirror(Element elem, CharSequence annClassName) {
+		if(!caching) {
+			return AnnotationUtils.findAnnotationMirror(elem, annClassName);
+		}
+		return annotationMirrorCache.findAnnotationMirror(elem, annClassName);
+	}
+	
+	/**
+	 * Find an annotation mirror of an element, given the annotation's {@link Class} object.
+	 * Unlike {@link com.github.misberner.apcommons.util.annotations.AnnotationUtils#findAnnotationMirror(Element, Class)},
+	 * this method uses the {@link #getAnnotationMirrorCache() annotation mirror cache}.
+	 * 
+	 * @param elem the element
+	 * @param annClass the annotation's {@link Class} object
+	 * @return the respective annotation mirror, or <tt>null</tt> if the element is not annotated
+	 * with the given annotation.
+	 */
+	public AnnotationMirror findAnnotationMirror(Element elem, Class<? extends Annotation> annClass) {
+		if(!caching) {
+			return AnnotationUtils.findAnnotationMirror(elem, annClass);
+		}
+		return annotationMirrorCache.findAnnotationMirror(elem, annClass);
+	}
+	
+	/**
+	 * Retrieves a by-name view on the explicitly set values of an annotation mirror. The view
+	 * is cached for the current round.
+	 * 
+	 * @param am the annotation mirror
+	 * @return a view on the explicitly set values of the annotation mirror
+	 */
+	public AnnotationValues getAnnotationValues(AnnotationMirror am) {
+		return getAnnotationValues(am, false);
+	}
+	
+	/**
+	 * Retrieves a by-name view on the values of an annotation mirror, optionally including
+	 * default values. The view is cached for the current round.
+	 * 
+	 * @param am the annotation mirror
+	 * @param withDefaults whether or not to include default values
+	 * @return a view on the values of the annotation mirror
+	 */
+	public AnnotationValues getAnnotationValues(AnnotationMirror am, boolean withDefaults) {
+		Map<AnnotationMirror,AnnotationValues> cache
+			= withDefaults ? annotationValuesWithDefaultsCache : annotationValuesCache;
+		AnnotationValues values = cache.get(am);
+		if(values == null) {
+			if(withDefaults) {
+				values = AnnotationValues.withDefaults(am, getElementUtils());
+			}
+			else {
+				values = AnnotationValues.of(am);
+			}
+			if(caching) {
+				cache.put(am, values);
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * Retrieves a by-name view on the values of an element's annotation, optionally including
+	 * default values. The view is cached for the current round.
+	 * 
+	 * @param elem the element
+	 * @param annClass the annotation's {@link Class} object
+	 * @param withDefaults whether or not to include default values
+	 * @return a view on the values of the annotation, or {@code null} if the element is
+	 * not annotated with the given annotation.
+	 */
+	public AnnotationValues getAnnotationValues(Element elem, Class<? extends Annotation> annClass,
+			boolean withDefaults) {
+		AnnotationMirror am = findAnnotationMirror(elem, annClass);
+		if(am == null) {
+			return null;
+		}
+		return getAnnotationValues(am, withDefaults);
+	}
+	
+	/**
+	 * Retrieves a matcher for the (exact) type represented by the given class object. Declared
+	 * types are resolved to their type elements once, and then compared by identity. The result
+	 * is cached for the current round.
+	 * 
+	 * @param clazz the class object
+	 * @return a matcher for the respective type
+	 * @see TypeUtils#getMatcher(Class, Elements)
+	 */
+	public TypeMatcher getTypeMatcher(Class<?> clazz) {
+		TypeMatcher matcher = typeMatchers.get(clazz);
+		if(matcher == null) {
+			matcher = TypeUtils.getMatcher(clazz, getElementUtils());
+			if(caching) {
+				typeMatchers.put(clazz, matcher);
+			}
+		}
+		return matcher;
+	}
+	
+	/**
+	 * Retrieves a matcher for the type represented by the given class object, or any subtype
+	 * thereof (including superinterfaces). Subtype checks are performed using the
+	 * {@link #getSupertypeClosureCache() supertype closure cache}. The result is cached for the
+	 * current round.
+	 * 
+	 * @param clazz the class object
+	 * @return a matcher for the respective type and all its subtypes
+	 */
+	public TypeMatcher getSubtypeMatcher(Class<?> clazz) {
+		return getSubtypeMatcher(clazz, false);
+	}
+	
+	/**
+	 * Retrieves a matcher for the type represented by the given class object, or any subtype
+	 * thereof (including superinterfaces). Depending on the {@code delegateToTypes} parameter,
+	 * subtype checks are either performed using the {@link #getSupertypeClosureCache() supertype
+	 * closure cache}, or delegated to {@link Types#isSubtype}.
+	 * Only the former kind of matchers is cached for the current round.
+	 * 
+	 * @param clazz the class object
+	 * @param delegateToTypes whether to delegate subtype checks to the type utilities
+	 * @return a matcher for the respective type and all its subtypes
+	 */
+	public TypeMatcher getSubtypeMatcher(Class<?> clazz, boolean delegateToTypes) {
+		if(delegateToTypes) {
+			String name = clazz.getCanonicalName();
+			TypeElement te = (name != null && !clazz.isPrimitive() && !clazz.isArray())
+					? getElementUtils().getTypeElement(name) : null;
+			if(te != null) {
+				return TypeUtils.getSubtypeMatcher(te, getTypeUtils());
+			}
+		}
+		TypeMatcher matcher = subtypeMatchers.get(clazz);
+		if(matcher == null) {
+			matcher = TypeUtils.getSubtypeMatcher(clazz, getElementUtils(), getSupertypeClosureCache());
+			if(caching) {
+				subtypeMatchers.put(clazz, matcher);
+			}
+		}
+		return matcher;
+	}
+	
+	/**
+	 * Retrieves the supertype closure cache for the current round. If this object does not
+	 * {@link #isCaching() cache}, a new, empty cache is returned on every invocation.
+	 * 
+	 * @return the supertype closure cache
+	 */
+	public SupertypeClosureCache getSupertypeClosureCache() {
+		return caching ? supertypeClosureCache : new SupertypeClosureCache();
+	}
+	
+	/**
+	 * Checks whether a type is a subtype of another type (including superinterfaces), ignoring type
+	 * arguments. Every type is considered a subtype of itself.
+	 * 
+	 * @param subtype the potential subtype
+	 * @param supertype the potential supertype
+	 * @return {@code true} if {@code subtype} is a subtype of {@code supertype}, {@code false}
+	 * otherwise
+	 * @see SupertypeClosureCache#isSubtype(TypeElement, TypeElement)
+	 */
+	public boolean isSubtype(TypeElement subtype, TypeElement supertype) {
+		return getSupertypeClosureCache().isSubtype(subtype, supertype);
+	}
+	
+	/**
+	 * Retrieves the visibility cache for the current round. If this object does not
+	 * {@link #isCaching() cache}, a new, empty cache is returned on every invocation.
+	 * 
+	 * @return the visibility cache
+	 */
+	public VisibilityCache getVisibilityCache() {
+		return caching ? visibilityCache : new VisibilityCache();
+	}
+	
+	/**
+	 * Retrieves the effective visibility of an element, taking into account the visibilities
+	 * of all enclosing elements. The result is cached for the current round.
+	 * 
+	 * @param elem the element
+	 * @return the effective visibility of the element
+	 * @see VisibilityCache#getEffectiveVisibility(Element)
+	 */
+	public Visibility getEffectiveVisibility(Element elem) {
+		return getVisibilityCache().getEffectiveVisibility(elem);
+	}
+	
+	/**
+	 * Retrieves the accessibility oracle for the current round. It shares the supertype
+	 * closure and visibility caches of this object. If this object does not
+	 * {@link #isCaching() cache}, a new oracle with empty caches is returned on every invocation.
+	 * 
+	 * @return the accessibility oracle
+	 */
+	public AccessibilityOracle getAccessibilityOracle() {
+		if(!caching) {
+			return new AccessibilityOracle(getElementUtils(), new SupertypeClosureCache(),
+					new VisibilityCache());
+		}
+		return accessibilityOracle;
+	}
+	
+	/**
+	 * Checks whether an element is accessible from code in a class in the given package,
+	 * which extends or implements a given type. The result is cached for the current round.
+	 * 
+	 * @param target the element
+	 * @param fromPackage the qualified name of the package
+	 * @param fromSubclassOf the type extended or implemented by the accessing class, or
+	 * {@code null}
+	 * @return {@code true} if the element is accessible, {@code false} otherwise
+	 * @see AccessibilityOracle#isAccessible(Element, String, TypeElement)
+	 */
+	public boolean isAccessible(Element target, String fromPackage, TypeElement fromSubclassOf) {
+		return getAccessibilityOracle().isAccessible(target, fromPackage, fromSubclassOf);
+	}
+	
+	/**
+	 * Retrieves the cache for derived names, such as getter and setter names. Since names
+	 * remain valid across rounds, this cache is not affected by {@link #invalidateCaches()}.
+	 * 
+	 * @return the derived name cache
+	 */
+	public DerivedNameCache getDerivedNameCache() {
+		return derivedNameCache;
+	}
+	
+	/**
+	 * Retrieves the package name resolver for the current round. If this object does not
+	 * {@link #isCaching() cache}, a new resolver is returned on every invocation.
+	 * 
+	 * @return the package name resolver
+	 */
+	public PackageNameResolver getPackageNameResolver() {
+		return caching ? packageNameResolver : new PackageNameResolver(getElementUtils());
+	}
+	
+	/**
+	 * Resolves a package name specification relative to the package enclosing a given element.
+	 * The result is cached for the current round.
+	 * 
+	 * @param packageNameSpec the specification of the package name, or {@code null}
+	 * @param reference the element whose package is used as the reference package
+	 * @return the resolved package, or {@code null} if the specification is not a valid package
+	 * reference
+	 * @see PackageNameResolver#resolve(CharSequence, PackageElement)
+	 */
+	public PackageNameResolver.ResolvedPackage resolvePackage(CharSequence packageNameSpec, Element reference) {
+		return getPackageNameResolver().resolve(packageNameSpec, ElementUtils.getPackage(reference));
+	}
+	
+	/**
+	 * Resolves the erased parameter type represented by a {@link Class} object. The result
+	 * is cached for the current round.
+	 * 
+	 * @param clazz the class object
+	 * @return the resolved parameter type
+	 */
+	public ParameterType getParameterType(Class<?> clazz) {
+		ParameterType pt = parameterTypesByClass.get(clazz);
+		if(pt == null) {
+			pt = ParameterType.of(clazz, getElementUtils());
+			if(caching) {
+				parameterTypesByClass.put(clazz, pt);
+			}
+		}
+		return pt;
+	}
+	
+	/**
+	 * Resolves the erased parameter type represented by a canonical type name. The result
+	 * is cached for the current round.
+	 * 
+	 * @param typeName the canonical type name
+	 * @return the resolved parameter type
+	 */
+	public ParameterType getParameterType(CharSequence typeName) {
+		String typeNameStr = typeName.toString();
+		ParameterType pt = parameterTypesByName.get(typeNameStr);
+		if(pt == null) {
+			pt = ParameterType.of(typeNameStr, getElementUtils());
+			if(caching) {
+				parameterTypesByName.put(typeNameStr, pt);
+			}
+		}
+		return pt;
+	}
+	
+	/**
+	 * Creates a reusable {@link SignatureMatcher} for the given erased parameter types. The
+	 * returned matcher should only be used during the current round.
+	 * 
+	 * @param paramTypes the erased parameter types
+	 * @return the signature matcher
+	 */
+	public SignatureMatcher getSignatureMatcher(Class<?>... paramTypes) {
+		return new SignatureMatcher(getTypeUtils(), getParameterTypes(paramTypes));
+	}
+	
+	/**
+	 * Creates a reusable {@link SignatureMatcher} for the given erased parameter type names. The
+	 * returned matcher should only be used during the current round.
+	 * 
+	 * @param paramTypeNames the canonical names of the erased parameter types
+	 * @return the signature matcher
+	 */
+	public SignatureMatcher getSignatureMatcher(CharSequence... paramTypeNames) {
+		return new SignatureMatcher(getTypeUtils(), getParameterTypes(paramTypeNames));
+	}
 	
 	public boolean checkMethodSignature(ExecutableElement method,
 			CharSequence ...paramTypeNames) {
-		int arity = paramTypeNames.length;
-		
-		List<? extends VariableElement> params = method.getParameters();
-		if(params.size() != arity) {
+		if(method.getParameters().size() != paramTypeNames.length) {
 			return false;
 		}
-
-		Types types = getTypeUtils();
-		
-		int pidx = 0;
-		for(VariableElement param : params) {
-			CharSequence expectedTypeName = paramTypeNames[pidx];
-			
-			TypeMirror paramType = param.asType();
-			TypeMirror erasedParamType = types.erasure(paramType);
-			if(!erasedParamType.toString().contentEquals(expectedTypeName)) {
-				return false;
-			}
-			
-			pidx++;
-		}
-		
-		return true;
+		return SignatureMatcher.matches(method, getTypeUtils(), getParameterTypes(paramTypeNames));
 	}
 	
 	public boolean checkMethodSignature(ExecutableElement method,
 			Class<?>[] paramTypes) {
-		int arity = paramTypes.length;
-		CharSequence[] paramTypeNames = new CharSequence[arity];
-		for(int i = 0; i < arity; i++) {
-			paramTypeNames[i] = paramTypes[i].getCanonicalName();
+		if(method.getParameters().size() != paramTypes.length) {
+			return false;
 		}
-		return checkMethodSignature(method, paramTypes);
+		return SignatureMatcher.matches(method, getTypeUtils(), getParameterTypes(paramTypes));
 	}
 	
 	public boolean checkMethodSignature(ExecutableElement method,
 			Class<?> firstParamType, Class<?> ...otherParamTypes) {
-		Class<?>[] paramTypes = new Class[1 + otherParamTypes.length];
-		paramTypes[0] = firstParamType;
-		System.arraycopy(otherParamTypes, 0, paramTypes, 1, otherParamTypes.length);
-		return checkMethodSignature(method, paramTypes);
+		if(method.getParameters().size() != 1 + otherParamTypes.length) {
+			return false;
+		}
+		return checkMethodSignature(method, toArray(firstParamType, otherParamTypes));
 	}
 	
 	public ExecutableElement findConstructor(Iterable<? extends ExecutableElement> allConstructors,
 			CharSequence ...paramTypeNames) {
-		for(ExecutableElement ctor : allConstructors) {
-			if(checkMethodSignature(ctor, paramTypeNames)) {
-				return ctor;
-			}
-		}
-		return null;
+		return getSignatureMatcher(paramTypeNames).findIn(allConstructors);
 	}
 	
 	public ExecutableElement findConstructor(Iterable<? extends ExecutableElement> allConstructors,
 			Class<?> ...paramTypes) {
-		String[] paramTypeNames = NameUtils.getCanonicalNames(paramTypes);
-		return findConstructor(allConstructors, paramTypeNames);
+		return getSignatureMatcher(paramTypes).findIn(allConstructors);
 	}
 	
 	public ExecutableElement findConstructor(Iterable<? extends ExecutableElement> allConstructors,
 			Class<?> firstParamType, Class<?> ...otherParamTypes) {
-		String[] paramTypeNames = NameUtils.getCanonicalNames(firstParamType, otherParamTypes);
-		return findConstructor(allConstructors, paramTypeNames);
+		return getSignatureMatcher(toArray(firstParamType, otherParamTypes)).findIn(allConstructors);
 	}
 	
 	public ExecutableElement findConstructor(TypeElement type,
 			CharSequence ...paramTypeNames) {
-		List<? extends ExecutableElement> ctors = ElementFilter.constructorsIn(type.getEnclosedElements());
-		return findConstructor(ctors, paramTypeNames);
+		return getMemberTable(type).getConstructorIndex().findConstructor(paramTypeNames);
 	}
 	
 	public ExecutableElement findConstructor(TypeElement type,
 			Class<?> firstParamType, Class<?> ...otherParamTypes) {
-		List<? extends ExecutableElement> ctors = ElementFilter.constructorsIn(type.getEnclosedElements());
-		return findConstructor(ctors, firstParamType, otherParamTypes);
+		return findConstructor(type, toArray(firstParamType, otherParamTypes));
 	}
 	
 	public ExecutableElement findConstructor(TypeElement type,
 			Class<?>[] paramTypes) {
-		List<? extends ExecutableElement> ctors = ElementFilter.constructorsIn(type.getEnclosedElements());
-		return findConstructor(ctors, paramTypes);
+		return getMemberTable(type).getConstructorIndex().findConstructor(paramTypes);
 	}
 	
 	
 	public ExecutableElement findMethod(Iterable<? extends ExecutableElement> allMethods,
 			CharSequence name, CharSequence ...paramTypeNames) {
-		
-		for(ExecutableElement method : allMethods) {
-			if(method.getSimpleName().contentEquals(name)) {
-				continue;
-			}
-			
-			if(checkMethodSignature(method, paramTypeNames)) {
-				return method;
-			}
-		}
-		
-		return null;
+		return getSignatureMatcher(paramTypeNames).findIn(allMethods, name);
 	}
 	
 	public ExecutableElement findMethod(Iterable<? extends ExecutableElement> allMethods,
 			CharSequence name, Class<?> firstParamType, Class<?> ...otherParamTypes) {
-		CharSequence[] paramTypeNames = new CharSequence[otherParamTypes.length + 1];
-		paramTypeNames[0] = firstParamType.getCanonicalName();
-		for(int i = 0; i < otherParamTypes.length; i++) {
-			paramTypeNames[i+1] = otherParamTypes[i].getCanonicalName();
-		}
-		return findMethod(allMethods, name, paramTypeNames);
+		return getSignatureMatcher(toArray(firstParamType, otherParamTypes)).findIn(allMethods, name);
 	}
 	
 	public ExecutableElement findDeclaredMethod(TypeElement type,
 			CharSequence name, String ...paramTypeNames) {
-		List<? extends ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
-		return findMethod(methods, name, paramTypeNames);
+		return getMemberTable(type).getDeclaredMethodIndex().find(name, paramTypeNames);
 	}
 	
 	public ExecutableElement findDeclaredMethod(TypeElement type,
 			CharSequence name, Class<?> firstParamType, Class<?> ...otherParamTypes) {
-		List<? extends ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
-		return findMethod(methods, name, firstParamType, otherParamTypes);
+		Class<?>[] paramTypes = toArray(firstParamType, otherParamTypes);
+		return getMemberTable(type).getDeclaredMethodIndex().find(name, paramTypes);
 	}
 	
 	public ExecutableElement findMethod(TypeElement type,
 			CharSequence name, String ...paramTypeNames) {
-		List<? extends Element> allMembers = getElementUtils().getAllMembers(type);
-		List<? extends ExecutableElement> methods = ElementFilter.methodsIn(allMembers);
-		return findMethod(methods, name, paramTypeNames);
+		return getMemberTable(type).getMethodIndex().find(name, paramTypeNames);
 	}
 	
 	
 	public ExecutableElement findMethod(TypeElement type,
 			CharSequence name, Class<?> firstParamType, Class<?> ...otherParamTypes) {
-		List<? extends Element> allMembers = getElementUtils().getAllMembers(type);
-		List<? extends ExecutableElement> methods = ElementFilter.methodsIn(allMembers);
-		return findMethod(methods, name, firstParamType, otherParamTypes);
+		Class<?>[] paramTypes = toArray(firstParamType, otherParamTypes);
+		return getMemberTable(type).getMethodIndex().find(name, paramTypes);
+	}
+	
+	/**
+	 * Retrieves the member table of a given type. The member table is cached for the
+	 * current round.
+	 * 
+	 * @param type the type
+	 * @return the member table of the specified type
+	 */
+	public MemberTable getMemberTable(TypeElement type) {
+		MemberTable table = memberTables.get(type);
+		if(table == null) {
+			table = new MemberTable(type, getElementUtils(), getTypeUtils());
+			if(caching) {
+				memberTables.put(type, table);
+			}
+		}
+		return table;
 	}
 	
 	
@@ -235,12 +656,22 @@ public class APUtils {
 	 * <p>
 	 * Note that due to overloading, several methods with the same type may exist.
 	 * @param type the type
-	 * @return a by-name map of the directly declared methods of the
+	 * @return an unmodifiable by-name map of the directly declared methods of the
 	 * specified type.
 	 */
 	public Map<String,List<ExecutableElement>> declaredMethodsByName(TypeElement type) {
-		List<? extends ExecutableElement> declaredMethods = getDeclaredMethods(type);
-		return ElementUtils.elementsByName(declaredMethods);
+		return getMemberTable(type).getDeclaredMethodsByName();
+	}
+	
+	/**
+	 * Retrieves a by-name index of the directly declared methods of a given type. The index
+	 * is cached for the current round.
+	 * @param type the type
+	 * @return a by-name index of the directly declared methods of the specified type.
+	 * @see MemberTable#getDeclaredMethodNameIndex()
+	 */
+	public NameIndex<ExecutableElement> declaredMethodNameIndex(TypeElement type) {
+		return getMemberTable(type).getDeclaredMethodNameIndex();
 	}
 	
 	/**
@@ -249,72 +680,178 @@ public class APUtils {
 	 * <p>
 	 * Note that due to overloading, several methods with the same type may exist.
 	 * @param type the type
-	 * @return a by-name map of all methods (inherited or directly declared) of the
+	 * @return an unmodifiable by-name map of all methods (inherited or directly declared) of the
 	 * specified type.
 	 */
 	public Map<String,List<ExecutableElement>> methodsByName(TypeElement type) {
-		List<? extends ExecutableElement> allMethods = getAllMethods(type);
-		return ElementUtils.elementsByName(allMethods);
+		return getMemberTable(type).getMethodsByName();
+	}
+	
+	/**
+	 * Retrieves a by-name index of all methods (inherited or directly declared) of a given type.
+	 * The index is cached for the current round.
+	 * @param type the type
+	 * @return a by-name index of all methods of the specified type.
+	 * @see MemberTable#getMethodNameIndex()
+	 */
+	public NameIndex<ExecutableElement> methodNameIndex(TypeElement type) {
+		return getMemberTable(type).getMethodNameIndex();
 	}
 	
 	/**
 	 * Retrieves a by-name map of the directly declared fields of a given type. 
 	 * @param type the type
-	 * @return a by-name map of the directly declared fields of the specified type.
+	 * @return an unmodifiable by-name map of the directly declared fields of the specified type.
 	 */
 	public Map<String,VariableElement> declaredFieldsByName(TypeElement type) {
-		List<? extends VariableElement> declaredFields = getDeclaredFields(type);
-		return ElementUtils.elementsByUniqueName(declaredFields);
+		return getMemberTable(type).getDeclaredFieldsByName();
 	}
 	
 	/**
 	 * Retrieves a by-name map of all fields (inherited or directly declared) of a given
 	 * type.
 	 * @param type the type
-	 * @return a by-name map of all fields (inherited or directly declared) of the specified
+	 * @return an unmodifiable by-name map of all fields (inherited or directly declared) of the specified
 	 * type.
 	 */
 	public Map<String,VariableElement> allFieldsByName(TypeElement type) {
-		List<? extends VariableElement> allFields = getAllFields(type);
-		return ElementUtils.elementsByUniqueName(allFields);
+		return getMemberTable(type).getAllFieldsByName();
 	}
 	
 	/**
 	 * Retrieves the directly declared methods of a given type.
 	 * @param type the type
-	 * @return a list of the directly declared methods of the specified type.
+	 * @return an unmodifiable list of the directly declared methods of the specified type.
 	 */
 	public List<? extends ExecutableElement> getDeclaredMethods(TypeElement type) {
-		return ElementFilter.methodsIn(type.getEnclosedElements());
+		return getMemberTable(type).getDeclaredMethods();
 	}
 	
 	/**
 	 * Retrieves all methods of a given type, whether inherited or directly declared.
 	 * @param type the type
-	 * @return a list of all methods (inherited or directly declared) of the specified
+	 * @return an unmodifiable list of all methods (inherited or directly declared) of the specified
 	 * type.
 	 */
 	public List<? extends ExecutableElement> getAllMethods(TypeElement type) {
-		return ElementFilter.methodsIn(getElementUtils().getAllMembers(type));
+		return getMemberTable(type).getAllMethods();
+	}
+	
+	/**
+	 * Retrieves the {@link ObjectMethod} which is overridden (or declared) by the given method,
+	 * if any. In contrast to {@link ObjectMethod#getObjectMethod(ExecutableElement)}, this method
+	 * uses {@link Elements#overrides(ExecutableElement, ExecutableElement, TypeElement)} to check
+	 * against the respective method of {@link Object}. The result is cached for the current round.
+	 * 
+	 * @param method the method
+	 * @return the corresponding {@link ObjectMethod}, or {@code null} if the method neither declares
+	 * nor overrides a method of {@link Object}
+	 */
+	public ObjectMethod getObjectMethod(ExecutableElement method) {
+		ObjectMethod result = objectMethods.get(method);
+		if(result == null && !objectMethods.containsKey(method)) {
+			result = computeObjectMethod(method);
+			if(caching) {
+				objectMethods.put(method, result);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Checks whether the given method declares or overrides a method of {@link Object}.
+	 * 
+	 * @param method the method
+	 * @return {@code true} if the method declares or overrides a method of {@link Object},
+	 * {@code false} otherwise
+	 * @see #getObjectMethod(ExecutableElement)
+	 */
+	public boolean isObjectMethod(ExecutableElement method) {
+		return (getObjectMethod(method) != null);
+	}
+	
+	/**
+	 * Filters out all methods which declare or override a method of {@link Object}.
+	 * 
+	 * @param methods the methods to filter
+	 * @return a list of all methods from {@code methods} which neither declare nor override
+	 * a method of {@link Object}
+	 * @see #getObjectMethod(ExecutableElement)
+	 */
+	public List<ExecutableElement> filterObjectMethods(Iterable<? extends ExecutableElement> methods) {
+		List<ExecutableElement> result = new ArrayList<>();
+		for(ExecutableElement method : methods) {
+			if(!isObjectMethod(method)) {
+				result.add(method);
+			}
+		}
+		return result;
+	}
+	
+	private ObjectMethod computeObjectMethod(ExecutableElement method) {
+		if(method.getKind() != ElementKind.METHOD) {
+			return null;
+		}
+		int arity = method.getParameters().size();
+		if(arity > 2) {
+			return null;
+		}
+		ObjectMethod cand = ObjectMethod.lookup(method.getSimpleName().toString(), arity);
+		if(cand == null) {
+			return null;
+		}
+		ExecutableElement objMethod = getObjectMethodElements().get(cand);
+		if(objMethod == null) {
+			// Object not available, fall back to signature check
+			return cand.is(method) ? cand : null;
+		}
+		if(method == objMethod) {
+			return cand;
+		}
+		Element enclosing = method.getEnclosingElement();
+		if(!(enclosing instanceof TypeElement)) {
+			return null;
+		}
+		return getElementUtils().overrides(method, objMethod, (TypeElement)enclosing) ? cand : null;
+	}
+	
+	private Map<ObjectMethod,ExecutableElement> getObjectMethodElements() {
+		if(objectMethodElements != null) {
+			return objectMethodElements;
+		}
+		Map<ObjectMethod,ExecutableElement> result = new EnumMap<>(ObjectMethod.class);
+		TypeElement objectType = getElementUtils().getTypeElement(Object.class.getName());
+		if(objectType != null) {
+			for(ExecutableElement method : getDeclaredMethods(objectType)) {
+				ObjectMethod om = ObjectMethod.getObjectMethod(method);
+				if(om != null) {
+					result.put(om, method);
+				}
+			}
+		}
+		if(caching) {
+			objectMethodElements = result;
+		}
+		return result;
 	}
 	
 	/**
 	 * Retrieves the directly declared fields of a given type.
 	 * @param type the type
-	 * @return a list of the directly declared fields of the specified type.
+	 * @return an unmodifiable list of the directly declared fields of the specified type.
 	 */
 	public List<? extends VariableElement> getDeclaredFields(TypeElement type) {
-		return ElementFilter.fieldsIn(type.getEnclosedElements());
+		return getMemberTable(type).getDeclaredFields();
 	}
 	
 	/**
 	 * Retrieves all fields of a given type, whether inherited or directly declared.
 	 * @param type the type
-	 * @return a list of all fields (inherited or directly declared) of the specified
+	 * @return an unmodifiable list of all fields (inherited or directly declared) of the specified
 	 * type.
 	 */
 	public List<? extends VariableElement> getAllFields(TypeElement type) {
-		return ElementFilter.fieldsIn(getElementUtils().getAllMembers(type));
+		return getMemberTable(type).getAllFields();
 	}
 	
 	
@@ -322,8 +859,22 @@ public class APUtils {
 		return rootReporter;
 	}
 	
+	/**
+	 * Retrieves a reporter for the given element. Element reporters are cached for the
+	 * current round.
+	 * 
+	 * @param elem the element to which messages refer
+	 * @return the element reporter
+	 */
 	public ElementReporter getReporter(Element elem) {
-		return getReporter().forElement(elem);
+		ElementReporter reporter = elementReporters.get(elem);
+		if(reporter == null) {
+			reporter = rootReporter.forElement(elem);
+			if(caching) {
+				elementReporters.put(elem, reporter);
+			}
+		}
+		return reporter;
 	}
 	
 	public AnnotationReporter getReporter(Element elem, AnnotationMirror annotation) {
@@ -354,4 +905,27 @@ public class APUtils {
 		return getReporter(elem, annotationClazz).forValue(valueName);
 	}
 	
+	private ParameterType[] getParameterTypes(Class<?>[] paramTypes) {
+		ParameterType[] types = new ParameterType[paramTypes.length];
+		for(int i = 0; i < types.length; i++) {
+			types[i] = getParameterType(paramTypes[i]);
+		}
+		return types;
+	}
+	
+	private ParameterType[] getParameterTypes(CharSequence[] paramTypeNames) {
+		ParameterType[] types = new ParameterType[paramTypeNames.length];
+		for(int i = 0; i < types.length; i++) {
+			types[i] = getParameterType(paramTypeNames[i]);
+		}
+		return types;
+	}
+	
+	private static Class<?>[] toArray(Class<?> first, Class<?>[] others) {
+		Class<?>[] result = new Class<?>[1 + others.length];
+		result[0] = first;
+		System.arraycopy(others, 0, result, 1, others.length);
+		return result;
+	}
+	
 }
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+
+import com.github.misberner.apcommons.util.types.SupertypeClosureCache;
+
+/**
+ * Decides whether elements and types can be referenced from generated code.
+ * <p>
+ * An access context is given by the name of the package in which the generated code resides,
+ * and optionally a type which the generated class extends (or implements). An element is
+ * considered accessible if it and all its enclosing types are accessible according to their
+ * declared visibility:
+ * <ul>
+ * <li>public elements are always accessible,</li>
+ * <li>package-private elements are accessible from the same package,</li>
+ * <li>protected elements are accessible from the same package, or if the generated class is a
+ * subclass of the type declaring the element,</li>
+ * <li>private elements are never accessible.</li>
+ * </ul>
+ * Note that the additional restriction on accessing protected instance members and constructors
+ * through a qualifying expression (JLS &sect;6.6.2) is not taken into account.
+ * <p>
+ * Results are cached per package, and per (package, subclass) context. Elements are compared by
+ * identity, hence the oracle must be {@link #clear() cleared} at the beginning of each round
+ * (see {@link APUtils#invalidateCaches()}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class AccessibilityOracle {
+
+	private final class PackageContext {
+		private final String packageName;
+		private final PackageElement packageElement;
+		private final Map<Element,Boolean> results = new IdentityHashMap<>();
+		private final Map<TypeElement,Map<Element,Boolean>> subclassResults = new IdentityHashMap<>();
+
+		public PackageContext(String packageName) {
+			this.packageName = packageName;
+			this.packageElement = elementUtils.getPackageElement(packageName);
+		}
+
+		public boolean isSamePackage(PackageElement pkg) {
+			if(packageElement != null) {
+				return pkg == packageElement;
+			}
+			return pkg != null && pkg.getQualifiedName().contentEquals(packageName);
+		}
+
+		public Map<Element,Boolean> getResults(TypeElement fromSubclassOf) {
+			if(fromSubclassOf == null) {
+				return results;
+			}
+			Map<Element,Boolean> res = subclassResults.get(fromSubclassOf);
+			if(res == null) {
+				res = new IdentityHashMap<>();
+				subclassResults.put(fromSubclassOf, res);
+			}
+			return res;
+		}
+	}
+
+	private final Elements elementUtils;
+	private final SupertypeClosureCache supertypeClosureCache;
+	private final VisibilityCache visibilityCache;
+	private final Map<String,PackageContext> contexts = new HashMap<>();
+	private final Map<Element,PackageElement> packages = new IdentityHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param elementUtils the element utilities
+	 * @param supertypeClosureCache the supertype closure cache, used for checking access to
+	 * protected elements
+	 * @param visibilityCache the visibility cache
+	 */
+	public AccessibilityOracle(Elements elementUtils, SupertypeClosureCache supertypeClosureCache,
+			VisibilityCache visibilityCache) {
+		this.elementUtils = elementUtils;
+		this.supertypeClosureCache = supertypeClosureCache;
+		this.visibilityCache = visibilityCache;
+	}
+
+	/**
+	 * Constructor. The oracle uses its own supertype closure and visibility caches.
+	 *
+	 * @param elementUtils the element utilities
+	 */
+	public AccessibilityOracle(Elements elementUtils) {
+		this(elementUtils, new SupertypeClosureCache(), new VisibilityCache());
+	}
+
+	/**
+	 * Checks whether an element is accessible from code in the given package.
+	 *
+	 * @param target the element
+	 * @param fromPackage the qualified name of the package
+	 * @return {@code true} if the element is accessible, {@code false} otherwise
+	 */
+	public boolean isAccessible(Element target, String fromPackage) {
+		return isAccessible(target, fromPackage, null);
+	}
+
+	/**
+	 * Checks whether an element is accessible from code in a class in the given package,
+	 * which extends or implements a given type.
+	 *
+	 * @param target the element
+	 * @param fromPackage the qualified name of the package
+	 * @param fromSubclassOf the type extended or implemented by the accessing class, or
+	 * {@code null}
+	 * @return {@code true} if the element is accessible, {@code false} otherwise
+	 */
+	public boolean isAccessible(Element target, String fromPackage, TypeElement fromSubclassOf) {
+		return isAccessible(target, getContext(fromPackage), fromSubclassOf);
+	}
+
+	/**
+	 * Checks whether a type can be referenced from code in a class in the given package,
+	 * which extends or implements a given type. A type is accessible if all type elements
+	 * occurring in it (including array component types, type arguments and wildcard bounds)
+	 * are accessible. Type variables are considered accessible.
+	 *
+	 * @param type the type
+	 * @param fromPackage the qualified name of the package
+	 * @param fromSubclassOf the type extended or implemented by the accessing class, or
+	 * {@code null}
+	 * @return {@code true} if the type is accessible, {@code false} otherwise
+	 */
+	public boolean isAccessible(TypeMirror type, String fromPackage, TypeElement fromSubclassOf) {
+		return isAccessible(type, getContext(fromPackage), fromSubclassOf);
+	}
+
+	/**
+	 * Checks whether a method or constructor can be invoked or overridden from code in a class
+	 * in the given package, which extends or implements a given type. This requires the method
+	 * itself, its return type, its parameter types and its thrown types to be accessible.
+	 *
+	 * @param method the method or constructor
+	 * @param fromPackage the qualified name of the package
+	 * @param fromSubclassOf the type extended or implemented by the accessing class, or
+	 * {@code null}
+	 * @return {@code true} if the method signature is accessible, {@code false} otherwise
+	 */
+	public boolean isSignatureAccessible(ExecutableElement method, String fromPackage,
+			TypeElement fromSubclassOf) {
+		return isSignatureAccessible(method, getContext(fromPackage), fromSubclassOf);
+	}
+
+	/**
+	 * Filters the given elements, retaining only those accessible from code in a class in the
+	 * given package, which extends or implements a given type.
+	 *
+	 * @param elements the elements
+	 * @param fromPackage the qualified name of the package
+	 * @param fromSubclassOf the type extended or implemented by the accessing class, or
+	 * {@code null}
+	 * @return the accessible elements, in their original order
+	 */
+	public <E extends Element>
+	List<E> filterAccessible(Iterable<? extends E> elements, String fromPackage, TypeElement fromSubclassOf) {
+		PackageContext ctx = getContext(fromPackage);
+		List<E> result = new ArrayList<>();
+		for(E elem : elements) {
+			if(isAccessible(elem, ctx, fromSubclassOf)) {
+				result.add(elem);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Filters the given methods, retaining only those whose signatures are accessible from code in
+	 * a class in the given package, which extends or implements a given type.
+	 *
+	 * @param methods the methods or constructors
+	 * @param fromPackage the qualified name of the package
+	 * @param fromSubclassOf the type extended or implemented by the accessing class, or
+	 * {@code null}
+	 * @return the methods with accessible signatures, in their original order
+	 * @see #isSignatureAccessible(ExecutableElement, String, TypeElement)
+	 */
+	public <E extends ExecutableElement>
+	List<E> filterAccessibleSignatures(Iterable<? extends E> methods, String fromPackage,
+			TypeElement fromSubclassOf) {
+		PackageContext ctx = getContext(fromPackage);
+		List<E> result = new ArrayList<>();
+		for(E method : methods) {
+			if(isSignatureAccessible(method, ctx, fromSubclassOf)) {
+				result.add(method);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Clears this oracle, as well as the supertype closure and visibility caches it uses. This
+	 * method needs to be called at the beginning of each round of annotation processing.
+	 */
+	public void clear() {
+		contexts.clear();
+		packages.clear();
+		supertypeClosureCache.clear();
+		visibilityCache.clear();
+	}
+
+	private PackageContext getContext(String fromPackage) {
+		PackageContext ctx = contexts.get(fromPackage);
+		if(ctx == null) {
+			ctx = new PackageContext(fromPackage);
+			contexts.put(fromPackage, ctx);
+		}
+		return ctx;
+	}
+
+	private boolean isSignatureAccessible(ExecutableElement method, PackageContext ctx,
+			TypeElement fromSubclassOf) {
+		if(!isAccessible(method, ctx, fromSubclassOf)
+				|| !isAccessible(method.getReturnType(), ctx, fromSubclassOf)) {
+			return false;
+		}
+		for(VariableElement param : method.getParameters()) {
+			if(!isAccessible(param.asType(), ctx, fromSubclassOf)) {
+				return false;
+			}
+		}
+		for(TypeMirror thrown : method.getThrownTypes()) {
+			if(!isAccessible(thrown, ctx, fromSubclassOf)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isAccessible(TypeMirror type, PackageContext ctx, TypeElement fromSubclassOf) {
+		switch(type.getKind()) {
+		case DECLARED:
+			DeclaredType dt = (DeclaredType)type;
+			if(!isAccessible(dt.asElement(), ctx, fromSubclassOf)) {
+				return false;
+			}
+			for(TypeMirror typeArg : dt.getTypeArguments()) {
+				if(!isAccessible(typeArg, ctx, fromSubclassOf)) {
+					return false;
+				}
+			}
+			return true;
+		case ARRAY:
+			return isAccessible(((ArrayType)type).getComponentType(), ctx, fromSubclassOf);
+		case WILDCARD:
+			WildcardType wt = (WildcardType)type;
+			TypeMirror bound = wt.getExtendsBound();
+			if(bound == null) {
+				bound = wt.getSuperBound();
+			}
+			return (bound == null || isAccessible(bound, ctx, fromSubclassOf));
+		default:
+			return true;
+		}
+	}
+
+	private boolean isAccessible(Element target, PackageContext ctx, TypeElement fromSubclassOf) {
+		if(target.getKind() == ElementKind.PACKAGE) {
+			return true;
+		}
+		Map<Element,Boolean> results = ctx.getResults(fromSubclassOf);
+		Boolean cached = results.get(target);
+		if(cached != null) {
+			return cached.booleanValue();
+		}
+		boolean result = isLocallyAccessible(target, ctx, fromSubclassOf);
+		if(result) {
+			Element enclosing = target.getEnclosingElement();
+			if(enclosing != null && enclosing.getKind() != ElementKind.PACKAGE) {
+				result = isAccessible(enclosing, ctx, fromSubclassOf);
+			}
+		}
+		results.put(target, Boolean.valueOf(result));
+		return result;
+	}
+
+	private boolean isLocallyAccessible(Element target, PackageContext ctx, TypeElement fromSubclassOf) {
+		switch(visibilityCache.getVisibility(target)) {
+		case PUBLIC:
+			return true;
+		case PRIVATE:
+			return false;
+		case PROTECTED:
+			if(fromSubclassOf != null) {
+				Element declaring = target.getEnclosingElement();
+				if(declaring instanceof TypeElement
+						&& supertypeClosureCache.isSubtype(fromSubclassOf, (TypeElement)declaring)) {
+					return true;
+				}
+			}
+			return ctx.isSamePackage(getPackage(target));
+		default:
+			return ctx.isSamePackage(getPackage(target));
+		}
+	}
+
+	private PackageElement getPackage(Element elem) {
+		if(elem == null || elem.getKind() == ElementKind.PACKAGE) {
+			return (PackageElement)elem;
+		}
+		PackageElement pkg = packages.get(elem);
+		if(pkg == null) {
+			pkg = getPackage(elem.getEnclosingElement());
+			packages.put(elem, pkg);
+		}
+		return pkg;
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.lang.model.element.Name;
+
+/**
+ * A cache for frequently derived names, such as the getter and setter names of fields.
+ * <p>
+ * Derived names are cached per prefix and per base name. Base names given as {@link Name}s are
+ * looked up by identity, which is allocation-free; other base names are looked up by their string
+ * representation. Hence, once warmed up, deriving the name of an accessor does not allocate.
+ * <p>
+ * Since {@link Name} objects remain valid for the whole compilation (unlike elements), the cache
+ * does not need to be cleared between rounds. To bound its memory consumption, the entries for
+ * a prefix are discarded once their number exceeds the configured maximum. This class is not
+ * thread-safe.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class DerivedNameCache {
+
+	/**
+	 * The default maximum number of cached names per prefix.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+	private static final class PrefixEntries {
+		private final Map<Name,String> byName = new IdentityHashMap<>();
+		private final Map<String,String> byString = new HashMap<>();
+	}
+
+	private final int maxEntries;
+	private final Map<String,PrefixEntries> entries = new HashMap<>();
+
+	/**
+	 * Default constructor. Uses {@link #DEFAULT_MAX_ENTRIES} as the maximum number of
+	 * cached names per prefix.
+	 */
+	public DerivedNameCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxEntries the maximum number of cached names per prefix
+	 */
+	public DerivedNameCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Retrieves the name of the accessor with the given prefix for a field, i.e., the prefix
+	 * followed by the capitalized field name. Unlike
+	 * {@link NameUtils#accessorName(CharSequence, CharSequence, CharSequence, CharSequence)},
+	 * the field name is capitalized even if the prefix is empty.
+	 *
+	 * @param prefix the prefix
+	 * @param fieldName the field name
+	 * @return the accessor name
+	 */
+	public String getAccessorName(String prefix, CharSequence fieldName) {
+		PrefixEntries pe = entries.get(prefix);
+		if(pe == null) {
+			pe = new PrefixEntries();
+			entries.put(prefix, pe);
+		}
+		if(fieldName instanceof Name) {
+			Name name = (Name)fieldName;
+			String result = pe.byName.get(name);
+			if(result == null) {
+				result = getAccessorName(pe, prefix, name.toString());
+				if(pe.byName.size() >= maxEntries) {
+					pe.byString.clear();
+					pe.byName.clear();
+				}
+				pe.byName.put(name, result);
+			}
+			return result;
+		}
+		return getAccessorName(pe, prefix, fieldName.toString());
+	}
+
+	/**
+	 * Retrieves the capitalized version of a name.
+	 *
+	 * @param name the name
+	 * @return the name with its first character capitalized
+	 * @see NameUtils#capitalizeFirst(CharSequence)
+	 */
+	public String getCapitalized(CharSequence name) {
+		return getAccessorName("", name);
+	}
+
+	/**
+	 * Retrieves the getter name for a field, i.e., <tt>"get"</tt> followed by the capitalized
+	 * field name.
+	 *
+	 * @param fieldName the field name
+	 * @return the getter name
+	 */
+	public String getterName(CharSequence fieldName) {
+		return getAccessorName("get", fieldName);
+	}
+
+	/**
+	 * Retrieves the setter name for a field, i.e., <tt>"set"</tt> followed by the capitalized
+	 * field name.
+	 *
+	 * @param fieldName the field name
+	 * @return the setter name
+	 */
+	public String setterName(CharSequence fieldName) {
+		return getAccessorName("set", fieldName);
+	}
+
+	/**
+	 * Clears this cache.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	private String getAccessorName(PrefixEntries pe, String prefix, String fieldName) {
+		String result = pe.byString.get(fieldName);
+		if(result == null) {
+			if(pe.byString.size() >= maxEntries) {
+				pe.byString.clear();
+				pe.byName.clear();
+			}
+			StringBuilder sb = new StringBuilder(prefix.length() + fieldName.length());
+			result = NameUtils.appendCapitalized(sb.append(prefix), fieldName).toString();
+			pe.byString.put(fieldName, result);
+		}
+		return result;
+	}
+}
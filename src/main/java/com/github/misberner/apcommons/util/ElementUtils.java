@@ -18,6 +18,7 @@
 package com.github.misberner.apcommons.util;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +26,7 @@ import java.util.Map;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.QualifiedNameable;
 
 import com.github.misberner.apcommons.exceptions.DuplicateNameException;
 
@@ -59,6 +61,26 @@ public class ElementUtils {
 		return pkg.getQualifiedName().toString();
 	}
 	
+	/**
+	 * Retrieves a qualified designation of an element, which identifies it across compilations.
+	 * For packages and types, this is their qualified name. For other elements, it is the
+	 * designation of the enclosing element, followed by <tt>'#'</tt> and the string representation of
+	 * the element (e.g., <tt>"java.lang.Object#equals(java.lang.Object)"</tt>).
+	 * 
+	 * @param elem the element
+	 * @return the qualified designation of the element
+	 */
+	public static String getQualifiedDesignation(Element elem) {
+		if(elem instanceof QualifiedNameable) {
+			return ((QualifiedNameable)elem).getQualifiedName().toString();
+		}
+		Element enclosing = elem.getEnclosingElement();
+		if(enclosing == null) {
+			return elem.toString();
+		}
+		return getQualifiedDesignation(enclosing) + "#" + elem;
+	}
+	
 	
 	
 	
@@ -92,6 +114,22 @@ public class ElementUtils {
 		return result;
 	}
 	
+	/**
+	 * Creates an immutable by-name index for all the elements contained in the argument.
+	 * <p>
+	 * Unlike {@link #elementsByName(Iterable)}, this does not convert the element names to
+	 * strings, and does not allocate a list per name. It should be preferred for large or
+	 * frequently queried element collections.
+	 * 
+	 * @param elements the elements
+	 * @return a by-name index for the specified elements
+	 * @see NameIndex
+	 */
+	public static <E extends Element>
+	NameIndex<E> indexByName(Iterable<? extends E> elements) {
+		return NameIndex.of(elements);
+	}
+	
 	/**
 	 * Retrieves a by-name mapping for all the elements contained in the argument.
 	 * <p>
@@ -160,16 +198,51 @@ public class ElementUtils {
 	}
 	
 	
-	public Visibility getEffectiveVisibility(Element element) {
+	/**
+	 * Partitions the given elements by their declared visibility, in a single pass.
+	 * 
+	 * @param elements the elements
+	 * @return a map containing, for every visibility, the list of elements with this
+	 * visibility (in their original order)
+	 */
+	public static <E extends Element>
+	EnumMap<Visibility,List<E>> partitionByVisibility(Iterable<? extends E> elements) {
+		EnumMap<Visibility,List<E>> result = newVisibilityPartition();
+		for(E elem : elements) {
+			result.get(Visibility.of(elem)).add(elem);
+		}
+		return result;
+	}
+	
+	/**
+	 * Retrieves the effective visibility of an element, i.e., the meet of its visibility and the
+	 * visibilities of all its enclosing elements (excluding packages).
+	 * <p>
+	 * This method walks the chain of enclosing elements on every call. Use a
+	 * {@link VisibilityCache} (e.g., via {@link APUtils#getEffectiveVisibility(Element)}) when
+	 * querying many elements.
+	 * 
+	 * @param element the element
+	 * @return the effective visibility of the element
+	 */
+	public static Visibility getEffectiveVisibility(Element element) {
 		Visibility vis = Visibility.of(element);
 		
 		Element enclosing = element.getEnclosingElement();
 		
-		while(enclosing != null && enclosing.getKind() != ElementKind.PACKAGE) {
+		while(vis != Visibility.PRIVATE && enclosing != null && enclosing.getKind() != ElementKind.PACKAGE) {
 			vis = vis.meet(Visibility.of(enclosing));
 			enclosing = enclosing.getEnclosingElement();
 		}
 		
 		return vis;
 	}
+	
+	static <E> EnumMap<Visibility,List<E>> newVisibilityPartition() {
+		EnumMap<Visibility,List<E>> result = new EnumMap<>(Visibility.class);
+		for(Visibility vis : Visibility.values()) {
+			result.put(vis, new ArrayList<E>());
+		}
+		return result;
+	}
 }
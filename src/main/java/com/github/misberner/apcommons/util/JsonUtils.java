@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.io.IOException;
+
+/**
+ * Utility methods for writing JSON output.
+ * 
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public abstract class JsonUtils {
+	
+	/**
+	 * Appends a JSON string literal, i.e., the given string enclosed in double quotes, with
+	 * quotes, backslashes and control characters escaped.
+	 * 
+	 * @param w the appendable to append to
+	 * @param str the string to append
+	 * @throws IOException if appending fails
+	 */
+	public static void appendJsonString(Appendable w, CharSequence str) throws IOException {
+		w.append('"');
+		int len = str.length();
+		for(int i = 0; i < len; i++) {
+			char c = str.charAt(i);
+			if(c == '"' || c == '\\') {
+				w.append('\\').append(c);
+			}
+			else if(c < 0x20) {
+				w.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				w.append(c);
+			}
+		}
+		w.append('"');
+	}
+	
+	private JsonUtils() {
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ *
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import com.github.misberner.apcommons.exceptions.DuplicateNameException;
+import com.github.misberner.apcommons.util.methods.SignatureIndex;
+
+/**
+ * Precomputed member lists and by-name indexes of a type.
+ * <p>
+ * All information is computed lazily upon first request, and then retained. All returned
+ * collections are unmodifiable. Member tables are usually obtained via
+ * {@link APUtils#getMemberTable(TypeElement)}, which caches them for the current round
+ * of annotation processing.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class MemberTable {
+
+	private final TypeElement type;
+	private final Elements elementUtils;
+	private final Types typeUtils;
+
+	private List<? extends Element> allMembers;
+
+	private List<ExecutableElement> declaredMethods;
+	private List<ExecutableElement> allMethods;
+	private List<ExecutableElement> constructors;
+	private List<VariableElement> declaredFields;
+	private List<VariableElement> allFields;
+
+	private NameIndex<ExecutableElement> declaredMethodsByName;
+	private NameIndex<ExecutableElement> methodsByName;
+	private Map<String,VariableElement> declaredFieldsByName;
+	private Map<String,VariableElement> allFieldsByName;
+
+	private SignatureIndex declaredMethodIndex;
+	private SignatureIndex methodIndex;
+	private SignatureIndex constructorIndex;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param type the type whose members to consider
+	 * @param elementUtils the element utilities, used for determining inherited members
+	 * @param typeUtils the type utilities, used for computing erased signatures
+	 */
+	public MemberTable(TypeElement type, Elements elementUtils, Types typeUtils) {
+		this.type = type;
+		this.elementUtils = elementUtils;
+		this.typeUtils = typeUtils;
+	}
+
+	/**
+	 * Retrieves the type this member table refers to.
+	 * @return the type
+	 */
+	public TypeElement getType() {
+		return type;
+	}
+
+	/**
+	 * Retrieves the directly declared methods of the type.
+	 * @return a list of the directly declared methods of the type.
+	 */
+	public List<ExecutableElement> getDeclaredMethods() {
+		if(declaredMethods == null) {
+			declaredMethods = Collections.unmodifiableList(ElementFilter.methodsIn(type.getEnclosedElements()));
+		}
+		return declaredMethods;
+	}
+
+	/**
+	 * Retrieves all methods of the type, whether inherited or directly declared.
+	 * @return a list of all methods (inherited or directly declared) of the type.
+	 */
+	public List<ExecutableElement> getAllMethods() {
+		if(allMethods == null) {
+			allMethods = Collections.unmodifiableList(ElementFilter.methodsIn(getAllMembers()));
+		}
+		return allMethods;
+	}
+
+	/**
+	 * Retrieves the constructors of the type.
+	 * @return a list of the constructors of the type.
+	 */
+	public List<ExecutableElement> getConstructors() {
+		if(constructors == null) {
+			constructors = Collections.unmodifiableList(ElementFilter.constructorsIn(type.getEnclosedElements()));
+		}
+		return constructors;
+	}
+
+	/**
+	 * Retrieves the directly declared fields of the type.
+	 * @return a list of the directly declared fields of the type.
+	 */
+	public List<VariableElement> getDeclaredFields() {
+		if(declaredFields == null) {
+			declaredFields = Collections.unmodifiableList(ElementFilter.fieldsIn(type.getEnclosedElements()));
+		}
+		return declaredFields;
+	}
+
+	/**
+	 * Retrieves all fields of the type, whether inherited or directly declared.
+	 * @return a list of all fields (inherited or directly declared) of the type.
+	 */
+	public List<VariableElement> getAllFields() {
+		if(allFields == null) {
+			allFields = Collections.unmodifiableList(ElementFilter.fieldsIn(getAllMembers()));
+		}
+		return allFields;
+	}
+
+	/**
+	 * Retrieves a by-name map of the directly declared methods of the type.
+	 * @return a by-name map of the directly declared methods of the type.
+	 * @see #getDeclaredMethodNameIndex()
+	 */
+	public Map<String,List<ExecutableElement>> getDeclaredMethodsByName() {
+		return getDeclaredMethodNameIndex();
+	}
+
+	/**
+	 * Retrieves a by-name map of all methods (inherited or directly declared) of the type.
+	 * @return a by-name map of all methods of the type.
+	 * @see #getMethodNameIndex()
+	 */
+	public Map<String,List<ExecutableElement>> getMethodsByName() {
+		return getMethodNameIndex();
+	}
+
+	/**
+	 * Retrieves a by-name index of the directly declared methods of the type.
+	 * @return a by-name index of the directly declared methods of the type.
+	 * @see ElementUtils#indexByName(Iterable)
+	 */
+	public NameIndex<ExecutableElement> getDeclaredMethodNameIndex() {
+		if(declaredMethodsByName == null) {
+			declaredMethodsByName = ElementUtils.indexByName(getDeclaredMethods());
+		}
+		return declaredMethodsByName;
+	}
+
+	/**
+	 * Retrieves a by-name index of all methods (inherited or directly declared) of the type.
+	 * @return a by-name index of all methods of the type.
+	 * @see ElementUtils#indexByName(Iterable)
+	 */
+	public NameIndex<ExecutableElement> getMethodNameIndex() {
+		if(methodsByName == null) {
+			methodsByName = ElementUtils.indexByName(getAllMethods());
+		}
+		return methodsByName;
+	}
+
+	/**
+	 * Retrieves a by-name map of the directly declared fields of the type.
+	 * @return a by-name map of the directly declared fields of the type.
+	 * @throws DuplicateNameException if there are several fields with the same name
+	 */
+	public Map<String,VariableElement> getDeclaredFieldsByName() throws DuplicateNameException {
+		if(declaredFieldsByName == null) {
+			declaredFieldsByName = Collections.unmodifiableMap(ElementUtils.elementsByUniqueName(getDeclaredFields()));
+		}
+		return declaredFieldsByName;
+	}
+
+	/**
+	 * Retrieves a by-name map of all fields (inherited or directly declared) of the type.
+	 * @return a by-name map of all fields of the type.
+	 * @throws DuplicateNameException if there are several fields with the same name
+	 */
+	public Map<String,VariableElement> getAllFieldsByName() throws DuplicateNameException {
+		if(allFieldsByName == null) {
+			allFieldsByName = Collections.unmodifiableMap(ElementUtils.elementsByUniqueName(getAllFields()));
+		}
+		return allFieldsByName;
+	}
+
+	/**
+	 * Retrieves a signature index of the directly declared methods of the type.
+	 * @return a signature index of the directly declared methods of the type
+	 */
+	public SignatureIndex getDeclaredMethodIndex() {
+		if(declaredMethodIndex == null) {
+			declaredMethodIndex = new SignatureIndex(getDeclaredMethods(), typeUtils);
+		}
+		return declaredMethodIndex;
+	}
+
+	/**
+	 * Retrieves a signature index of all methods (inherited or directly declared) of the type.
+	 * @return a signature index of all methods of the type
+	 */
+	public SignatureIndex getMethodIndex() {
+		if(methodIndex == null) {
+			methodIndex = new SignatureIndex(getAllMethods(), typeUtils);
+		}
+		return methodIndex;
+	}
+
+	/**
+	 * Retrieves a signature index of the constructors of the type.
+	 * @return a signature index of the constructors of the type
+	 */
+	public SignatureIndex getConstructorIndex() {
+		if(constructorIndex == null) {
+			constructorIndex = new SignatureIndex(getConstructors(), typeUtils);
+		}
+		return constructorIndex;
+	}
+
+	private List<? extends Element> getAllMembers() {
+		if(allMembers == null) {
+			allMembers = elementUtils.getAllMembers(type);
+		}
+		return allMembers;
+	}
+}
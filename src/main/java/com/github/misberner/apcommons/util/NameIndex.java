@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Name;
+
+/**
+ * An immutable by-name index of elements, i.e., a multimap from simple names to the elements
+ * with that name, in their original order.
+ * <p>
+ * Elements are grouped by the contents of their names. Since some compilers (such as
+ * <tt>javac</tt>) return the same {@link Name} object for equal names, the index additionally
+ * remembers every distinct name object it encountered: the string representation of a name is
+ * only computed once per name object, and lookups via {@link #get(Name)} with one of these
+ * objects are identity-based. Other lookups compare contents.
+ * <p>
+ * All elements are stored contiguously in a single packed array. The element lists returned by
+ * this map are unmodifiable, and are created once upon construction (singleton lists for names
+ * with a single element, views on the packed array otherwise). Hence, lookups via
+ * {@link #get(Name)} and {@link #get(Object) get(CharSequence)} do not allocate.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ *
+ * @param <E> element type
+ */
+public final class NameIndex<E extends Element> extends AbstractMap<String,List<E>> {
+
+	/**
+	 * Creates a by-name index of the given elements.
+	 *
+	 * @param elements the elements to index
+	 * @return the by-name index
+	 */
+	public static <E extends Element> NameIndex<E> of(Iterable<? extends E> elements) {
+		return new NameIndex<>(elements);
+	}
+
+	private final String[] keys;
+	private final List<E>[] groups;
+	private final Element[] elements;
+	private final int mask;
+	private final int[] keyTable; // content hash table, index + 1, 0 denotes an empty slot
+	private final Name[] nameObjects;
+	private final int[] nameGroups;
+	private final int[] nameTable; // identity hash table, index into nameObjects + 1
+	private Set<Map.Entry<String,List<E>>> entrySet;
+
+	@SuppressWarnings("unchecked")
+	private NameIndex(Iterable<? extends E> elems) {
+		List<E> elemList = new ArrayList<>();
+		for(E e : elems) {
+			elemList.add(e);
+		}
+		int numElems = elemList.size();
+		int capacity = Integer.highestOneBit(Math.max(1, numElems * 2 - 1)) << 1;
+		this.mask = capacity - 1;
+		this.nameTable = new int[capacity];
+
+		// first pass: determine the group of each element
+		Name[] objs = new Name[numElems];
+		int[] objGroups = new int[numElems];
+		int numObjs = 0;
+		Map<String,Integer> groupsByKey = new HashMap<>();
+		List<String> keyList = new ArrayList<>();
+		int[] elemGroups = new int[numElems];
+		int[] counts = new int[numElems];
+		for(int i = 0; i < numElems; i++) {
+			Name name = elemList.get(i).getSimpleName();
+			int slot = System.identityHashCode(name) & mask;
+			int group;
+			while(true) {
+				int entry = nameTable[slot];
+				if(entry == 0) {
+					String key = name.toString();
+					Integer existing = groupsByKey.get(key);
+					if(existing == null) {
+						group = keyList.size();
+						keyList.add(key);
+						groupsByKey.put(key, group);
+					}
+					else {
+						group = existing.intValue();
+					}
+					objs[numObjs] = name;
+					objGroups[numObjs] = group;
+					nameTable[slot] = ++numObjs;
+					break;
+				}
+				if(objs[entry - 1] == name) {
+					group = objGroups[entry - 1];
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+			elemGroups[i] = group;
+			counts[group]++;
+		}
+		this.nameObjects = objs;
+		this.nameGroups = objGroups;
+
+		// second pass: pack elements grouped by name
+		int numGroups = keyList.size();
+		this.keys = keyList.toArray(new String[numGroups]);
+		int[] offsets = new int[numGroups + 1];
+		for(int i = 0; i < numGroups; i++) {
+			offsets[i + 1] = offsets[i] + counts[i];
+		}
+		int[] fill = new int[numGroups];
+		System.arraycopy(offsets, 0, fill, 0, numGroups);
+		this.elements = new Element[numElems];
+		for(int i = 0; i < numElems; i++) {
+			elements[fill[elemGroups[i]]++] = elemList.get(i);
+		}
+
+		// create group lists and the content hash table
+		this.groups = (List<E>[])new List<?>[numGroups];
+		this.keyTable = new int[capacity];
+		for(int i = 0; i < numGroups; i++) {
+			int start = offsets[i];
+			int end = offsets[i + 1];
+			groups[i] = (end - start == 1)
+					? Collections.singletonList((E)elements[start])
+					: new GroupList(start, end);
+			int slot = keys[i].hashCode() & mask;
+			while(keyTable[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			keyTable[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Retrieves the elements with the given name. If the given name object is one of the name
+	 * objects of the indexed elements, the lookup is identity-based. Otherwise, names are compared
+	 * by content.
+	 *
+	 * @param name the name
+	 * @return an unmodifiable list of the elements with the given name, or {@code null} if
+	 * there are no such elements
+	 */
+	public List<E> get(Name name) {
+		int idx = groupOfName(name);
+		if(idx < 0) {
+			idx = groupOfKey(name);
+		}
+		return (idx < 0) ? null : groups[idx];
+	}
+
+	/**
+	 * Retrieves the first element with the given name.
+	 *
+	 * @param name the name
+	 * @return the first element with the given name, or {@code null} if there is no such element
+	 */
+	public E getFirst(CharSequence name) {
+		List<E> group = get((Object)name);
+		return (group == null) ? null : group.get(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	public List<E> get(Object key) {
+		if(key instanceof Name) {
+			return get((Name)key);
+		}
+		if(!(key instanceof CharSequence)) {
+			return null;
+		}
+		int idx = groupOfKey((CharSequence)key);
+		return (idx < 0) ? null : groups[idx];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Map.Entry<String,List<E>>> entrySet() {
+		if(entrySet == null) {
+			entrySet = new AbstractSet<Map.Entry<String,List<E>>>() {
+				@Override
+				public Iterator<Map.Entry<String,List<E>>> iterator() {
+					return new Iterator<Map.Entry<String,List<E>>>() {
+						private int idx = 0;
+						@Override
+						public boolean hasNext() {
+							return idx < keys.length;
+						}
+						@Override
+						public Map.Entry<String,List<E>> next() {
+							if(idx >= keys.length) {
+								throw new NoSuchElementException();
+							}
+							int i = idx++;
+							return new SimpleImmutableEntry<>(keys[i], groups[i]);
+						}
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+				@Override
+				public int size() {
+					return keys.length;
+				}
+			};
+		}
+		return entrySet;
+	}
+
+	private int groupOfName(Name name) {
+		int slot = System.identityHashCode(name) & mask;
+		while(true) {
+			int entry = nameTable[slot];
+			if(entry == 0) {
+				return -1;
+			}
+			if(nameObjects[entry - 1] == name) {
+				return nameGroups[entry - 1];
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private int groupOfKey(CharSequence key) {
+		int slot = hashCode(key) & mask;
+		while(true) {
+			int entry = keyTable[slot];
+			if(entry == 0) {
+				return -1;
+			}
+			if(keys[entry - 1].contentEquals(key)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Computes the hash code of a character sequence, consistent with {@link String#hashCode()}.
+	 */
+	private static int hashCode(CharSequence cs) {
+		if(cs instanceof String) {
+			return cs.hashCode();
+		}
+		int h = 0;
+		int len = cs.length();
+		for(int i = 0; i < len; i++) {
+			h = 31 * h + cs.charAt(i);
+		}
+		return h;
+	}
+
+	private final class GroupList extends AbstractList<E> implements RandomAccess {
+		private final int start;
+		private final int size;
+
+		public GroupList(int start, int end) {
+			this.start = start;
+			this.size = end - start;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E get(int index) {
+			if(index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+			}
+			return (E)elements[start + index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
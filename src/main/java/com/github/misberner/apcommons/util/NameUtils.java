@@ -16,6 +16,13 @@
  */
 package com.github.misberner.apcommons.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.lang.model.element.AnnotationValue;
+
 public class NameUtils {
 	/**
 	 * Qualifies a simple name, if applicable. A package name which is <tt>null</tt> or which
@@ -28,12 +35,27 @@ public class NameUtils {
 	 * @return the qualified name
 	 */
 	public static String qualifiedName(CharSequence simpleName, CharSequence packageName) {
-		StringBuilder sb = new StringBuilder();
+		if(packageName == null || packageName.length() == 0) {
+			return simpleName.toString();
+		}
+		StringBuilder sb = new StringBuilder(packageName.length() + 1 + simpleName.length());
+		return appendQualifiedName(sb, simpleName, packageName).toString();
+	}
+	
+	/**
+	 * Appends a qualified name to a string builder.
+	 * 
+	 * @param sb the string builder to append to
+	 * @param simpleName the simple name
+	 * @param packageName the package name, or <tt>null</tt> for the default package
+	 * @return the string builder <tt>sb</tt>
+	 * @see #qualifiedName(CharSequence, CharSequence)
+	 */
+	public static StringBuilder appendQualifiedName(StringBuilder sb, CharSequence simpleName, CharSequence packageName) {
 		if(packageName != null && packageName.length() > 0) {
 			sb.append(packageName).append('.');
 		}
-		sb.append(simpleName);
-		return sb.toString();
+		return sb.append(simpleName);
 	}
 	
 	/**
@@ -46,10 +68,28 @@ public class NameUtils {
 		if(str.length() == 0) {
 			return "";
 		}
-		StringBuilder sb = new StringBuilder(str.length());
-		sb.append(str.charAt(0));
-		sb.append(str.subSequence(1, str.length()));
-		return sb.toString();
+		if(str instanceof String && !Character.isLowerCase(str.charAt(0))) {
+			return (String)str;
+		}
+		return appendCapitalized(new StringBuilder(str.length()), str).toString();
+	}
+	
+	/**
+	 * Appends the given character sequence to a string builder, capitalizing its first
+	 * character (if existent).
+	 * 
+	 * @param sb the string builder to append to
+	 * @param str the character sequence
+	 * @return the string builder <tt>sb</tt>
+	 * @see #capitalizeFirst(CharSequence)
+	 */
+	public static StringBuilder appendCapitalized(StringBuilder sb, CharSequence str) {
+		int len = str.length();
+		if(len == 0) {
+			return sb;
+		}
+		sb.append(Character.toUpperCase(str.charAt(0)));
+		return sb.append(str, 1, len);
 	}
 	
 	/**
@@ -92,11 +132,46 @@ public class NameUtils {
 		StringBuilder sb = new StringBuilder(prefix.length() + fieldName.length());
 		
 		sb.append(prefix);
-		sb.append(capitalizeFirst(fieldName));
+		appendCapitalized(sb, fieldName);
 		
 		return sb.toString();
 	}
 	
+	/**
+	 * Appends the name of an accessor method, as determined by
+	 * {@link #accessorName(CharSequence, CharSequence, CharSequence, CharSequence)}, to a
+	 * string builder.
+	 * 
+	 * @param sb the string builder to append to
+	 * @param userName the user-specified name, or <tt>null</tt>.
+	 * @param userPrefix the user-specified prefix, or <tt>null</tt>.
+	 * @param defaultPrefix the default prefix, or <tt>null</tt>.
+	 * @param fieldName the name of the field
+	 * @return the string builder <tt>sb</tt>
+	 */
+	public static StringBuilder appendAccessorName(StringBuilder sb,
+			CharSequence userName,
+			CharSequence userPrefix,
+			CharSequence defaultPrefix,
+			CharSequence fieldName) {
+		
+		if(userName != null && userName.length() > 0) {
+			return sb.append(userName);
+		}
+		
+		CharSequence prefix = userPrefix;
+		if(prefix == null) {
+			prefix = defaultPrefix;
+		}
+		
+		if(prefix == null || prefix.length() == 0) {
+			return sb.append(fieldName);
+		}
+		
+		sb.append(prefix);
+		return appendCapitalized(sb, fieldName);
+	}
+	
 	/**
 	 * Convience method. Calling this method is equivalent to calling
 	 * <code>accessorName(userName, userPrefix, "get", fieldName)</code>
@@ -163,6 +238,7 @@ public class NameUtils {
 	 * @param packageNameSpec the specification of the package name, or <tt>null</tt>
 	 * @param referencePackage the reference package name 
 	 * @return the resolved, fully-qualified package name.
+	 * @see PackageNameResolver
 	 */
 	public static String resolvePackageName(CharSequence packageNameSpec, CharSequence referencePackage) {
 		if(packageNameSpec == null) {
@@ -173,20 +249,50 @@ public class NameUtils {
 			return packageNameSpec.toString();
 		}
 		
-		CharSequence subPkg = packageNameSpec.subSequence(1, packageNameSpec.length());
+		int specLen = packageNameSpec.length();
 		
-		if(subPkg.length() == 0) {
+		if(specLen == 1) {
 			return referencePackage.toString();
 		}
 		if(referencePackage.length() == 0) {
-			return subPkg.toString();
+			return packageNameSpec.subSequence(1, specLen).toString();
 		}
 		
-		StringBuilder sb = new StringBuilder(referencePackage.length() + subPkg.length());
-		sb.append(referencePackage).append('.').append(subPkg);
+		StringBuilder sb = new StringBuilder(referencePackage.length() + specLen);
+		sb.append(referencePackage).append(packageNameSpec);
 		return sb.toString();
 	}
 	
+	/**
+	 * Appends the resolved name of a package, as determined by
+	 * {@link #resolvePackageName(CharSequence, CharSequence)}, to a string builder.
+	 * 
+	 * @param sb the string builder to append to
+	 * @param packageNameSpec the specification of the package name, or <tt>null</tt>
+	 * @param referencePackage the reference package name
+	 * @return the string builder <tt>sb</tt>
+	 */
+	public static StringBuilder appendResolvedPackageName(StringBuilder sb,
+			CharSequence packageNameSpec, CharSequence referencePackage) {
+		if(packageNameSpec == null) {
+			return sb.append(referencePackage);
+		}
+		
+		int specLen = packageNameSpec.length();
+		
+		if(specLen == 0 || packageNameSpec.charAt(0) != '.') {
+			return sb.append(packageNameSpec);
+		}
+		if(specLen == 1) {
+			return sb.append(referencePackage);
+		}
+		if(referencePackage.length() == 0) {
+			return sb.append(packageNameSpec, 1, specLen);
+		}
+		
+		return sb.append(referencePackage).append(packageNameSpec);
+	}
+	
 	
 	/**
 	 * Retrieves the first defined (i.e., non-empty and non-<tt>null</tt>) name
@@ -228,6 +334,157 @@ public class NameUtils {
 	}
 	
 	
+	private static final byte JAVA_START = 1;
+	private static final byte JAVA_PART = 2;
+	private static final byte SIMPLE_START = 4;
+	private static final byte SIMPLE_PART = 8;
+	
+	/**
+	 * Character classes of all ASCII characters, as a combination of the above flags.
+	 */
+	private static final byte[] ASCII_CLASSES = new byte[128];
+	
+	static {
+		for(char c = 0; c < 128; c++) {
+			int cls = 0;
+			if(Character.isJavaIdentifierStart(c)) {
+				cls |= JAVA_START;
+			}
+			if(Character.isJavaIdentifierPart(c)) {
+				cls |= JAVA_PART;
+			}
+			if(Character.isAlphabetic(c) || c == '_') {
+				cls |= SIMPLE_START | SIMPLE_PART;
+			}
+			else if(Character.isDigit(c)) {
+				cls |= SIMPLE_PART;
+			}
+			ASCII_CLASSES[c] = (byte)cls;
+		}
+	}
+	
+	/**
+	 * Reserved keywords and literals (which cannot be used as identifiers), followed by restricted
+	 * identifiers (which cannot be used as type names).
+	 */
+	private static final String[] RESERVED_WORDS = {
+		"abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class",
+		"const", "continue", "default", "do", "double", "else", "enum", "extends", "final",
+		"finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int",
+		"interface", "long", "native", "new", "package", "private", "protected", "public",
+		"return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+		"throw", "throws", "transient", "try", "void", "volatile", "while", "_",
+		"true", "false", "null",
+		"var", "yield", "record", "sealed", "permits"
+	};
+	
+	private static final int NUM_KEYWORDS = RESERVED_WORDS.length - 5;
+	
+	private static final int RESERVED_WORD_TABLE_BITS = 8;
+	private static final int MAX_RESERVED_WORD_LENGTH = 12;
+	
+	/**
+	 * Perfect hash table for the reserved words, storing the index into {@link #RESERVED_WORDS}
+	 * plus one (or zero for empty slots).
+	 */
+	private static final byte[] RESERVED_WORD_TABLE = new byte[1 << RESERVED_WORD_TABLE_BITS];
+	/**
+	 * Multiplier of the reserved word hash function, chosen such that the hash function
+	 * is collision-free on {@link #RESERVED_WORDS}.
+	 */
+	private static final int RESERVED_WORD_SEED = 1403;
+	
+	static {
+		if(!buildReservedWordTable(RESERVED_WORD_SEED)) {
+			throw new AssertionError("Reserved word hash is not perfect");
+		}
+	}
+	
+	private static boolean buildReservedWordTable(int seed) {
+		Arrays.fill(RESERVED_WORD_TABLE, (byte)0);
+		for(int i = 0; i < RESERVED_WORDS.length; i++) {
+			int slot = reservedWordHash(RESERVED_WORDS[i], seed);
+			if(RESERVED_WORD_TABLE[slot] != 0) {
+				return false;
+			}
+			RESERVED_WORD_TABLE[slot] = (byte)(i + 1);
+		}
+		return true;
+	}
+	
+	private static int reservedWordHash(CharSequence cs, int seed) {
+		int len = cs.length();
+		int h = len;
+		h = h * seed + cs.charAt(0);
+		h = h * seed + cs.charAt(len - 1);
+		h = h * seed + cs.charAt(len >>> 1);
+		h ^= h >>> 16;
+		h ^= h >>> RESERVED_WORD_TABLE_BITS;
+		return h & ((1 << RESERVED_WORD_TABLE_BITS) - 1);
+	}
+	
+	private static int reservedWordIndex(CharSequence cs) {
+		int len = cs.length();
+		if(len == 0 || len > MAX_RESERVED_WORD_LENGTH) {
+			return -1;
+		}
+		int idx = RESERVED_WORD_TABLE[reservedWordHash(cs, RESERVED_WORD_SEED)] - 1;
+		if(idx < 0) {
+			return -1;
+		}
+		String word = RESERVED_WORDS[idx];
+		if(word.length() != len) {
+			return -1;
+		}
+		for(int i = 0; i < len; i++) {
+			if(word.charAt(i) != cs.charAt(i)) {
+				return -1;
+			}
+		}
+		return idx;
+	}
+	
+	/**
+	 * Checks whether the given character sequence is a reserved keyword or literal
+	 * (<tt>true</tt>, <tt>false</tt>, <tt>null</tt>) of the Java language, i.e., cannot be
+	 * used as an identifier.
+	 * 
+	 * @param cs the character sequence
+	 * @return {@code true} if the character sequence is a reserved keyword or literal,
+	 * {@code false} otherwise
+	 */
+	public static boolean isKeyword(CharSequence cs) {
+		int idx = reservedWordIndex(cs);
+		return (idx >= 0 && idx < NUM_KEYWORDS);
+	}
+	
+	/**
+	 * Checks whether the given character sequence is a restricted identifier of the Java
+	 * language (<tt>var</tt>, <tt>yield</tt>, <tt>record</tt>, <tt>sealed</tt>, <tt>permits</tt>),
+	 * i.e., cannot be used as a type name.
+	 * 
+	 * @param cs the character sequence
+	 * @return {@code true} if the character sequence is a restricted identifier, {@code false}
+	 * otherwise
+	 */
+	public static boolean isRestrictedIdentifier(CharSequence cs) {
+		return reservedWordIndex(cs) >= NUM_KEYWORDS;
+	}
+	
+	public static boolean isJavaIdentifierStart(char c) {
+		if(c < 128) {
+			return (ASCII_CLASSES[c] & JAVA_START) != 0;
+		}
+		return Character.isJavaIdentifierStart(c);
+	}
+	
+	public static boolean isJavaIdentifierPart(char c) {
+		if(c < 128) {
+			return (ASCII_CLASSES[c] & JAVA_PART) != 0;
+		}
+		return Character.isJavaIdentifierPart(c);
+	}
+	
 	public static boolean isJavaIdentifier(CharSequence cs) {
 		int len = cs.length();
 		
@@ -235,12 +492,12 @@ public class NameUtils {
 			return false;
 		}
 		
-		if(Character.isJavaIdentifierStart(cs.charAt(0))) {
+		if(!isJavaIdentifierStart(cs.charAt(0))) {
 			return false;
 		}
 		
 		for(int i = 1; i < len; i++) {
-			if(!Character.isJavaIdentifierPart(cs.charAt(i))) {
+			if(!isJavaIdentifierPart(cs.charAt(i))) {
 				return false;
 			}
 		}
@@ -248,12 +505,29 @@ public class NameUtils {
 		return true;
 	}
 	
+	/**
+	 * Checks whether the given character sequence is a Java identifier that can be used as
+	 * a name, i.e., is not a {@link #isKeyword(CharSequence) keyword}.
+	 * 
+	 * @param cs the character sequence
+	 * @return {@code true} if the character sequence is a valid name, {@code false} otherwise
+	 */
+	public static boolean isValidJavaName(CharSequence cs) {
+		return isJavaIdentifier(cs) && !isKeyword(cs);
+	}
+	
 	public static boolean isSimpleJavaIdentifierStart(char c) {
-		return Character.isAlphabetic(c) || (c == '_');
+		if(c < 128) {
+			return (ASCII_CLASSES[c] & SIMPLE_START) != 0;
+		}
+		return Character.isAlphabetic(c);
 	}
 	
 	public static boolean isSimpleJavaIdentifierPart(char c) {
-		return Character.isAlphabetic(c) || Character.isDigit(c) || (c == '_');
+		if(c < 128) {
+			return (ASCII_CLASSES[c] & SIMPLE_PART) != 0;
+		}
+		return Character.isAlphabetic(c) || Character.isDigit(c);
 	}
 	
 	public static boolean isSimpleJavaIdentifier(CharSequence cs) {
@@ -278,17 +552,21 @@ public class NameUtils {
 	
 	
 	public static boolean isValidPackageName(CharSequence cs) {
+		return isValidPackageName(cs, 0);
+	}
+	
+	private static boolean isValidPackageName(CharSequence cs, int start) {
 		int len = cs.length();
 		
-		if(len == 0) {
+		if(len == start) {
 			return true;
 		}
 		
 		boolean compStart = true;
-		for(int i = 0; i < len; i++) {
+		for(int i = start; i < len; i++) {
 			char c = cs.charAt(i);
 			if(compStart == true) {
-				if(!Character.isJavaIdentifierStart(c)) {
+				if(!isJavaIdentifierStart(c)) {
 					return false;
 				}
 				compStart = false;
@@ -296,7 +574,7 @@ public class NameUtils {
 			else if(c == '.') {
 				compStart = true;
 			}
-			else if(!Character.isJavaIdentifierPart(c)) {
+			else if(!isJavaIdentifierPart(c)) {
 				return false;
 			}
 		}
@@ -311,30 +589,95 @@ public class NameUtils {
 			return true;
 		}
 		
-		if(cs.charAt(0) == '.') {
-			cs = cs.subSequence(1, len);
+		return isValidPackageName(cs, (cs.charAt(0) == '.') ? 1 : 0);
+	}
+	
+	/**
+	 * Validates the elements of an array-valued annotation attribute as Java identifiers, e.g.,
+	 * as the names of members to generate.
+	 * 
+	 * @param values the annotation values (the elements of the attribute's array value)
+	 * @return the values which are not {@link String}s representing
+	 * {@link #isValidJavaName(CharSequence) valid names}, in their original order. If all values
+	 * are valid, an empty list is returned.
+	 */
+	public static List<AnnotationValue> findInvalidJavaNames(List<? extends AnnotationValue> values) {
+		return findInvalid(values, false);
+	}
+	
+	/**
+	 * Validates the elements of an array-valued annotation attribute as
+	 * {@link #isValidPackageReference(CharSequence) package references}.
+	 * 
+	 * @param values the annotation values (the elements of the attribute's array value)
+	 * @return the values which are not {@link String}s representing valid package references,
+	 * in their original order. If all values are valid, an empty list is returned.
+	 */
+	public static List<AnnotationValue> findInvalidPackageReferences(List<? extends AnnotationValue> values) {
+		return findInvalid(values, true);
+	}
+	
+	private static List<AnnotationValue> findInvalid(List<? extends AnnotationValue> values, boolean packageRefs) {
+		List<AnnotationValue> result = null;
+		for(AnnotationValue av : values) {
+			Object v = av.getValue();
+			boolean valid;
+			if(!(v instanceof String)) {
+				valid = false;
+			}
+			else if(packageRefs) {
+				valid = isValidPackageReference((String)v);
+			}
+			else {
+				valid = isValidJavaName((String)v);
+			}
+			if(!valid) {
+				if(result == null) {
+					result = new ArrayList<>();
+				}
+				result.add(av);
+			}
 		}
-		
-		return isValidPackageName(cs);
+		if(result == null) {
+			return Collections.emptyList();
+		}
+		return result;
 	}
 
+	/**
+	 * Concatenates the given components in camel case, i.e., capitalizing the first character
+	 * of every component but the first. <tt>null</tt> or empty components are skipped.
+	 * 
+	 * @param components the name components
+	 * @return the camel-cased concatenation of the components
+	 */
 	public static String camelCase(CharSequence... components) {
-		StringBuilder sb = new StringBuilder();
-		
+		return appendCamelCase(new StringBuilder(), components).toString();
+	}
+	
+	/**
+	 * Appends the camel-cased concatenation of the given components to a string builder.
+	 * 
+	 * @param sb the string builder to append to
+	 * @param components the name components
+	 * @return the string builder <tt>sb</tt>
+	 * @see #camelCase(CharSequence...)
+	 */
+	public static StringBuilder appendCamelCase(StringBuilder sb, CharSequence... components) {
 		boolean start = true;
 		for(CharSequence comp : components) {
-			if(comp != null && comp.length() == 0) {
+			if(comp != null && comp.length() > 0) {
 				if(start) {
 					sb.append(comp);
 					start = false;
 				}
 				else {
-					sb.append(capitalizeFirst(comp));
+					appendCapitalized(sb, comp);
 				}
 			}
 		}
 		
-		return sb.toString();
+		return sb;
 	}
 
 }
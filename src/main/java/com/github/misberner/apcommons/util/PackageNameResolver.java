@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * Resolves package name specifications, as accepted by
+ * {@link NameUtils#resolvePackageName(CharSequence, CharSequence)}, and caches the results.
+ * <p>
+ * Results are cached per (specification, reference package) pair. Specifications are validated
+ * only once, and each distinct resolved package is represented by a single
+ * {@link ResolvedPackage} object, holding the interned package name and the corresponding
+ * {@link PackageElement} (if the package exists).
+ * <p>
+ * Resolved packages are cached, hence the resolver must be {@link #clear() cleared} at the
+ * beginning of each round (see {@link APUtils#invalidateCaches()}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class PackageNameResolver {
+
+	/**
+	 * A resolved package.
+	 */
+	public static final class ResolvedPackage {
+		private final String name;
+		private final PackageElement packageElement;
+
+		private ResolvedPackage(String name, PackageElement packageElement) {
+			this.name = name;
+			this.packageElement = packageElement;
+		}
+
+		/**
+		 * Retrieves the fully-qualified name of the package. Resolved packages with equal names
+		 * share the same string instance.
+		 * @return the qualified package name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Retrieves the package element of the resolved package.
+		 * @return the package element, or {@code null} if the package does not exist (yet)
+		 */
+		public PackageElement getPackageElement() {
+			return packageElement;
+		}
+
+		/**
+		 * Checks whether the resolved package exists.
+		 * @return {@code true} if the package exists, {@code false} otherwise
+		 */
+		public boolean exists() {
+			return packageElement != null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static final class SpecEntry {
+		private final String spec;
+		private final boolean valid;
+		private final Map<PackageElement,ResolvedPackage> byElement = new IdentityHashMap<>();
+		private final Map<String,ResolvedPackage> byName = new HashMap<>();
+
+		public SpecEntry(String spec) {
+			this.spec = spec;
+			this.valid = (spec == null || NameUtils.isValidPackageReference(spec));
+		}
+	}
+
+	private final Elements elementUtils;
+	private final Map<String,SpecEntry> specs = new HashMap<>();
+	private SpecEntry nullSpec;
+	private final Map<String,ResolvedPackage> packages = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param elementUtils the element utilities, used for looking up package elements
+	 */
+	public PackageNameResolver(Elements elementUtils) {
+		this.elementUtils = elementUtils;
+	}
+
+	/**
+	 * Resolves a package name specification relative to a reference package.
+	 *
+	 * @param packageNameSpec the specification of the package name, or {@code null}
+	 * @param referencePackage the reference package
+	 * @return the resolved package, or {@code null} if the specification is not a
+	 * {@link NameUtils#isValidPackageReference(CharSequence) valid package reference}
+	 * @see NameUtils#resolvePackageName(CharSequence, CharSequence)
+	 */
+	public ResolvedPackage resolve(CharSequence packageNameSpec, PackageElement referencePackage) {
+		SpecEntry se = getSpecEntry(packageNameSpec);
+		if(!se.valid) {
+			return null;
+		}
+		ResolvedPackage result = se.byElement.get(referencePackage);
+		if(result == null) {
+			result = doResolve(se, referencePackage.getQualifiedName());
+			se.byElement.put(referencePackage, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Resolves a package name specification relative to a reference package name.
+	 *
+	 * @param packageNameSpec the specification of the package name, or {@code null}
+	 * @param referencePackage the qualified name of the reference package
+	 * @return the resolved package, or {@code null} if the specification is not a
+	 * {@link NameUtils#isValidPackageReference(CharSequence) valid package reference}
+	 * @see NameUtils#resolvePackageName(CharSequence, CharSequence)
+	 */
+	public ResolvedPackage resolve(CharSequence packageNameSpec, CharSequence referencePackage) {
+		SpecEntry se = getSpecEntry(packageNameSpec);
+		if(!se.valid) {
+			return null;
+		}
+		String refName = referencePackage.toString();
+		ResolvedPackage result = se.byName.get(refName);
+		if(result == null) {
+			result = doResolve(se, refName);
+			se.byName.put(refName, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Retrieves the package with the given qualified name.
+	 *
+	 * @param packageName the qualified package name
+	 * @return the package, represented as a resolved package
+	 */
+	public ResolvedPackage getPackage(CharSequence packageName) {
+		String name = packageName.toString();
+		ResolvedPackage result = packages.get(name);
+		if(result == null) {
+			result = new ResolvedPackage(name, elementUtils.getPackageElement(name));
+			packages.put(name, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Clears this resolver. This method needs to be called at the beginning of each round
+	 * of annotation processing.
+	 */
+	public void clear() {
+		specs.clear();
+		nullSpec = null;
+		packages.clear();
+	}
+
+	private SpecEntry getSpecEntry(CharSequence packageNameSpec) {
+		if(packageNameSpec == null) {
+			if(nullSpec == null) {
+				nullSpec = new SpecEntry(null);
+			}
+			return nullSpec;
+		}
+		String spec = packageNameSpec.toString();
+		SpecEntry se = specs.get(spec);
+		if(se == null) {
+			se = new SpecEntry(spec);
+			specs.put(spec, se);
+		}
+		return se;
+	}
+
+	private ResolvedPackage doResolve(SpecEntry se, CharSequence referencePackage) {
+		return getPackage(NameUtils.resolvePackageName(se.spec, referencePackage));
+	}
+}
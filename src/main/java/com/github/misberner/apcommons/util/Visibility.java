@@ -65,6 +65,10 @@ public enum Visibility {
 	
 	public static Visibility fromModifiers(Set<? extends Modifier> modifiers) {
 		
+		if(modifiers.isEmpty()) {
+			return PACKAGE_PRIVATE;
+		}
+		
 		Visibility vis = null;
 		
 		if(modifiers.contains(Modifier.PUBLIC)) {
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+
+/**
+ * A cache for the (declared and effective) visibilities of elements.
+ * <p>
+ * The effective visibility of an element is the meet of its declared visibility and the
+ * effective visibility of its enclosing element (unless the latter is a package). When it is
+ * computed, the effective visibilities of all enclosing elements are cached as well, such that
+ * querying all members of a type only walks the chain of enclosing elements once.
+ * <p>
+ * Elements are compared by identity, hence the cache must be {@link #clear() cleared} at the
+ * beginning of each round (see {@link APUtils#invalidateCaches()}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class VisibilityCache {
+
+	private final Map<Element,Visibility> visibilities = new IdentityHashMap<>();
+	private final Map<Element,Visibility> effectiveVisibilities = new IdentityHashMap<>();
+
+	/**
+	 * Retrieves the declared visibility of an element.
+	 *
+	 * @param elem the element
+	 * @return the declared visibility of the element
+	 * @see Visibility#of(Element)
+	 */
+	public Visibility getVisibility(Element elem) {
+		Visibility vis = visibilities.get(elem);
+		if(vis == null) {
+			vis = Visibility.of(elem);
+			visibilities.put(elem, vis);
+		}
+		return vis;
+	}
+
+	/**
+	 * Retrieves the effective visibility of an element, taking into account the visibilities
+	 * of all enclosing elements.
+	 *
+	 * @param elem the element
+	 * @return the effective visibility of the element
+	 * @see ElementUtils#getEffectiveVisibility(Element)
+	 */
+	public Visibility getEffectiveVisibility(Element elem) {
+		Visibility vis = effectiveVisibilities.get(elem);
+		if(vis == null) {
+			vis = getVisibility(elem);
+			Element enclosing = elem.getEnclosingElement();
+			if(vis != Visibility.PRIVATE && enclosing != null && enclosing.getKind() != ElementKind.PACKAGE) {
+				vis = vis.meet(getEffectiveVisibility(enclosing));
+			}
+			effectiveVisibilities.put(elem, vis);
+		}
+		return vis;
+	}
+
+	/**
+	 * Partitions the given elements by their effective visibility.
+	 *
+	 * @param elements the elements
+	 * @return a map containing, for every visibility, the list of elements with this effective
+	 * visibility (in their original order)
+	 * @see ElementUtils#partitionByVisibility(Iterable)
+	 */
+	public <E extends Element>
+	EnumMap<Visibility,List<E>> partitionByEffectiveVisibility(Iterable<? extends E> elements) {
+		EnumMap<Visibility,List<E>> result = ElementUtils.newVisibilityPartition();
+		for(E elem : elements) {
+			result.get(getEffectiveVisibility(elem)).add(elem);
+		}
+		return result;
+	}
+
+	/**
+	 * Clears this cache. This method needs to be called at the beginning of each round
+	 * of annotation processing.
+	 */
+	public void clear() {
+		visibilities.clear();
+		effectiveVisibilities.clear();
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util.annotations;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * A cache for the annotation mirrors of elements, allowing to look up annotation mirrors
+ * by the qualified name of their annotation type in constant time.
+ * <p>
+ * Elements are compared by identity, hence the cache must be {@link #clear() cleared} at the
+ * beginning of each round (see {@link com.github.misberner.apcommons.util.APUtils#invalidateCaches() APUtils.invalidateCaches()}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public class AnnotationMirrorCache {
+
+	private final Map<Element,Map<String,AnnotationMirror>> cache = new IdentityHashMap<>();
+
+	/**
+	 * Retrieves a by-name mapping of the annotation mirrors of the given element. The keys are
+	 * the fully qualified names of the respective annotation types.
+	 *
+	 * @param elem the element
+	 * @return an unmodifiable by-name mapping of the element's annotation mirrors
+	 */
+	public Map<String,AnnotationMirror> getAnnotationMirrors(Element elem) {
+		Map<String,AnnotationMirror> mirrors = cache.get(elem);
+		if(mirrors == null) {
+			mirrors = buildAnnotationMirrors(elem);
+			cache.put(elem, mirrors);
+		}
+		return mirrors;
+	}
+
+	/**
+	 * Find an annotation mirror of an element, given the annotation's fully qualified class name.
+	 *
+	 * @param elem the element
+	 * @param annClassName the fully qualified class name of the annotation
+	 * @return the respective annotation mirror, or <tt>null</tt> if the element is not annotated
+	 * with the given annotation.
+	 * @see AnnotationUtils#findAnnotationMirror(Element, CharSequence)
+	 */
+	public AnnotationMirror findAnnotationMirror(Element elem, CharSequence annClassName) {
+		return getAnnotationMirrors(elem).get(annClassName.toString());
+	}
+
+	/**
+	 * Find an annotation mirror of an element, given the annotation's {@link Class} object.
+	 *
+	 * @param elem the element
+	 * @param annClass the annotation's {@link Class} object
+	 * @return the respective annotation mirror, or <tt>null</tt> if the element is not annotated
+	 * with the given annotation.
+	 * @see AnnotationUtils#findAnnotationMirror(Element, Class)
+	 */
+	public AnnotationMirror findAnnotationMirror(Element elem, Class<? extends Annotation> annClass) {
+		return findAnnotationMirror(elem, annClass.getCanonicalName());
+	}
+
+	/**
+	 * Clears this cache. This method needs to be called at the beginning of each round
+	 * of annotation processing.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	private static Map<String,AnnotationMirror> buildAnnotationMirrors(Element elem) {
+		List<? extends AnnotationMirror> mirrors = elem.getAnnotationMirrors();
+		switch(mirrors.size()) {
+		case 0:
+			return Collections.emptyMap();
+		case 1:
+			AnnotationMirror am = mirrors.get(0);
+			return Collections.singletonMap(getAnnotationName(am), am);
+		default:
+		}
+
+		Map<String,AnnotationMirror> result = new HashMap<>();
+		for(AnnotationMirror am : mirrors) {
+			result.put(getAnnotationName(am), am);
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	private static String getAnnotationName(AnnotationMirror am) {
+		TypeElement te = (TypeElement)am.getAnnotationType().asElement();
+		return te.getQualifiedName().toString();
+	}
+
+}
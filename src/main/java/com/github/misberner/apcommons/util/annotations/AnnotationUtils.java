@@ -158,7 +158,7 @@ public abstract class AnnotationUtils {
 	 * with the given annotation.
 	 */
 	public static AnnotationMirror findAnnotationMirror(Element elem, Class<? extends Annotation> annClass) {
-		return findAnnotationMirror(elem, annClass.getName());
+		return findAnnotationMirror(elem, annClass.getCanonicalName());
 	}
 	
 	/**
@@ -170,6 +170,7 @@ public abstract class AnnotationUtils {
 	 * @param am the annotation mirror
 	 * @param valueName the name of the value
 	 * @return the respective annotation value, or <tt>null</tt> if no such value exists or was explicitly set
+	 * @see AnnotationValues
 	 */
 	public static AnnotationValue findAnnotationValue(AnnotationMirror am, CharSequence valueName) {
 		for(Map.Entry<? extends ExecutableElement,? extends AnnotationValue> e : am.getElementValues().entrySet()) {
@@ -179,6 +180,15 @@ public abstract class AnnotationUtils {
 		return null;
 	}
 	
+	/**
+	 * Retrieves a by-name map of the explicitly set values of an annotation mirror.
+	 * <p>
+	 * <i>Note:</i> this method creates a new map upon every invocation. If values are
+	 * accessed repeatedly, consider using {@link AnnotationValues} instead.
+	 * 
+	 * @param am the annotation mirror
+	 * @return a by-name map of the explicitly set annotation values
+	 */
 	public static Map<String,AnnotationValue> getAnnotationValues(AnnotationMirror am) {
 		Map<String,AnnotationValue> result = new HashMap<>();
 		for(Map.Entry<? extends ExecutableElement,? extends AnnotationValue> e : am.getElementValues().entrySet()) {
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util.annotations;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+
+/**
+ * An immutable, by-name view on the values of an {@link AnnotationMirror}.
+ * <p>
+ * The view is built once, and then provides constant-time, typed access to the values
+ * of the annotation's members. Optionally, it can include the default values of members
+ * which were not set explicitly.
+ * <p>
+ * The typed accessors ({@link #getString(CharSequence)}, {@link #getInt(CharSequence)} etc.)
+ * throw an {@link IllegalArgumentException} if the value of the respective member is not of
+ * the requested type. Accessors for reference types return {@code null} if no value exists
+ * for the given member, whereas accessors for primitive types throw an
+ * {@link IllegalArgumentException} in this case.
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class AnnotationValues {
+
+	/**
+	 * Creates a view on the explicitly set values of the given annotation mirror.
+	 *
+	 * @param am the annotation mirror
+	 * @return a view on the annotation mirror's explicitly set values
+	 */
+	public static AnnotationValues of(AnnotationMirror am) {
+		return new AnnotationValues(am, am.getElementValues());
+	}
+
+	/**
+	 * Creates a view on the values of the given annotation mirror, including default
+	 * values.
+	 *
+	 * @param am the annotation mirror
+	 * @param elementUtils the element utilities, used for determining default values
+	 * @return a view on the annotation mirror's values, including defaults
+	 * @see Elements#getElementValuesWithDefaults(AnnotationMirror)
+	 */
+	public static AnnotationValues withDefaults(AnnotationMirror am, Elements elementUtils) {
+		return new AnnotationValues(am, elementUtils.getElementValuesWithDefaults(am));
+	}
+
+	private final AnnotationMirror annotationMirror;
+	private final Map<String,AnnotationValue> values;
+
+	private AnnotationValues(AnnotationMirror annotationMirror,
+			Map<? extends ExecutableElement,? extends AnnotationValue> elementValues) {
+		this.annotationMirror = annotationMirror;
+
+		switch(elementValues.size()) {
+		case 0:
+			this.values = Collections.emptyMap();
+			break;
+		case 1:
+			Map.Entry<? extends ExecutableElement,? extends AnnotationValue> e
+				= elementValues.entrySet().iterator().next();
+			this.values = Collections.singletonMap(memberName(e.getKey()), (AnnotationValue)e.getValue());
+			break;
+		default:
+			Map<String,AnnotationValue> valueMap = new HashMap<>();
+			for(Map.Entry<? extends ExecutableElement,? extends AnnotationValue> entry : elementValues.entrySet()) {
+				valueMap.put(memberName(entry.getKey()), entry.getValue());
+			}
+			this.values = Collections.unmodifiableMap(valueMap);
+		}
+	}
+
+	/**
+	 * Retrieves the annotation mirror this view refers to.
+	 *
+	 * @return the annotation mirror
+	 */
+	public AnnotationMirror getAnnotationMirror() {
+		return annotationMirror;
+	}
+
+	/**
+	 * Retrieves the names of all members for which this view contains values.
+	 *
+	 * @return an unmodifiable set of member names
+	 */
+	public Set<String> getNames() {
+		return values.keySet();
+	}
+
+	/**
+	 * Retrieves a by-name map of all annotation values.
+	 *
+	 * @return an unmodifiable by-name map of all annotation values
+	 */
+	public Map<String,AnnotationValue> asMap() {
+		return values;
+	}
+
+	/**
+	 * Checks whether this view contains a value for the given member.
+	 *
+	 * @param name the member name
+	 * @return {@code true} if a value exists for the given member, {@code false} otherwise
+	 */
+	public boolean contains(CharSequence name) {
+		return values.containsKey(name.toString());
+	}
+
+	/**
+	 * Retrieves the annotation value for the member of the given name.
+	 *
+	 * @param name the member name
+	 * @return the annotation value, or {@code null} if no value exists for the given member
+	 */
+	public AnnotationValue get(CharSequence name) {
+		return values.get(name.toString());
+	}
+
+	/**
+	 * Retrieves the annotation value for the given member.
+	 *
+	 * @param member the annotation type member
+	 * @return the annotation value, or {@code null} if no value exists for the given member
+	 */
+	public AnnotationValue get(ExecutableElement member) {
+		return get(member.getSimpleName());
+	}
+
+	/**
+	 * Retrieves the raw value (see {@link AnnotationValue#getValue()}) for the member of the given
+	 * name.
+	 *
+	 * @param name the member name
+	 * @return the raw value, or {@code null} if no value exists for the given member
+	 */
+	public Object getValue(CharSequence name) {
+		AnnotationValue av = get(name);
+		if(av == null) {
+			return null;
+		}
+		return av.getValue();
+	}
+
+	/**
+	 * Retrieves the value of a member of type {@link String}.
+	 *
+	 * @param name the member name
+	 * @return the string, or {@code null} if no value exists for the given member
+	 * @throws IllegalArgumentException if the value is of a different type
+	 */
+	public String getString(CharSequence name) {
+		return getValue(name, String.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>boolean</tt>.
+	 *
+	 * @param name the member name
+	 * @return the boolean value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public boolean getBoolean(CharSequence name) {
+		return requireValue(name, Boolean.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>char</tt>.
+	 *
+	 * @param name the member name
+	 * @return the char value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public char getChar(CharSequence name) {
+		return requireValue(name, Character.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>byte</tt>.
+	 *
+	 * @param name the member name
+	 * @return the byte value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public byte getByte(CharSequence name) {
+		return requireValue(name, Byte.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>short</tt>.
+	 *
+	 * @param name the member name
+	 * @return the short value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public short getShort(CharSequence name) {
+		return requireValue(name, Short.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>int</tt>.
+	 *
+	 * @param name the member name
+	 * @return the int value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public int getInt(CharSequence name) {
+		return requireValue(name, Integer.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>long</tt>.
+	 *
+	 * @param name the member name
+	 * @return the long value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public long getLong(CharSequence name) {
+		return requireValue(name, Long.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>float</tt>.
+	 *
+	 * @param name the member name
+	 * @return the float value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public float getFloat(CharSequence name) {
+		return requireValue(name, Float.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type <tt>double</tt>.
+	 *
+	 * @param name the member name
+	 * @return the double value
+	 * @throws IllegalArgumentException if no value exists for the given member, or if it is
+	 * of a different type
+	 */
+	public double getDouble(CharSequence name) {
+		return requireValue(name, Double.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of type {@link Class}.
+	 *
+	 * @param name the member name
+	 * @return the type mirror, or {@code null} if no value exists for the given member
+	 */
+	public TypeMirror getTypeMirror(CharSequence name) {
+		return getValue(name, TypeMirror.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of an enum type as an enum constant element.
+	 *
+	 * @param name the member name
+	 * @return the enum constant element, or {@code null} if no value exists for the given member
+	 */
+	public VariableElement getEnumConstant(CharSequence name) {
+		return getValue(name, VariableElement.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of an enum type as an enum constant.
+	 *
+	 * @param name the member name
+	 * @param enumClazz the enum class
+	 * @return the enum constant, or {@code null} if no value exists for the given member
+	 * @throws IllegalArgumentException if the enum class does not contain a constant with
+	 * the respective name
+	 */
+	public <E extends Enum<E>> E getEnum(CharSequence name, Class<E> enumClazz) {
+		VariableElement constant = getEnumConstant(name);
+		if(constant == null) {
+			return null;
+		}
+		return Enum.valueOf(enumClazz, constant.getSimpleName().toString());
+	}
+
+	/**
+	 * Retrieves the value of a member of an annotation type.
+	 *
+	 * @param name the member name
+	 * @return the annotation mirror, or {@code null} if no value exists for the given member
+	 */
+	public AnnotationMirror getAnnotation(CharSequence name) {
+		return getValue(name, AnnotationMirror.class);
+	}
+
+	/**
+	 * Retrieves the value of a member of an array type.
+	 *
+	 * @param name the member name
+	 * @return the list of array element values, or {@code null} if no value exists for
+	 * the given member
+	 */
+	@SuppressWarnings("unchecked")
+	public List<? extends AnnotationValue> getArray(CharSequence name) {
+		return getValue(name, List.class);
+	}
+
+	private <T> T getValue(CharSequence name, Class<T> clazz) {
+		Object value = getValue(name);
+		if(value == null) {
+			return null;
+		}
+		if(!clazz.isInstance(value)) {
+			throw new IllegalArgumentException("Value of member '" + name + "' is not of type "
+					+ clazz.getSimpleName());
+		}
+		return clazz.cast(value);
+	}
+
+	private <T> T requireValue(CharSequence name, Class<T> clazz) {
+		T value = getValue(name, clazz);
+		if(value == null) {
+			throw new IllegalArgumentException("No value for member '" + name + "'");
+		}
+		return value;
+	}
+
+	private static String memberName(ExecutableElement member) {
+		return member.getSimpleName().toString();
+	}
+}
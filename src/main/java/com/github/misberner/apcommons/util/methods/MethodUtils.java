@@ -51,6 +51,23 @@ public abstract class MethodUtils {
 		return (ObjectMethod.getObjectMethod(method) != null);
 	}
 	
+	/**
+	 * Filters out the methods declared by the {@link Object} class (see
+	 * {@link #isObjectMethod(ExecutableElement)}).
+	 * 
+	 * @param methods the methods to filter
+	 * @return a list of all methods from {@code methods} which are not declared by {@link Object}
+	 */
+	public static List<ExecutableElement> filterObjectMethods(Iterable<? extends ExecutableElement> methods) {
+		List<ExecutableElement> result = new ArrayList<>();
+		for(ExecutableElement method : methods) {
+			if(!isObjectMethod(method)) {
+				result.add(method);
+			}
+		}
+		return result;
+	}
+	
 	public static boolean checkSignature(ExecutableElement elem, TypeMatcher returnTypeMatcher, TypeMatcher ...paramTypeMatchers) {
 		List<? extends VariableElement> params = elem.getParameters();
 		if(params.size() != paramTypeMatchers.length) {
@@ -17,7 +17,9 @@ package com.github.misberner.apcommons.util.methods;
 
 import java.util.List;
 
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.VariableElement;
 
 import com.github.misberner.apcommons.util.types.TypeUtils;
@@ -110,21 +112,91 @@ public enum ObjectMethod {
 		return NO_METHODS;
 	}
 	
+	/**
+	 * Retrieves the {@link ObjectMethod} corresponding to the given method, if any.
+	 * <p>
+	 * The candidates are determined by the arity of the method, and their names are compared
+	 * to the simple name of the method via {@link Name#contentEquals(CharSequence)},
+	 * hence the lookup does not allocate. Only the signature of the candidate with the same
+	 * name is checked.
+	 * 
+	 * @param ee the method
+	 * @return the corresponding {@link ObjectMethod}, or {@code null} if the method is not
+	 * one of the methods declared by {@link Object}
+	 */
 	public static ObjectMethod getObjectMethod(ExecutableElement ee) {
-		List<? extends VariableElement> params = ee.getParameters();
-		
-		int arity = params.size();
-		
-		ObjectMethod[] candidates = methodsOfArity(arity);
-		
+		if(ee.getKind() != ElementKind.METHOD) {
+			return null;
+		}
+		ObjectMethod[] candidates;
+		switch(ee.getParameters().size()) {
+		case 0:
+			candidates = ARITY_0_METHODS;
+			break;
+		case 1:
+			candidates = ARITY_1_METHODS;
+			break;
+		case 2:
+			candidates = ARITY_2_METHODS;
+			break;
+		default:
+			return null;
+		}
+		Name name = ee.getSimpleName();
 		for(ObjectMethod cand : candidates) {
-			if(cand.is(ee)) {
-				return cand;
+			if(name.contentEquals(cand.simpleName)) {
+				return cand.checkSignature(ee) ? cand : null;
 			}
 		}
-		
 		return null;
 	}
+	
+	/**
+	 * Looks up the {@link ObjectMethod} with the given simple name and arity.
+	 * 
+	 * @param simpleName the simple name of the method
+	 * @param arity the number of parameters
+	 * @return the {@link ObjectMethod} with the given simple name and arity, or {@code null}
+	 * if no such method exists
+	 */
+	public static ObjectMethod lookup(String simpleName, int arity) {
+		switch(arity) {
+		case 0:
+			switch(simpleName) {
+			case "clone":
+				return CLONE;
+			case "finalize":
+				return FINALIZE;
+			case "getClass":
+				return GET_CLASS;
+			case "hashCode":
+				return HASH_CODE;
+			case "notify":
+				return NOTIFY;
+			case "notifyAll":
+				return NOTIFY_ALL;
+			case "toString":
+				return TO_STRING;
+			case "wait":
+				return WAIT;
+			default:
+				return null;
+			}
+		case 1:
+			switch(simpleName) {
+			case "equals":
+				return EQUALS;
+			case "wait":
+				return WAIT1;
+			default:
+				return null;
+			}
+		case 2:
+			return "wait".equals(simpleName) ? WAIT2 : null;
+		default:
+			return null;
+		}
+	}
 
 	private final String simpleName;
 	private final TypeMatcher returnTypeMatcher;
@@ -155,8 +227,11 @@ public enum ObjectMethod {
 			return false;
 		}
 		
+		return checkSignature(ee);
+	}
+	
+	private boolean checkSignature(ExecutableElement ee) {
 		return MethodUtils.checkSignature(ee, returnTypeMatcher, paramTypeMatchers);
 	}
-
 	
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util.methods;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.Types;
+
+/**
+ * An index of methods (or constructors) by their name and erased parameter types.
+ * <p>
+ * The names of the erased parameter types of all indexed methods are computed once upon
+ * construction. A lookup then only requires computing a hash over the given name and parameter
+ * type names, and comparing against the (usually single) method with the same hash. No strings
+ * are allocated during lookups.
+ * <p>
+ * Parameter type names are expected in their canonical form, i.e., as returned by
+ * {@link Class#getCanonicalName()} (e.g., <tt>"java.util.Map.Entry"</tt> or <tt>"int[]"</tt>).
+ * Constructors are indexed under the name <tt>"&lt;init&gt;"</tt>
+ * (see {@link #CONSTRUCTOR_NAME}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class SignatureIndex {
+
+	/**
+	 * The name under which constructors are indexed.
+	 */
+	public static final String CONSTRUCTOR_NAME = "<init>";
+
+	private static final ClassValue<String> CANONICAL_NAMES = new ClassValue<String>() {
+		@Override
+		protected String computeValue(Class<?> type) {
+			String name = type.getCanonicalName();
+			return (name != null) ? name : type.getName();
+		}
+	};
+
+	private static final class Entry {
+		private final ExecutableElement method;
+		private final String name;
+		private final String[] paramTypeNames;
+		private final int hash;
+		private Entry next;
+
+		public Entry(ExecutableElement method, String name, String[] paramTypeNames, int hash) {
+			this.method = method;
+			this.name = name;
+			this.paramTypeNames = paramTypeNames;
+			this.hash = hash;
+		}
+	}
+
+	private final Entry[] table;
+	private final int mask;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param methods the methods to index. If several methods have the same signature, the first
+	 * one takes precedence.
+	 * @param typeUtils the type utilities, used for computing erasures
+	 */
+	public SignatureIndex(Collection<? extends ExecutableElement> methods, Types typeUtils) {
+		int capacity = Integer.highestOneBit(Math.max(1, methods.size() * 2 - 1)) << 1;
+		this.table = new Entry[capacity];
+		this.mask = capacity - 1;
+
+		for(ExecutableElement method : methods) {
+			String name = method.getSimpleName().toString();
+			List<? extends VariableElement> params = method.getParameters();
+			String[] paramTypeNames = new String[params.size()];
+			int i = 0;
+			for(VariableElement param : params) {
+				paramTypeNames[i++] = typeUtils.erasure(param.asType()).toString();
+			}
+			int hash = hash(name, paramTypeNames);
+			Entry entry = new Entry(method, name, paramTypeNames, hash);
+			insert(entry);
+		}
+	}
+
+	/**
+	 * Finds a method by its name and erased parameter type names.
+	 *
+	 * @param name the method name
+	 * @param paramTypeNames the canonical names of the erased parameter types
+	 * @return the method with the given signature, or {@code null} if no such method exists
+	 */
+	public ExecutableElement find(CharSequence name, CharSequence... paramTypeNames) {
+		int hash = hash(name, paramTypeNames);
+		for(Entry e = table[hash & mask]; e != null; e = e.next) {
+			if(e.hash == hash && matches(e, name, paramTypeNames)) {
+				return e.method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds a method by its name and erased parameter types.
+	 *
+	 * @param name the method name
+	 * @param paramTypes the erased parameter types
+	 * @return the method with the given signature, or {@code null} if no such method exists
+	 */
+	public ExecutableElement find(CharSequence name, Class<?>[] paramTypes) {
+		int hash = hashCode(name);
+		for(Class<?> paramType : paramTypes) {
+			hash = 31 * hash + CANONICAL_NAMES.get(paramType).hashCode();
+		}
+		hash = spread(hash);
+		for(Entry e = table[hash & mask]; e != null; e = e.next) {
+			if(e.hash == hash && matches(e, name, paramTypes)) {
+				return e.method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds a constructor by its erased parameter type names.
+	 *
+	 * @param paramTypeNames the canonical names of the erased parameter types
+	 * @return the constructor with the given signature, or {@code null} if no such
+	 * constructor exists
+	 */
+	public ExecutableElement findConstructor(CharSequence... paramTypeNames) {
+		return find(CONSTRUCTOR_NAME, paramTypeNames);
+	}
+
+	/**
+	 * Finds a constructor by its erased parameter types.
+	 *
+	 * @param paramTypes the erased parameter types
+	 * @return the constructor with the given signature, or {@code null} if no such
+	 * constructor exists
+	 */
+	public ExecutableElement findConstructor(Class<?>[] paramTypes) {
+		return find(CONSTRUCTOR_NAME, paramTypes);
+	}
+
+	private void insert(Entry entry) {
+		int bucket = entry.hash & mask;
+		Entry e = table[bucket];
+		if(e == null) {
+			table[bucket] = entry;
+			return;
+		}
+		while(true) {
+			if(e.hash == entry.hash && matches(e, entry.name, entry.paramTypeNames)) {
+				return; // first one takes precedence
+			}
+			if(e.next == null) {
+				e.next = entry;
+				return;
+			}
+			e = e.next;
+		}
+	}
+
+	private static boolean matches(Entry e, CharSequence name, CharSequence[] paramTypeNames) {
+		String[] entryTypeNames = e.paramTypeNames;
+		if(entryTypeNames.length != paramTypeNames.length || !e.name.contentEquals(name)) {
+			return false;
+		}
+		for(int i = 0; i < entryTypeNames.length; i++) {
+			if(!entryTypeNames[i].contentEquals(paramTypeNames[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(Entry e, CharSequence name, Class<?>[] paramTypes) {
+		String[] entryTypeNames = e.paramTypeNames;
+		if(entryTypeNames.length != paramTypes.length || !e.name.contentEquals(name)) {
+			return false;
+		}
+		for(int i = 0; i < entryTypeNames.length; i++) {
+			if(!entryTypeNames[i].equals(CANONICAL_NAMES.get(paramTypes[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(CharSequence name, CharSequence[] paramTypeNames) {
+		int hash = hashCode(name);
+		for(CharSequence paramTypeName : paramTypeNames) {
+			hash = 31 * hash + hashCode(paramTypeName);
+		}
+		return spread(hash);
+	}
+
+	/**
+	 * Computes the hash code of a character sequence, consistent with {@link String#hashCode()},
+	 * but without converting it to a string.
+	 */
+	private static int hashCode(CharSequence cs) {
+		if(cs instanceof String) {
+			return cs.hashCode();
+		}
+		int h = 0;
+		int len = cs.length();
+		for(int i = 0; i < len; i++) {
+			h = 31 * h + cs.charAt(i);
+		}
+		return h;
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+}
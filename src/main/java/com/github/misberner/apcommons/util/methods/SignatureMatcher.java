@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util.methods;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import com.github.misberner.apcommons.util.types.TypeUtils;
+
+/**
+ * A precompiled matcher for the erased parameter types of methods.
+ * <p>
+ * Upon creation, the expected parameter types are resolved to {@link TypeElement}s (for declared
+ * types) or {@link TypeKind}s (for primitive types). Matching a method then compares erased
+ * parameter types against these by identity, without materializing any type names. Declared types
+ * which cannot be resolved (e.g., types which are generated in the current round) are compared by
+ * name instead; see {@link ParameterType#matches(TypeMirror, Types)}.
+ * <p>
+ * Signature matchers should only be reused within a single round (see
+ * {@link com.github.misberner.apcommons.util.APUtils#invalidateCaches() APUtils.invalidateCaches()}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class SignatureMatcher {
+
+	/**
+	 * A resolved, erased parameter type.
+	 */
+	public static final class ParameterType {
+
+		private static final Map<String,TypeKind> PRIMITIVE_KINDS;
+
+		static {
+			PRIMITIVE_KINDS = new HashMap<>();
+			PRIMITIVE_KINDS.put("boolean", TypeKind.BOOLEAN);
+			PRIMITIVE_KINDS.put("char", TypeKind.CHAR);
+			PRIMITIVE_KINDS.put("byte", TypeKind.BYTE);
+			PRIMITIVE_KINDS.put("short", TypeKind.SHORT);
+			PRIMITIVE_KINDS.put("int", TypeKind.INT);
+			PRIMITIVE_KINDS.put("long", TypeKind.LONG);
+			PRIMITIVE_KINDS.put("float", TypeKind.FLOAT);
+			PRIMITIVE_KINDS.put("double", TypeKind.DOUBLE);
+		}
+
+		/**
+		 * Resolves the parameter type represented by a {@link Class} object.
+		 *
+		 * @param clazz the class object
+		 * @param elementUtils the element utilities, used for resolving declared types
+		 * @return the resolved parameter type
+		 */
+		public static ParameterType of(Class<?> clazz, Elements elementUtils) {
+			if(clazz.isArray()) {
+				return new ParameterType(TypeKind.ARRAY, null, of(clazz.getComponentType(), elementUtils));
+			}
+			if(clazz.isPrimitive()) {
+				return new ParameterType(TypeUtils.getKind(clazz), null, null);
+			}
+			String name = clazz.getCanonicalName();
+			if(name == null) {
+				name = clazz.getName();
+			}
+			return new ParameterType(name, elementUtils.getTypeElement(name));
+		}
+
+		/**
+		 * Resolves the parameter type represented by a canonical type name, such as
+		 * <tt>"java.util.Map.Entry"</tt>, <tt>"int"</tt> or <tt>"java.lang.String[]"</tt>.
+		 *
+		 * @param typeName the canonical type name
+		 * @param elementUtils the element utilities, used for resolving declared types
+		 * @return the resolved parameter type
+		 */
+		public static ParameterType of(CharSequence typeName, Elements elementUtils) {
+			int end = typeName.length();
+			int dims = 0;
+			while(end >= 2 && typeName.charAt(end - 1) == ']' && typeName.charAt(end - 2) == '[') {
+				end -= 2;
+				dims++;
+			}
+			String baseName = typeName.subSequence(0, end).toString();
+			ParameterType result;
+			TypeKind primitiveKind = PRIMITIVE_KINDS.get(baseName);
+			if(primitiveKind != null) {
+				result = new ParameterType(primitiveKind, null, null);
+			}
+			else {
+				result = new ParameterType(baseName, elementUtils.getTypeElement(baseName));
+			}
+			for(int i = 0; i < dims; i++) {
+				result = new ParameterType(TypeKind.ARRAY, null, result);
+			}
+			return result;
+		}
+
+		private final TypeKind kind;
+		private final String qualifiedName;
+		private final TypeElement element;
+		private final ParameterType componentType;
+
+		private ParameterType(TypeKind kind, TypeElement element, ParameterType componentType) {
+			this.kind = kind;
+			this.qualifiedName = null;
+			this.element = element;
+			this.componentType = componentType;
+		}
+
+		private ParameterType(String qualifiedName, TypeElement element) {
+			this.kind = TypeKind.DECLARED;
+			this.qualifiedName = qualifiedName;
+			this.element = element;
+			this.componentType = null;
+		}
+
+		/**
+		 * Checks whether the erasure of the given type equals this parameter type.
+		 * <p>
+		 * If this parameter type is a declared type which could not be resolved to a type element,
+		 * declared types are compared by their qualified names. Erroneous types (i.e., types that do
+		 * not exist yet, such as types generated in the current round) are compared by the name
+		 * used in the source, which may be the qualified or an abbreviated (e.g., imported) name.
+		 *
+		 * @param type the type to check
+		 * @param typeUtils the type utilities, used for erasing type variables
+		 * @return {@code true} if the erasure of the given type equals this parameter type,
+		 * {@code false} otherwise
+		 */
+		public boolean matches(TypeMirror type, Types typeUtils) {
+			TypeKind typeKind = type.getKind();
+			if(typeKind == TypeKind.TYPEVAR) {
+				type = typeUtils.erasure(type);
+				typeKind = type.getKind();
+			}
+			if(typeKind == TypeKind.ERROR && kind == TypeKind.DECLARED) {
+				return (element == null && matchesSourceName(type.toString()));
+			}
+			if(typeKind != kind) {
+				return false;
+			}
+			switch(kind) {
+			case DECLARED:
+				Element typeElem = ((DeclaredType)type).asElement();
+				if(element != null) {
+					return (typeElem == element);
+				}
+				return (typeElem instanceof TypeElement)
+						&& ((TypeElement)typeElem).getQualifiedName().contentEquals(qualifiedName);
+			case ARRAY:
+				return componentType.matches(((ArrayType)type).getComponentType(), typeUtils);
+			default:
+				return true;
+			}
+		}
+
+		private boolean matchesSourceName(String name) {
+			int len = name.length();
+			int qlen = qualifiedName.length();
+			if(len == qlen) {
+				return name.equals(qualifiedName);
+			}
+			return len < qlen && qualifiedName.endsWith(name) && qualifiedName.charAt(qlen - len - 1) == '.';
+		}
+	}
+
+	/**
+	 * Compiles a signature matcher for the given parameter types.
+	 *
+	 * @param elementUtils the element utilities
+	 * @param typeUtils the type utilities
+	 * @param paramTypes the expected erased parameter types
+	 * @return the signature matcher
+	 */
+	public static SignatureMatcher compile(Elements elementUtils, Types typeUtils, Class<?>... paramTypes) {
+		ParameterType[] types = new ParameterType[paramTypes.length];
+		for(int i = 0; i < types.length; i++) {
+			types[i] = ParameterType.of(paramTypes[i], elementUtils);
+		}
+		return new SignatureMatcher(typeUtils, types);
+	}
+
+	/**
+	 * Compiles a signature matcher for the given parameter type names.
+	 *
+	 * @param elementUtils the element utilities
+	 * @param typeUtils the type utilities
+	 * @param paramTypeNames the canonical names of the expected erased parameter types
+	 * @return the signature matcher
+	 */
+	public static SignatureMatcher compile(Elements elementUtils, Types typeUtils, CharSequence... paramTypeNames) {
+		ParameterType[] types = new ParameterType[paramTypeNames.length];
+		for(int i = 0; i < types.length; i++) {
+			types[i] = ParameterType.of(paramTypeNames[i], elementUtils);
+		}
+		return new SignatureMatcher(typeUtils, types);
+	}
+
+	/**
+	 * Checks whether the erased parameter types of a method match the given parameter types.
+	 *
+	 * @param method the method
+	 * @param typeUtils the type utilities
+	 * @param paramTypes the expected erased parameter types
+	 * @return {@code true} if the parameter types match, {@code false} otherwise
+	 */
+	public static boolean matches(ExecutableElement method, Types typeUtils, ParameterType... paramTypes) {
+		List<? extends VariableElement> params = method.getParameters();
+		if(params.size() != paramTypes.length) {
+			return false;
+		}
+		Iterator<? extends VariableElement> paramIt = params.iterator();
+		for(int i = 0; i < paramTypes.length; i++) {
+			if(!paramTypes[i].matches(paramIt.next().asType(), typeUtils)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final Types typeUtils;
+	private final ParameterType[] paramTypes;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param typeUtils the type utilities
+	 * @param paramTypes the expected erased parameter types
+	 */
+	public SignatureMatcher(Types typeUtils, ParameterType... paramTypes) {
+		this.typeUtils = typeUtils;
+		this.paramTypes = paramTypes.clone();
+	}
+
+	/**
+	 * Retrieves the number of parameters expected by this matcher.
+	 * @return the number of expected parameters
+	 */
+	public int getArity() {
+		return paramTypes.length;
+	}
+
+	/**
+	 * Checks whether the erased parameter types of the given method match.
+	 *
+	 * @param method the method
+	 * @return {@code true} if the parameter types match, {@code false} otherwise
+	 */
+	public boolean matches(ExecutableElement method) {
+		return matches(method, typeUtils, paramTypes);
+	}
+
+	/**
+	 * Finds the first method with matching parameter types.
+	 *
+	 * @param methods the methods to search
+	 * @return the first matching method, or {@code null} if there is no matching method
+	 */
+	public ExecutableElement findIn(Iterable<? extends ExecutableElement> methods) {
+		for(ExecutableElement method : methods) {
+			if(matches(method)) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the first method with the given name and matching parameter types.
+	 *
+	 * @param methods the methods to search
+	 * @param name the method name
+	 * @return the first matching method, or {@code null} if there is no matching method
+	 */
+	public ExecutableElement findIn(Iterable<? extends ExecutableElement> methods, CharSequence name) {
+		for(ExecutableElement method : methods) {
+			if(method.getSimpleName().contentEquals(name) && matches(method)) {
+				return method;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util.types;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A cache for the supertype closures of types, i.e., the sets of all (transitive) superclasses
+ * and superinterfaces of a type. Once the closure of a type has been computed, checking whether
+ * it is a subtype of another type only requires a set lookup.
+ * <p>
+ * The supertype closure of a type always contains the type itself. Type arguments are
+ * ignored, i.e., supertypes are represented by their type elements.
+ * <p>
+ * Type elements are compared by identity, hence the cache must be {@link #clear() cleared}
+ * at the beginning of each round (see {@link com.github.misberner.apcommons.util.APUtils#invalidateCaches() APUtils.invalidateCaches()}).
+ *
+ * @author Malte Isberner <malte.isberner@gmail.com>
+ */
+public final class SupertypeClosureCache {
+
+	private final Map<TypeElement,Set<TypeElement>> closures = new IdentityHashMap<>();
+
+	/**
+	 * Retrieves the supertype closure of the given type, including the type itself.
+	 *
+	 * @param type the type element
+	 * @return an unmodifiable identity set containing all transitive supertypes of the given type
+	 */
+	public Set<TypeElement> getSupertypes(TypeElement type) {
+		Set<TypeElement> closure = closures.get(type);
+		if(closure == null) {
+			closure = computeSupertypes(type);
+			closures.put(type, closure);
+		}
+		return closure;
+	}
+
+	/**
+	 * Checks whether a type is a subtype of another type, ignoring type arguments.
+	 * Every type is considered a subtype of itself.
+	 *
+	 * @param subtype the potential subtype
+	 * @param supertype the potential supertype
+	 * @return {@code true} if {@code subtype} is a subtype of {@code supertype}, {@code false}
+	 * otherwise
+	 */
+	public boolean isSubtype(TypeElement subtype, TypeElement supertype) {
+		if(subtype == supertype) {
+			return true;
+		}
+		return getSupertypes(subtype).contains(supertype);
+	}
+
+	/**
+	 * Clears this cache. This method needs to be called at the beginning of each round
+	 * of annotation processing.
+	 */
+	public void clear() {
+		closures.clear();
+	}
+
+	private Set<TypeElement> computeSupertypes(TypeElement type) {
+		Set<TypeElement> closure = Collections.newSetFromMap(new IdentityHashMap<TypeElement,Boolean>());
+		closure.add(type);
+		addSupertypes(type.getSuperclass(), closure);
+		for(TypeMirror iface : type.getInterfaces()) {
+			addSupertypes(iface, closure);
+		}
+		return Collections.unmodifiableSet(closure);
+	}
+
+	private void addSupertypes(TypeMirror supertype, Set<TypeElement> closure) {
+		if(supertype.getKind() != TypeKind.DECLARED) {
+			return;
+		}
+		Element elem = ((DeclaredType)supertype).asElement();
+		if(closure.contains(elem)) {
+			return;
+		}
+		closure.addAll(getSupertypes((TypeElement)elem));
+	}
+}
@@ -16,8 +16,10 @@
 package com.github.misberner.apcommons.util.types;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,9 +32,14 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.IntersectionType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 
 // TODO Documentation
 public class TypeUtils {
@@ -58,6 +65,13 @@ public class TypeUtils {
 		}
 	}
 	
+	/**
+	 * Matches declared types by the qualified name of their type element.
+	 * <p>
+	 * Matchers of this type are stateless, and can hence be shared across rounds and
+	 * compilations. For identity-based matching within a single round, see
+	 * {@link TypeElementMatcher}.
+	 */
 	public static class DeclaredTypeNameMatcher implements TypeMatcher {
 		private final String name;
 		
@@ -80,6 +94,174 @@ public class TypeUtils {
 		}
 	}
 	
+	/**
+	 * Matches declared types by the identity of their type element. Matchers of this type
+	 * should only be used within a single round (see
+	 * {@link com.github.misberner.apcommons.util.APUtils#invalidateCaches() APUtils.invalidateCaches()}).
+	 */
+	public static class TypeElementMatcher implements TypeMatcher {
+		private final TypeElement typeElement;
+		
+		public TypeElementMatcher(TypeElement typeElement) {
+			this.typeElement = typeElement;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			if(type.getKind() != TypeKind.DECLARED) {
+				return false;
+			}
+			return (((DeclaredType)type).asElement() == typeElement);
+		}
+	}
+	
+	/**
+	 * Matches declared types whose raw type is matched by a given matcher, and whose type
+	 * arguments are matched by the respective type argument matchers.
+	 */
+	public static class ParameterizedTypeMatcher implements TypeMatcher {
+		private final TypeMatcher rawTypeMatcher;
+		private final TypeMatcher[] typeArgumentMatchers;
+		
+		public ParameterizedTypeMatcher(TypeMatcher rawTypeMatcher, TypeMatcher ...typeArgumentMatchers) {
+			this.rawTypeMatcher = rawTypeMatcher;
+			this.typeArgumentMatchers = typeArgumentMatchers.clone();
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			if(type.getKind() != TypeKind.DECLARED) {
+				return false;
+			}
+			List<? extends TypeMirror> typeArgs = ((DeclaredType)type).getTypeArguments();
+			if(typeArgs.size() != typeArgumentMatchers.length) {
+				return false;
+			}
+			if(!rawTypeMatcher.matches(type)) {
+				return false;
+			}
+			int i = 0;
+			for(TypeMirror typeArg : typeArgs) {
+				if(!typeArgumentMatchers[i++].matches(typeArg)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Matches wildcard types. A {@code null} bound matcher requires the respective bound
+	 * to be absent.
+	 */
+	public static class WildcardMatcher implements TypeMatcher {
+		private final TypeMatcher extendsBoundMatcher;
+		private final TypeMatcher superBoundMatcher;
+		
+		public WildcardMatcher(TypeMatcher extendsBoundMatcher, TypeMatcher superBoundMatcher) {
+			this.extendsBoundMatcher = extendsBoundMatcher;
+			this.superBoundMatcher = superBoundMatcher;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			if(type.getKind() != TypeKind.WILDCARD) {
+				return false;
+			}
+			WildcardType wt = (WildcardType)type;
+			return matchesBound(extendsBoundMatcher, wt.getExtendsBound())
+					&& matchesBound(superBoundMatcher, wt.getSuperBound());
+		}
+		
+		private static boolean matchesBound(TypeMatcher boundMatcher, TypeMirror bound) {
+			if(boundMatcher == null) {
+				return (bound == null);
+			}
+			return (bound != null && boundMatcher.matches(bound));
+		}
+	}
+	
+	public static class AndMatcher implements TypeMatcher {
+		private final TypeMatcher[] matchers;
+		
+		public AndMatcher(TypeMatcher ...matchers) {
+			this.matchers = matchers.clone();
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			for(TypeMatcher matcher : matchers) {
+				if(!matcher.matches(type)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	public static class OrMatcher implements TypeMatcher {
+		private final TypeMatcher[] matchers;
+		
+		public OrMatcher(TypeMatcher ...matchers) {
+			this.matchers = matchers.clone();
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			for(TypeMatcher matcher : matchers) {
+				if(matcher.matches(type)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	public static class NotMatcher implements TypeMatcher {
+		private final TypeMatcher matcher;
+		
+		public NotMatcher(TypeMatcher matcher) {
+			this.matcher = matcher;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			return !matcher.matches(type);
+		}
+	}
+	
+	/**
+	 * Matches types for which the given matcher matches the type itself or any of its
+	 * (transitive) superclasses or superinterfaces. Type variables are matched via their
+	 * upper bound, and intersection types via each of their bounds.
+	 * <p>
+	 * This matcher walks the supertype hierarchy on every call, visiting every supertype at most
+	 * once. For repeated checks, consider using a {@link ClosureSubtypeMatcher} instead.
+	 */
 	public static class SubTypeMatcher implements TypeMatcher {
 		private final TypeMatcher supertypeMatcher;
 		
@@ -87,20 +269,122 @@ public class TypeUtils {
 			this.supertypeMatcher = supertypeMatcher;
 		}
 		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
 		@Override
 		public boolean matches(TypeMirror type) {
-			while(type.getKind() == TypeKind.DECLARED) {
-				if(supertypeMatcher.matches(type)) {
+			return matches(type, Collections.newSetFromMap(new IdentityHashMap<TypeElement,Boolean>()));
+		}
+		
+		private boolean matches(TypeMirror type, Set<TypeElement> visited) {
+			switch(type.getKind()) {
+			case TYPEVAR:
+				return matches(((TypeVariable)type).getUpperBound(), visited);
+			case INTERSECTION:
+				for(TypeMirror bound : ((IntersectionType)type).getBounds()) {
+					if(matches(bound, visited)) {
+						return true;
+					}
+				}
+				return false;
+			case DECLARED:
+				break;
+			default:
+				return false;
+			}
+			DeclaredType dt = (DeclaredType)type;
+			TypeElement te = (TypeElement)dt.asElement();
+			// The supertypes of an element do not depend on the path via which it is reached,
+			// hence an element that has been visited before cannot yield a match
+			if(!visited.add(te)) {
+				return false;
+			}
+			if(supertypeMatcher.matches(type)) {
+				return true;
+			}
+			if(matches(te.getSuperclass(), visited)) {
+				return true;
+			}
+			for(TypeMirror iface : te.getInterfaces()) {
+				if(matches(iface, visited)) {
 					return true;
 				}
-				DeclaredType dt = (DeclaredType)type;
-				TypeElement te = (TypeElement)dt.asElement();
-				type = te.getSuperclass();
 			}
 			return false;
 		}
 	}
 	
+	/**
+	 * Matches subtypes of a given type element, using a {@link SupertypeClosureCache}.
+	 * Type arguments are ignored, type variables are matched via their upper bound, and
+	 * intersection types via each of their bounds.
+	 * Like {@link TypeElementMatcher}s, matchers of this type should only be used within a
+	 * single round.
+	 */
+	public static class ClosureSubtypeMatcher implements TypeMatcher {
+		private final TypeElement supertype;
+		private final SupertypeClosureCache closureCache;
+		
+		public ClosureSubtypeMatcher(TypeElement supertype, SupertypeClosureCache closureCache) {
+			this.supertype = supertype;
+			this.closureCache = closureCache;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			switch(type.getKind()) {
+			case TYPEVAR:
+				return matches(((TypeVariable)type).getUpperBound());
+			case INTERSECTION:
+				for(TypeMirror bound : ((IntersectionType)type).getBounds()) {
+					if(matches(bound)) {
+						return true;
+					}
+				}
+				return false;
+			case DECLARED:
+				break;
+			default:
+				return false;
+			}
+			TypeElement te = (TypeElement)((DeclaredType)type).asElement();
+			return closureCache.isSubtype(te, supertype);
+		}
+	}
+	
+	/**
+	 * Matches subtypes of a given type by delegating to {@link Types#isSubtype(TypeMirror, TypeMirror)}.
+	 * Both types are erased before the check, i.e., type arguments are ignored.
+	 */
+	public static class TypesSubtypeMatcher implements TypeMatcher {
+		private final TypeMirror erasedSupertype;
+		private final Types typeUtils;
+		
+		public TypesSubtypeMatcher(TypeMirror supertype, Types typeUtils) {
+			this.erasedSupertype = typeUtils.erasure(supertype);
+			this.typeUtils = typeUtils;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see com.github.misberner.apcommons.util.TypeUtils.TypeMatcher#matches(javax.lang.model.type.TypeMirror)
+		 */
+		@Override
+		public boolean matches(TypeMirror type) {
+			TypeKind kind = type.getKind();
+			if(kind != TypeKind.DECLARED && kind != TypeKind.TYPEVAR) {
+				return false;
+			}
+			return typeUtils.isSubtype(typeUtils.erasure(type), erasedSupertype);
+		}
+	}
+	
 	public static class DeclaredTypeNamesMatcher implements TypeMatcher {
 		private final Set<String> typeNames;
 		
@@ -143,6 +427,42 @@ public class TypeUtils {
 		}
 	}
 	
+	private static final TypeMatcher ANY_MATCHER = new TypeMatcher() {
+		@Override
+		public boolean matches(TypeMirror type) {
+			return true;
+		}
+	};
+	
+	private static final ClassValue<TypeMatcher> MATCHERS = new ClassValue<TypeMatcher>() {
+		@Override
+		protected TypeMatcher computeValue(Class<?> clazz) {
+			if(clazz.isArray()) {
+				return getArrayMatcher(clazz);
+			}
+			if(clazz.isPrimitive()) {
+				return getPrimitiveMatcher(clazz);
+			}
+			return getDeclaredMatcher(clazz);
+		}
+	};
+	
+	private static final ClassValue<TypeMatcher> SUBTYPE_MATCHERS = new ClassValue<TypeMatcher>() {
+		@Override
+		protected TypeMatcher computeValue(Class<?> clazz) {
+			if(clazz.isArray()) {
+				Class<?> componentClazz = clazz.getComponentType();
+				TypeMatcher matcher = getSubtypeMatcher(componentClazz);
+				return new ArrayTypeMatcher(matcher);
+			}
+			if(clazz.isPrimitive()) {
+				return getPrimitiveMatcher(clazz);
+			}
+			TypeMatcher tm = getMatcher(clazz);
+			return new SubTypeMatcher(tm);
+		}
+	};
+	
 	private static final Map<Class<?>,TypeKind> CLASS_KIND_MAP;
 	
 	private static final KindMatcher[] KIND_MATCHERS;
@@ -191,31 +511,211 @@ public class TypeUtils {
 	}
 	
 	protected static TypeMatcher getDeclaredMatcher(Class<?> clazz) {
-		return new DeclaredTypeNameMatcher(clazz.getName());
+		String name = clazz.getCanonicalName();
+		if(name == null) {
+			name = clazz.getName();
+		}
+		return new DeclaredTypeNameMatcher(name);
 	}
 	
-	
+	/**
+	 * Retrieves a matcher for the (exact) type represented by the given class object.
+	 * Matchers are interned, i.e., repeated calls with the same class object return the same
+	 * matcher instance.
+	 * 
+	 * @param clazz the class object
+	 * @return a matcher for the respective type
+	 */
 	public static TypeMatcher getMatcher(Class<?> clazz) {
+		return MATCHERS.get(clazz);
+	}
+	
+	/**
+	 * Retrieves a matcher for the (exact) type represented by the given class object, which
+	 * compares declared types by the identity of their type elements. The type elements are
+	 * resolved once, using the given element utilities. If a type element cannot be resolved,
+	 * the (name-based) matcher returned by {@link #getMatcher(Class)} is used instead.
+	 * The returned matcher should only be used within a single round (see
+	 * {@link TypeElementMatcher}).
+	 * 
+	 * @param clazz the class object
+	 * @param elementUtils the element utilities
+	 * @return a matcher for the respective type
+	 */
+	public static TypeMatcher getMatcher(Class<?> clazz, Elements elementUtils) {
 		if(clazz.isArray()) {
-			return getArrayMatcher(clazz);
+			return new ArrayTypeMatcher(getMatcher(clazz.getComponentType(), elementUtils));
 		}
 		if(clazz.isPrimitive()) {
 			return getPrimitiveMatcher(clazz);
 		}
-		return getDeclaredMatcher(clazz);
+		String name = clazz.getCanonicalName();
+		TypeElement te = (name != null) ? elementUtils.getTypeElement(name) : null;
+		if(te == null) {
+			return getMatcher(clazz);
+		}
+		return new TypeElementMatcher(te);
 	}
 	
+	/**
+	 * Retrieves a matcher for the given type element, comparing declared types by
+	 * the identity of their type element.
+	 * 
+	 * @param typeElement the type element
+	 * @return a matcher for the respective type
+	 */
+	public static TypeMatcher getMatcher(TypeElement typeElement) {
+		return new TypeElementMatcher(typeElement);
+	}
+	
+	/**
+	 * Retrieves a matcher for the type represented by the given class object, or any subtype
+	 * thereof. Matchers are interned, i.e., repeated calls with the same class object return the
+	 * same matcher instance.
+	 * 
+	 * @param clazz the class object
+	 * @return a matcher for the respective type and all its subtypes
+	 */
 	public static TypeMatcher getSubtypeMatcher(Class<?> clazz) {
+		return SUBTYPE_MATCHERS.get(clazz);
+	}
+	
+	/**
+	 * Retrieves a matcher for the type represented by the given class object, or any subtype
+	 * thereof. Declared types are resolved to their type elements once, and subtype checks
+	 * are performed using the given supertype closure cache. If a type element cannot be resolved,
+	 * the (name-based) matcher returned by {@link #getSubtypeMatcher(Class)} is used instead.
+	 * The returned matcher should only be used within a single round (see
+	 * {@link TypeElementMatcher}).
+	 * 
+	 * @param clazz the class object
+	 * @param elementUtils the element utilities
+	 * @param closureCache the supertype closure cache
+	 * @return a matcher for the respective type and all its subtypes
+	 */
+	public static TypeMatcher getSubtypeMatcher(Class<?> clazz, Elements elementUtils,
+			SupertypeClosureCache closureCache) {
 		if(clazz.isArray()) {
-			Class<?> componentClazz = clazz.getComponentType();
-			TypeMatcher matcher = getSubtypeMatcher(componentClazz);
-			return new ArrayTypeMatcher(matcher);
+			return new ArrayTypeMatcher(getSubtypeMatcher(clazz.getComponentType(), elementUtils, closureCache));
 		}
 		if(clazz.isPrimitive()) {
 			return getPrimitiveMatcher(clazz);
 		}
-		TypeMatcher tm = getDeclaredMatcher(clazz);
-		return new SubTypeMatcher(tm);
+		String name = clazz.getCanonicalName();
+		TypeElement te = (name != null) ? elementUtils.getTypeElement(name) : null;
+		if(te == null) {
+			return getSubtypeMatcher(clazz);
+		}
+		return new ClosureSubtypeMatcher(te, closureCache);
+	}
+	
+	/**
+	 * Retrieves a matcher for the given type, or any subtype thereof. The check is delegated to
+	 * {@link Types#isSubtype(TypeMirror, TypeMirror)}, after erasing both types.
+	 * 
+	 * @param typeElement the type element of the supertype
+	 * @param typeUtils the type utilities
+	 * @return a matcher for the respective type and all its subtypes
+	 */
+	public static TypeMatcher getSubtypeMatcher(TypeElement typeElement, Types typeUtils) {
+		return new TypesSubtypeMatcher(typeElement.asType(), typeUtils);
+	}
+	
+	/**
+	 * Retrieves a matcher that matches any type.
+	 * @return a matcher that matches any type
+	 */
+	public static TypeMatcher any() {
+		return ANY_MATCHER;
+	}
+	
+	/**
+	 * Retrieves a matcher that matches a type if all of the given matchers match it.
+	 * 
+	 * @param matchers the matchers
+	 * @return the conjunction of the given matchers
+	 */
+	public static TypeMatcher and(TypeMatcher ...matchers) {
+		if(matchers.length == 1) {
+			return matchers[0];
+		}
+		return new AndMatcher(matchers);
+	}
+	
+	/**
+	 * Retrieves a matcher that matches a type if any of the given matchers match it.
+	 * 
+	 * @param matchers the matchers
+	 * @return the disjunction of the given matchers
+	 */
+	public static TypeMatcher or(TypeMatcher ...matchers) {
+		if(matchers.length == 1) {
+			return matchers[0];
+		}
+		return new OrMatcher(matchers);
+	}
+	
+	/**
+	 * Retrieves a matcher that matches a type if the given matcher does not match it.
+	 * 
+	 * @param matcher the matcher to negate
+	 * @return the negation of the given matcher
+	 */
+	public static TypeMatcher not(TypeMatcher matcher) {
+		if(matcher instanceof NotMatcher) {
+			return ((NotMatcher)matcher).matcher;
+		}
+		return new NotMatcher(matcher);
+	}
+	
+	/**
+	 * Retrieves a matcher for a parameterized type, such as {@code List<String>}.
+	 * 
+	 * @param rawType the raw type
+	 * @param typeArgumentMatchers the matchers for the type arguments
+	 * @return a matcher for the respective parameterized type
+	 */
+	public static TypeMatcher parameterized(Class<?> rawType, TypeMatcher ...typeArgumentMatchers) {
+		return new ParameterizedTypeMatcher(getMatcher(rawType), typeArgumentMatchers);
+	}
+	
+	/**
+	 * Retrieves a matcher for a parameterized type, such as {@code List<String>}.
+	 * 
+	 * @param rawTypeMatcher the matcher for the raw type
+	 * @param typeArgumentMatchers the matchers for the type arguments
+	 * @return a matcher for the respective parameterized type
+	 */
+	public static TypeMatcher parameterized(TypeMatcher rawTypeMatcher, TypeMatcher ...typeArgumentMatchers) {
+		return new ParameterizedTypeMatcher(rawTypeMatcher, typeArgumentMatchers);
+	}
+	
+	/**
+	 * Retrieves a matcher for the unbounded wildcard {@code ?}.
+	 * @return a matcher for the unbounded wildcard
+	 */
+	public static TypeMatcher wildcard() {
+		return new WildcardMatcher(null, null);
+	}
+	
+	/**
+	 * Retrieves a matcher for a wildcard of the form {@code ? extends T}.
+	 * 
+	 * @param boundMatcher the matcher for the upper bound
+	 * @return a matcher for the respective wildcard
+	 */
+	public static TypeMatcher wildcardExtends(TypeMatcher boundMatcher) {
+		return new WildcardMatcher(boundMatcher, null);
+	}
+	
+	/**
+	 * Retrieves a matcher for a wildcard of the form {@code ? super T}.
+	 * 
+	 * @param boundMatcher the matcher for the lower bound
+	 * @return a matcher for the respective wildcard
+	 */
+	public static TypeMatcher wildcardSuper(TypeMatcher boundMatcher) {
+		return new WildcardMatcher(null, boundMatcher);
 	}
 	
 	@SafeVarargs
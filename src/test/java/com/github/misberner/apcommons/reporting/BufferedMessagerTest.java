@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.reporting;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic.Kind;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BufferedMessagerTest {
+
+	/**
+	 * A messager recording all diagnostics as strings of the form <tt>KIND:message@element</tt>.
+	 */
+	private static final class RecordingMessager implements Messager {
+		private final List<String> messages = new ArrayList<>();
+
+		@Override
+		public void printMessage(Kind kind, CharSequence msg) {
+			printMessage(kind, msg, null, null, null);
+		}
+
+		@Override
+		public void printMessage(Kind kind, CharSequence msg, Element e) {
+			printMessage(kind, msg, e, null, null);
+		}
+
+		@Override
+		public void printMessage(Kind kind, CharSequence msg, Element e, AnnotationMirror a) {
+			printMessage(kind, msg, e, a, null);
+		}
+
+		@Override
+		public void printMessage(Kind kind, CharSequence msg, Element e, AnnotationMirror a,
+				AnnotationValue v) {
+			messages.add(kind + ":" + msg + (e == null ? "" : "@" + e));
+		}
+	}
+
+	/**
+	 * An object counting how often its string representation is requested.
+	 */
+	private static final class CountingArg {
+		private int toStringCount;
+
+		@Override
+		public String toString() {
+			toStringCount++;
+			return "arg";
+		}
+	}
+
+	private static Element element(final String label) {
+		return (Element)Proxy.newProxyInstance(BufferedMessagerTest.class.getClassLoader(),
+				new Class<?>[]{ Element.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				switch(method.getName()) {
+				case "toString":
+					return label;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	@Test
+	public void testDuplicatesReportedOnce() {
+		RecordingMessager rec = new RecordingMessager();
+		BufferedMessager messager = new BufferedMessager(rec);
+		Element e = element("e");
+
+		messager.printMessage(Kind.WARNING, "msg", e);
+		messager.printMessage(Kind.WARNING, new StringBuilder("msg"), e);
+		messager.printMessage(Kind.NOTE, "msg", e);
+		Assert.assertTrue(rec.messages.isEmpty());
+		Assert.assertEquals(1, messager.getDuplicateCount());
+
+		messager.flush();
+		Assert.assertEquals(Arrays.asList("WARNING:msg@e", "NOTE:msg@e",
+				"NOTE:Omitted 1 diagnostic(s) (1 duplicate(s), 0 exceeding limits)"), rec.messages);
+		Assert.assertEquals(3, messager.getTotalCount());
+		Assert.assertEquals(0, messager.getDuplicateCount());
+	}
+
+	@Test
+	public void testPerElementLimit() {
+		RecordingMessager rec = new RecordingMessager();
+		BufferedMessager messager = new BufferedMessager(rec, 2, 0);
+		Element e1 = element("e1");
+		Element e2 = element("e2");
+
+		messager.printMessage(Kind.WARNING, "a", e1);
+		messager.printMessage(Kind.WARNING, "b", e1);
+		messager.printMessage(Kind.WARNING, "c", e1);
+		messager.printMessage(Kind.WARNING, "d", e2);
+		messager.printMessage(Kind.WARNING, "e");
+		Assert.assertEquals(1, messager.getSuppressedCount());
+
+		messager.flush();
+		Assert.assertEquals(Arrays.asList("WARNING:a@e1", "WARNING:b@e1", "WARNING:d@e2", "WARNING:e",
+				"NOTE:Omitted 1 diagnostic(s) (0 duplicate(s), 1 exceeding limits)"), rec.messages);
+	}
+
+	@Test
+	public void testPerModuleLimit() {
+		RecordingMessager rec = new RecordingMessager();
+		BufferedMessager messager = new BufferedMessager(rec, 0, 1);
+
+		messager.startModule();
+		messager.printMessage(Kind.WARNING, "a");
+		messager.printMessage(Kind.WARNING, "b");
+		messager.startModule();
+		messager.printMessage(Kind.WARNING, "c");
+
+		messager.flush();
+		Assert.assertEquals(Arrays.asList("WARNING:a", "WARNING:c",
+				"NOTE:Omitted 1 diagnostic(s) (0 duplicate(s), 1 exceeding limits)"), rec.messages);
+	}
+
+	@Test
+	public void testFirstErrorExemptFromLimits() {
+		RecordingMessager rec = new RecordingMessager();
+		BufferedMessager messager = new BufferedMessager(rec, 1, 1);
+		Element e = element("e");
+
+		messager.printMessage(Kind.WARNING, "w", e);
+		messager.printMessage(Kind.ERROR, "err1", e);
+		messager.printMessage(Kind.ERROR, "err2", e);
+
+		messager.flush();
+		Assert.assertEquals(Arrays.asList("WARNING:w@e", "ERROR:err1@e",
+				"NOTE:Omitted 1 diagnostic(s) (0 duplicate(s), 1 exceeding limits)"), rec.messages);
+	}
+
+	@Test
+	public void testLimitsResetOnFlush() {
+		RecordingMessager rec = new RecordingMessager();
+		BufferedMessager messager = new BufferedMessager(rec, 1, 0);
+		Element e = element("e");
+
+		messager.printMessage(Kind.WARNING, "a", e);
+		messager.flush();
+		messager.printMessage(Kind.WARNING, "a", e);
+		messager.flush();
+
+		Assert.assertEquals(Arrays.asList("WARNING:a@e", "WARNING:a@e"), rec.messages);
+	}
+
+	@Test
+	public void testLazyMessagesNotFormattedBeforeFlush() {
+		RecordingMessager rec = new RecordingMessager();
+		BufferedMessager messager = new BufferedMessager(rec);
+		CountingArg arg = new CountingArg();
+
+		messager.printMessage(Kind.NOTE, new LazyMessage("value {}", new Object[]{ arg }));
+		messager.printMessage(Kind.NOTE, new LazyMessage("value {}", new Object[]{ arg }));
+		Assert.assertEquals(0, arg.toStringCount);
+		Assert.assertEquals(1, messager.getDuplicateCount());
+
+		messager.flush();
+		Assert.assertEquals("NOTE:value arg", rec.messages.get(0));
+		Assert.assertEquals(1, arg.toStringCount);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Name;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NameIndexTest {
+
+	/**
+	 * A name that is not interned, i.e., every instance is distinct (like ECJ's names).
+	 */
+	private static final class TestName implements Name {
+		private final String str;
+
+		public TestName(String str) {
+			this.str = str;
+		}
+
+		@Override
+		public int length() {
+			return str.length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return str.charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return str.subSequence(start, end);
+		}
+
+		@Override
+		public boolean contentEquals(CharSequence cs) {
+			return str.contentEquals(cs);
+		}
+
+		@Override
+		public String toString() {
+			return str;
+		}
+	}
+
+	private static Element element(final Name name, final String label) {
+		return (Element)Proxy.newProxyInstance(NameIndexTest.class.getClassLoader(),
+				new Class<?>[]{ Element.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				switch(method.getName()) {
+				case "getSimpleName":
+					return name;
+				case "toString":
+					return label;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	@Test
+	public void testGroupsNonInternedNamesByContent() {
+		Element foo1 = element(new TestName("foo"), "foo1");
+		Element bar1 = element(new TestName("bar"), "bar1");
+		Element foo2 = element(new TestName("foo"), "foo2");
+
+		NameIndex<Element> index = NameIndex.of(Arrays.asList(foo1, bar1, foo2));
+
+		Assert.assertEquals(2, index.size());
+		Assert.assertEquals(Arrays.asList(foo1, foo2), index.get("foo"));
+		Assert.assertEquals(Arrays.asList(foo1, foo2), index.get(new TestName("foo")));
+		Assert.assertEquals(Arrays.asList(foo1, foo2), index.get(foo2.getSimpleName()));
+		Assert.assertEquals(Arrays.asList(bar1), index.get(new StringBuilder("bar")));
+		Assert.assertNull(index.get("baz"));
+		Assert.assertSame(foo1, index.getFirst("foo"));
+	}
+
+	@Test
+	public void testGroupsInternedNames() {
+		Name foo = new TestName("foo");
+		Element foo1 = element(foo, "foo1");
+		Element foo2 = element(foo, "foo2");
+		Element bar1 = element(new TestName("bar"), "bar1");
+
+		NameIndex<Element> index = NameIndex.of(Arrays.asList(foo1, foo2, bar1));
+
+		Assert.assertEquals(Arrays.asList(foo1, foo2), index.get(foo));
+		Assert.assertEquals(Arrays.asList(bar1), index.get("bar"));
+	}
+
+	@Test
+	public void testEqualsElementsByName() {
+		Element foo1 = element(new TestName("foo"), "foo1");
+		Element bar1 = element(new TestName("bar"), "bar1");
+		Element foo2 = element(new TestName("foo"), "foo2");
+		List<Element> elems = Arrays.asList(foo1, bar1, foo2);
+
+		Map<String,List<Element>> expected = new HashMap<>(ElementUtils.elementsByName(elems));
+		NameIndex<Element> index = NameIndex.of(elems);
+
+		Assert.assertEquals(expected, index);
+		Assert.assertEquals(index, expected);
+		Assert.assertEquals(expected.keySet(), index.keySet());
+	}
+
+	@Test
+	public void testListsAreCreatedOnce() {
+		Element foo1 = element(new TestName("foo"), "foo1");
+		Element foo2 = element(new TestName("foo"), "foo2");
+		Element bar1 = element(new TestName("bar"), "bar1");
+
+		NameIndex<Element> index = NameIndex.of(Arrays.asList(foo1, foo2, bar1));
+
+		Assert.assertSame(index.get("foo"), index.get("foo"));
+		Assert.assertSame(index.get("bar"), index.get(bar1.getSimpleName()));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnmodifiable() {
+		Element foo1 = element(new TestName("foo"), "foo1");
+		NameIndex<Element> index = NameIndex.of(Arrays.asList(foo1));
+		index.get("foo").add(foo1);
+	}
+
+	@Test
+	public void testEmpty() {
+		NameIndex<Element> index = NameIndex.of(Arrays.<Element>asList());
+		Assert.assertTrue(index.isEmpty());
+		Assert.assertNull(index.get("foo"));
+	}
+}
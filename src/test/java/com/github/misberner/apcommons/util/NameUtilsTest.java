@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2014 by Malte Isberner (https://github.com/misberner).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.misberner.apcommons.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NameUtilsTest {
+
+	private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+		"abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class",
+		"const", "continue", "default", "do", "double", "else", "enum", "extends", "final",
+		"finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int",
+		"interface", "long", "native", "new", "package", "private", "protected", "public",
+		"return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+		"throw", "throws", "transient", "try", "void", "volatile", "while", "_",
+		"true", "false", "null"));
+
+	private static final Set<String> RESTRICTED_IDENTIFIERS = new HashSet<>(Arrays.asList(
+		"var", "yield", "record", "sealed", "permits"));
+
+	@Test
+	public void testCapitalizeFirst() {
+		Assert.assertEquals("", NameUtils.capitalizeFirst(""));
+		Assert.assertEquals("F", NameUtils.capitalizeFirst("f"));
+		Assert.assertEquals("FooBar", NameUtils.capitalizeFirst("fooBar"));
+		Assert.assertEquals("FooBar", NameUtils.capitalizeFirst(new StringBuilder("fooBar")));
+		Assert.assertEquals("_foo", NameUtils.capitalizeFirst("_foo"));
+		Assert.assertEquals("Ärger", NameUtils.capitalizeFirst("ärger"));
+
+		String capitalized = "FooBar";
+		Assert.assertSame(capitalized, NameUtils.capitalizeFirst(capitalized));
+	}
+
+	@Test
+	public void testAppendCapitalized() {
+		StringBuilder sb = new StringBuilder("get");
+		Assert.assertSame(sb, NameUtils.appendCapitalized(sb, "value"));
+		Assert.assertEquals("getValue", sb.toString());
+		Assert.assertEquals("get", NameUtils.appendCapitalized(new StringBuilder("get"), "").toString());
+	}
+
+	@Test
+	public void testCamelCase() {
+		Assert.assertEquals("", NameUtils.camelCase());
+		Assert.assertEquals("foo", NameUtils.camelCase("foo"));
+		Assert.assertEquals("fooBarBaz", NameUtils.camelCase("foo", "bar", "Baz"));
+		Assert.assertEquals("fooBar", NameUtils.camelCase(null, "", "foo", null, "bar", ""));
+		Assert.assertEquals("FooBar", NameUtils.camelCase("Foo", new StringBuilder("bar")));
+	}
+
+	@Test
+	public void testAccessorNames() {
+		Assert.assertEquals("getFoo", NameUtils.getterName("foo"));
+		Assert.assertEquals("setFoo", NameUtils.setterName("foo"));
+		Assert.assertEquals("isFoo", NameUtils.getterName(null, "is", "foo"));
+		Assert.assertEquals("foo", NameUtils.getterName(null, "", "foo"));
+		Assert.assertEquals("bar", NameUtils.getterName("bar", "foo"));
+		Assert.assertEquals("getFoo", NameUtils.getterName("", "foo"));
+	}
+
+	@Test
+	public void testIsJavaIdentifier() {
+		Assert.assertTrue(NameUtils.isJavaIdentifier("foo"));
+		Assert.assertTrue(NameUtils.isJavaIdentifier("_foo1"));
+		Assert.assertTrue(NameUtils.isJavaIdentifier("$"));
+		Assert.assertTrue(NameUtils.isJavaIdentifier("ärger"));
+		Assert.assertFalse(NameUtils.isJavaIdentifier(""));
+		Assert.assertFalse(NameUtils.isJavaIdentifier("1foo"));
+		Assert.assertFalse(NameUtils.isJavaIdentifier("foo-bar"));
+		Assert.assertFalse(NameUtils.isJavaIdentifier("foo.bar"));
+		Assert.assertFalse(NameUtils.isJavaIdentifier("foo bar"));
+	}
+
+	@Test
+	public void testIdentifierCharsAgreeWithCharacter() {
+		for(int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+			char c = (char)i;
+			Assert.assertEquals("start: " + i, Character.isJavaIdentifierStart(c),
+					NameUtils.isJavaIdentifierStart(c));
+			Assert.assertEquals("part: " + i, Character.isJavaIdentifierPart(c),
+					NameUtils.isJavaIdentifierPart(c));
+		}
+	}
+
+	@Test
+	public void testSimpleIdentifierCharsAgreeWithCharacter() {
+		for(int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+			char c = (char)i;
+			Assert.assertEquals("start: " + i, Character.isAlphabetic(c) || c == '_',
+					NameUtils.isSimpleJavaIdentifierStart(c));
+			Assert.assertEquals("part: " + i, Character.isAlphabetic(c) || Character.isDigit(c) || c == '_',
+					NameUtils.isSimpleJavaIdentifierPart(c));
+		}
+	}
+
+	@Test
+	public void testSimpleJavaIdentifier() {
+		Assert.assertTrue(NameUtils.isSimpleJavaIdentifier("foo1"));
+		Assert.assertTrue(NameUtils.isSimpleJavaIdentifier("ärger"));
+		Assert.assertTrue(NameUtils.isSimpleJavaIdentifier("_foo_1"));
+		Assert.assertFalse(NameUtils.isSimpleJavaIdentifier("foo$"));
+		Assert.assertFalse(NameUtils.isSimpleJavaIdentifier("1foo"));
+		Assert.assertFalse(NameUtils.isSimpleJavaIdentifier(""));
+	}
+
+	@Test
+	public void testReservedWords() {
+		for(String kw : KEYWORDS) {
+			Assert.assertTrue(kw, NameUtils.isKeyword(kw));
+			Assert.assertTrue(kw, NameUtils.isKeyword(new StringBuilder(kw)));
+			Assert.assertFalse(kw, NameUtils.isRestrictedIdentifier(kw));
+			Assert.assertFalse(kw, NameUtils.isValidJavaName(kw));
+		}
+		for(String ri : RESTRICTED_IDENTIFIERS) {
+			Assert.assertTrue(ri, NameUtils.isRestrictedIdentifier(ri));
+			Assert.assertFalse(ri, NameUtils.isKeyword(ri));
+			Assert.assertTrue(ri, NameUtils.isValidJavaName(ri));
+		}
+		Assert.assertFalse(NameUtils.isKeyword(""));
+		Assert.assertFalse(NameUtils.isKeyword("foo"));
+		Assert.assertFalse(NameUtils.isKeyword("Class"));
+		Assert.assertFalse(NameUtils.isKeyword("synchronizedX"));
+		Assert.assertFalse(NameUtils.isRestrictedIdentifier("non-sealed"));
+		Assert.assertTrue(NameUtils.isValidJavaName("clazz"));
+	}
+
+	/**
+	 * Words which differ from a reserved word in a single character, or by a missing or
+	 * additional character, may hash to the same slot of the reserved word table, and must
+	 * still be rejected.
+	 */
+	@Test
+	public void testNearMissesAreNotReserved() {
+		Set<String> reserved = new HashSet<>(KEYWORDS);
+		reserved.addAll(RESTRICTED_IDENTIFIERS);
+		for(String word : reserved) {
+			for(int i = 0; i < word.length(); i++) {
+				for(char c = 'A'; c <= 'z'; c++) {
+					char[] chars = word.toCharArray();
+					chars[i] = c;
+					checkReserved(reserved, new String(chars));
+				}
+				checkReserved(reserved, word.substring(0, i) + word.substring(i + 1));
+			}
+			checkReserved(reserved, word + "s");
+			checkReserved(reserved, "_" + word);
+		}
+	}
+
+	private static void checkReserved(Set<String> reserved, String word) {
+		Assert.assertEquals(word, KEYWORDS.contains(word), NameUtils.isKeyword(word));
+		Assert.assertEquals(word, RESTRICTED_IDENTIFIERS.contains(word),
+				NameUtils.isRestrictedIdentifier(word));
+	}
+}